@@ -7,6 +7,7 @@ import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.fabricmc.fabric.api.client.rendering.v1.level.LevelRenderEvents;
 import net.minecraft.client.Minecraft;
 import net.minecraft.world.phys.Vec3;
+import schnerry.seymouranalyzer.analyzer.VerdictTable;
 import schnerry.seymouranalyzer.command.SeymourCommand;
 import schnerry.seymouranalyzer.data.ChecklistCacheGenerator;
 import schnerry.seymouranalyzer.data.CollectionManager;
@@ -71,9 +72,13 @@ public class SeymourAnalyzerClient implements ClientModInitializer {
         // Register TradeScanner chat listener (for trade-completion detection)
         TradeScanner.register();
 
-        // Generate checklist caches on startup (runs async to avoid blocking)
+        // Generate checklist caches on startup unless the saved one is still current (runs async to avoid blocking)
         new Thread(() -> {
             try {
+                if (ChecklistCacheGenerator.isCacheCurrent()) {
+                    SeymourAnalyzer.LOGGER.info("Checklist cache matches the catalogs and collection, skipping regeneration");
+                    return;
+                }
                 // Wait a bit to let collection load
                 Thread.sleep(1000);
                 ChecklistCacheGenerator.generateAllCaches();
@@ -82,6 +87,9 @@ public class SeymourAnalyzerClient implements ClientModInitializer {
             }
         }, "ChecklistCacheInitializer").start();
 
+        // Load or regenerate the precomputed verdict table if enabled (runs async)
+        VerdictTable.getInstance().refresh();
+
         // Register keybindings (Press O to open GUI)
         KeyBindings.register();
         SeymourAnalyzer.LOGGER.info("Registered keybindings");
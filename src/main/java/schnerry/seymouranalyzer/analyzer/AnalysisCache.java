@@ -0,0 +1,136 @@
+package schnerry.seymouranalyzer.analyzer;
+
+import schnerry.seymouranalyzer.config.ClothConfig;
+import schnerry.seymouranalyzer.config.ConfigEpochs;
+import schnerry.seymouranalyzer.util.ColorMath;
+import schnerry.seymouranalyzer.util.PieceTypeUtil;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shared, bounded cache of ColorAnalyzer results keyed by (rgb, piece type).
+ * Entries are tagged with ClothConfig's analysis and custom color epochs; an entry from an older epoch
+ * counts as a miss and is replaced on access, so config changes never need to clear this cache explicitly.
+ * Split into independently locked LRU segments so render and scanner threads don't contend.
+ */
+public class AnalysisCache {
+    private static final int SEGMENTS = 16;
+    private static final int ENTRIES_PER_SEGMENT = 512;
+    private static final String[] PIECE_TYPES = {null, "helmet", "chestplate", "leggings", "boots"};
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private AnalysisCache() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    // Holder idiom: shared by render hooks, scanners and batch workers, so only one may ever be created
+    private static final class Holder {
+        static final AnalysisCache INSTANCE = new AnalysisCache();
+    }
+
+    public static AnalysisCache getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Cached equivalent of ColorAnalyzer.analyzeArmorColor(hex, pieceName)
+     */
+    public ColorAnalyzer.AnalysisResult get(String hex, String pieceName) {
+        return get(ColorMath.parseRgb(hex), pieceName);
+    }
+
+    /**
+     * Cached equivalent of ColorAnalyzer.analyzeArmorColor for a packed RGB value.
+     * Only the piece type detected from pieceName affects the result, so that is what's keyed.
+     */
+    public ColorAnalyzer.AnalysisResult get(int rgb, String pieceName) {
+        if (rgb < 0) return null;
+        String pieceType = PieceTypeUtil.detectPieceType(pieceName);
+        int typeIndex = typeIndex(pieceType);
+        long key = ((long) typeIndex << 24) | (rgb & 0xFFFFFF);
+        ConfigEpochs epochs = ClothConfig.getInstance().getEpochs();
+        Segment segment = segments[(int) (mix(key) & (SEGMENTS - 1))];
+
+        Entry entry;
+        synchronized (segment) {
+            entry = segment.get(key);
+        }
+        if (entry != null && entry.analysisEpoch == epochs.analysis() && entry.customsEpoch == epochs.customs()) {
+            hits.increment();
+            return entry.result;
+        }
+
+        misses.increment();
+        // Analyze outside the lock; a racing thread may compute the same entry, which is harmless
+        ColorAnalyzer.AnalysisResult result = ColorAnalyzer.getInstance()
+            .analyzeArmorColor(ColorMath.toHex(rgb), PIECE_TYPES[typeIndex]);
+        synchronized (segment) {
+            segment.put(key, new Entry(epochs.analysis(), epochs.customs(), result));
+        }
+        return result;
+    }
+
+    public Stats getStats() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    private static int typeIndex(String pieceType) {
+        for (int i = 1; i < PIECE_TYPES.length; i++) {
+            if (PIECE_TYPES[i].equals(pieceType)) return i;
+        }
+        return 0;
+    }
+
+    private static long mix(long key) {
+        key ^= key >>> 17;
+        key *= 0x9E3779B97F4A7C15L;
+        return key ^ (key >>> 29);
+    }
+
+    private record Entry(long analysisEpoch, long customsEpoch, ColorAnalyzer.AnalysisResult result) {
+    }
+
+    public record Stats(long hits, long misses, long evictions, int size) {
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+
+    private class Segment extends LinkedHashMap<Long, Entry> {
+        Segment() {
+            super(64, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            if (size() > ENTRIES_PER_SEGMENT) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -1,14 +1,18 @@
 package schnerry.seymouranalyzer.analyzer;
 
 import schnerry.seymouranalyzer.SeymourAnalyzer;
+import schnerry.seymouranalyzer.data.ColorCatalog;
 import schnerry.seymouranalyzer.data.ColorDatabase;
 import schnerry.seymouranalyzer.config.ClothConfig;
+import schnerry.seymouranalyzer.config.ConfigEpochs;
 import schnerry.seymouranalyzer.config.MatchPriority;
 import schnerry.seymouranalyzer.util.ColorMath;
+import schnerry.seymouranalyzer.util.DeltaEMetric;
 import schnerry.seymouranalyzer.util.PieceTypeUtil;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
 
 /**
  * Analyzes armor colors and finds best matches from the database
@@ -16,10 +20,13 @@ import java.util.stream.Collectors;
 public class ColorAnalyzer {
     private static ColorAnalyzer INSTANCE;
     private static final double PRIORITY_DELTA_E_WINDOW = 0.75;
-    private final ColorDatabase colorDatabase;
+    private static final int CATEGORY_LIMIT = 5;
+    private static final int TOP_LIMIT = 10;
+    private static final int BATCH_CHUNK = 256;
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+    private volatile Indexes indexes;
 
     private ColorAnalyzer() {
-        this.colorDatabase = ColorDatabase.getInstance();
     }
 
     public static ColorAnalyzer getInstance() {
@@ -33,298 +40,345 @@ public class ColorAnalyzer {
      * Analyze an armor piece and find best color matches
      * <p>
      * Strategy:
-     * 1. Collect matches from each category (customs, normals, fades) separately
-     * 2. Sort each category by deltaE
-     * 3. Take top 5 from each category to prevent any one category from crowding out others
-     * 4. Combine all selected matches and take top 10 by deltaE
-     * 5. Separate exact matches (always prioritized)
-     * 6. Apply user-defined priority order to non-exact matches
-     * 7. Return top 3 matches after prioritization
+     * 1. Query each category's index (customs, normals, fades) separately, under the configured ΔE metric
+     * 2. Take the 5 nearest from each category to prevent any one category from crowding out others
+     *    (only candidates near the item are visited, not the whole catalog)
+     * 3. Combine all selected matches and take top 10 by deltaE
+     * 4. Separate exact matches (always prioritized)
+     * 5. Apply user-defined priority order to non-exact matches
+     * 6. Return top 3 matches after prioritization
      * <p>
      * This ensures that custom colors and normal colors aren't excluded when there are
      * many fade dye matches, which was causing issues when showHighFades was enabled.
+     * <p>
+     * Candidates are ranked as positions into per-thread primitive buffers; ColorMatch objects are
+     * only created for the entries that end up in the result.
      */
     public AnalysisResult analyzeArmorColor(String hexcode, String pieceName) {
-        ClothConfig config = ClothConfig.getInstance();
-        String pieceType = PieceTypeUtil.detectPieceType(pieceName);
+        AnalysisResult result = analyze(ColorMath.parseRgb(hexcode), PieceTypeUtil.detectPieceType(pieceName),
+            snapshotSettings(), SCRATCH.get());
+        if (result == null) {
+            SeymourAnalyzer.LOGGER.warn("[ColorAnalyzer] No matches found for hex: {}", hexcode);
+        }
+        return result;
+    }
 
-        // Collect matches from each category separately to prevent one category from crowding out others
-        List<ColorMatch> customMatches = new ArrayList<>();
-        List<ColorMatch> normalMatches;
-        List<ColorMatch> fadeMatches = new ArrayList<>();
+    /**
+     * Analyze many colors against a single config snapshot, e.g. for collection-wide rebuilds.
+     * Work is split into fixed-size chunks on the common ForkJoinPool.
+     *
+     * @param rgb        packed 0xRRGGBB colors
+     * @param pieceTypes piece type per color as returned by PieceTypeUtil.detectPieceType (null = unknown)
+     * @return results in input order; an entry is null where analyzeArmorColor would return null
+     */
+    public AnalysisResult[] analyzeBatch(int[] rgb, String[] pieceTypes) {
+        if (rgb.length != pieceTypes.length) {
+            throw new IllegalArgumentException("rgb and pieceTypes must have the same length");
+        }
 
-        // Check custom colors first if enabled
-        if (config.isCustomColorsEnabled()) {
-            customMatches = findMatchesInMap(hexcode, pieceType, config.getCustomColors(), true, false);
-
-            // Apply high custom filtering - only show T0/T1 customs (deltaE <= 2.0) when disabled
-            if (!config.isShowHighCustoms()) {
-                customMatches = customMatches.stream()
-                        .filter(m -> m.deltaE <= 2.0) // Only keep T0/T1 customs (deltaE <= 2.0)
-                        .collect(Collectors.toList());
+        Settings settings = snapshotSettings();
+        AnalysisResult[] results = new AnalysisResult[rgb.length];
+        int chunks = (rgb.length + BATCH_CHUNK - 1) / BATCH_CHUNK;
+        IntStream range = IntStream.range(0, chunks);
+        (chunks > 1 ? range.parallel() : range).forEach(chunk -> {
+            Scratch scratch = SCRATCH.get();
+            int end = Math.min(rgb.length, (chunk + 1) * BATCH_CHUNK);
+            for (int i = chunk * BATCH_CHUNK; i < end; i++) {
+                results[i] = analyze(rgb[i], pieceTypes[i], settings, scratch);
             }
+        });
+        return results;
+    }
 
-            customMatches.sort(Comparator.comparingDouble(m -> m.deltaE));
+    private AnalysisResult analyze(int itemRgb, String pieceType, Settings settings, Scratch scratch) {
+        if (itemRgb < 0) return null; // malformed hexcode, not black
+        double[] itemLab = scratch.itemLab;
+        ColorMath.labInto(itemRgb, itemLab);
+
+        Indexes idx = settings.indexes();
+        ColorCatalog catalog = idx.catalog();
+        DeltaEMetric metric = settings.metric();
+        int slotBit = settings.pieceSpecific() ? ColorCatalog.slotBit(pieceType) : 0;
+        // 3-piece set filtering: skip 3p entries on helmets when disabled
+        boolean exclude3p = !settings.threePieceSets() && "helmet".equals(pieceType);
+        ColorIndex.Neighbors neighbors = scratch.neighbors;
+        scratch.size = 0;
+
+        // Take the closest 5 from each category to prevent any single category from dominating
+        // This ensures customs and normals aren't crowded out by fades
+
+        // Check custom colors first if enabled
+        if (settings.customColors()) {
+            // Apply high custom filtering - only show T0/T1 customs (deltaE <= T1 limit) when disabled
+            double maxDeltaE = settings.showHighCustoms() ? Double.POSITIVE_INFINITY : metric.getT1Limit();
+            idx.customs().nearest(metric, itemLab[0], itemLab[1], itemLab[2], maxDeltaE, slotBit, exclude3p, neighbors);
+            addNeighbors(metric, neighbors, scratch);
         }
 
         // Check target colors
-        normalMatches = findMatchesInMap(hexcode, pieceType, colorDatabase.getTargetColors(), false, false);
-        normalMatches.sort(Comparator.comparingDouble(m -> m.deltaE));
+        idx.normals().nearest(metric, itemLab[0], itemLab[1], itemLab[2], Double.POSITIVE_INFINITY, slotBit, exclude3p, neighbors);
+        addNeighbors(metric, neighbors, scratch);
 
         // Check fade dyes if enabled
-        if (config.isFadeDyesEnabled()) {
-            fadeMatches = findMatchesInMap(hexcode, pieceType, colorDatabase.getFadeDyes(), false, true);
-
-            // Apply high fade filtering - only show T0/T1 fades (deltaE <= 2.0) when disabled
-            if (!config.isShowHighFades()) {
-                fadeMatches = fadeMatches.stream()
-                    .filter(m -> m.deltaE <= 2.0) // Only keep T0/T1 fades (deltaE <= 2.0)
-                    .collect(Collectors.toList());
-            }
-
-            fadeMatches.sort(Comparator.comparingDouble(m -> m.deltaE));
+        if (settings.fadeDyes()) {
+            // Apply high fade filtering - only show T0/T1 fades (deltaE <= T1 limit) when disabled
+            double maxDeltaE = settings.showHighFades() ? Double.POSITIVE_INFINITY : metric.getT1Limit();
+            idx.fades().nearest(metric, itemLab[0], itemLab[1], itemLab[2], maxDeltaE, slotBit, exclude3p, neighbors);
+            addNeighbors(metric, neighbors, scratch);
         }
 
-        // Take top 5 from each category to prevent any single category from dominating
-        // This ensures customs and normals aren't crowded out by fades
-        List<ColorMatch> allMatches = new ArrayList<>();
-        allMatches.addAll(customMatches.stream().limit(5).toList());
-        allMatches.addAll(normalMatches.stream().limit(5).toList());
-        allMatches.addAll(fadeMatches.stream().limit(5).toList());
-
-        // Step 1: Sort all selected matches by deltaE
-        allMatches.sort(Comparator.comparingDouble(m -> m.deltaE));
-
-        // Step 2: Take top 10 closest matches by deltaE
-        List<ColorMatch> top10ByDeltaE = allMatches.stream()
-            .limit(10)
-            .toList();
-
-        // Step 3: Separate exact matches (deltaE ~= 0) from regular matches
-        // Exact matches should ALWAYS be prioritized above everything else
-        List<ColorMatch> exactMatches = new ArrayList<>();
-        List<ColorMatch> regularMatches = new ArrayList<>();
-
-        for (ColorMatch match : top10ByDeltaE) {
-            if (match.deltaE < 0.01) { // Exact match (accounting for floating point precision)
-                exactMatches.add(match);
-            } else {
-                regularMatches.add(match);
+        int[] entry = scratch.entry;
+        double[] deltaE = scratch.deltaE;
+        int[] tier = scratch.tier;
+        int[] priorityBit = scratch.priorityBit;
+
+        // Steps 1-2: Top 10 closest candidates by deltaE (stable, so ties keep collection order)
+        int[] top = scratch.top;
+        int topSize = 0;
+        for (int c = 0; c < scratch.size; c++) {
+            double d = deltaE[c];
+            if (topSize == TOP_LIMIT) {
+                if (deltaE[top[TOP_LIMIT - 1]] <= d) continue;
+                topSize--;
             }
-        }
-
-        // Step 4: Split regular matches into prioritized (tier 0-2) and unprioritized (tier 3+)
-        List<ColorMatch> prioritizedMatches = new ArrayList<>();
-        List<ColorMatch> unprioritizedMatches = new ArrayList<>();
-
-        for (ColorMatch match : regularMatches) {
-            if (match.tier <= 2) {
-                prioritizedMatches.add(match);
-            } else {
-                unprioritizedMatches.add(match);
+            int pos = topSize;
+            while (pos > 0 && deltaE[top[pos - 1]] > d) {
+                top[pos] = top[pos - 1];
+                pos--;
             }
+            top[pos] = c;
+            topSize++;
         }
 
-        // Step 5: Sort prioritized matches by priority, then by deltaE
-        prioritizedMatches.sort((m1, m2) -> {
-            MatchPriority p1 = getMatchPriority(m1);
-            MatchPriority p2 = getMatchPriority(m2);
-
-            ClothConfig clothConfig = ClothConfig.getInstance();
-            int idx1 = clothConfig.getPriorityIndex(p1);
-            int idx2 = clothConfig.getPriorityIndex(p2);
+        int[] priorityRank = settings.priorityRank();
+        for (int t = 0; t < topSize; t++) {
+            int c = top[t];
+            int category = catalog.category(entry[c]);
+            priorityBit[c] = tier[c] <= 2 ? tierPriorityBit(category == ColorCatalog.CUSTOM, category == ColorCatalog.FADE, tier[c]) : -1;
+        }
 
-            // If priorities are different, sort by priority (lower index = higher priority)
-            if (idx1 != idx2) {
-                return Integer.compare(idx1, idx2);
+        // Steps 3-6: exact matches (deltaE ~= 0) FIRST, then T0-T2 by priority then deltaE, then T3+ by deltaE
+        int[] order = scratch.order;
+        int count = 0;
+        for (int t = 0; t < topSize; t++) {
+            int c = top[t];
+            if (deltaE[c] < 0.01) order[count++] = c; // Exact match (accounting for floating point precision)
+        }
+        int prioritizedStart = count;
+        for (int t = 0; t < topSize; t++) {
+            int c = top[t];
+            if (deltaE[c] < 0.01 || tier[c] > 2) continue;
+            int rank = priorityRank[priorityBit[c]];
+            int pos = count++;
+            // Lower index = higher priority; same priority sorts by deltaE
+            while (pos > prioritizedStart) {
+                int prev = order[pos - 1];
+                int prevRank = priorityRank[priorityBit[prev]];
+                if (prevRank < rank || (prevRank == rank && deltaE[prev] <= deltaE[c])) break;
+                order[pos] = prev;
+                pos--;
             }
-
-            // Same priority, sort by deltaE
-            return Double.compare(m1.deltaE, m2.deltaE);
-        });
-
-        // Step 6: Combine lists - exact matches FIRST, then prioritized, then unprioritized
-        unprioritizedMatches.sort(Comparator.comparingDouble(m -> m.deltaE));
-        List<ColorMatch> finalList = new ArrayList<>();
-        finalList.addAll(exactMatches);  // Exact matches always first
-        finalList.addAll(prioritizedMatches);
-        finalList.addAll(unprioritizedMatches);
+            order[pos] = c;
+        }
+        for (int t = 0; t < topSize; t++) {
+            int c = top[t];
+            if (deltaE[c] >= 0.01 && tier[c] > 2) order[count++] = c;
+        }
 
         // Step 7: Apply safety guards to avoid inaccurate best-match picks
         // - Do not allow a T3+ result if any T0-T2 candidate exists
         // - Do not let priority override a materially closer normal/custom candidate
-        finalList = applySelectionGuards(finalList);
+        applySelectionGuards(catalog, scratch, count);
 
         // Step 8: Build result list - up to 10 non-T3 matches, minimum 3 total
-        List<ColorMatch> nonT3 = finalList.stream()
-            .filter(m -> m.tier <= 2)
-            .limit(10)
-            .collect(Collectors.toList());
-
-        List<ColorMatch> top3;
-        if (nonT3.size() >= 3) {
-            top3 = nonT3;
-        } else {
-            // Pad with T3+ entries to reach at least 3
-            top3 = new ArrayList<>(nonT3);
-            finalList.stream()
-                .filter(m -> m.tier > 2)
-                .limit(Math.max(0, 3 - nonT3.size()))
-                .forEach(top3::add);
+        int nonT3 = 0;
+        for (int k = 0; k < count; k++) {
+            if (tier[order[k]] <= 2) nonT3++;
         }
+        int resultSize = nonT3 >= 3 ? nonT3 : Math.min(3, count);
 
-        if (top3.isEmpty()) {
-            SeymourAnalyzer.LOGGER.warn("[ColorAnalyzer] No matches found for hex: {}", hexcode);
+        if (resultSize == 0) {
             return null;
         }
 
-        ColorMatch best = top3.getFirst();
-        int tier = calculateTier(best.deltaE, best.isCustom, best.isFade);
+        // Pad with T3+ entries to reach at least 3
+        List<ColorMatch> top3 = new ArrayList<>(resultSize);
+        for (int k = 0; k < count; k++) {
+            if (tier[order[k]] <= 2) top3.add(toMatch(catalog, scratch, order[k], itemRgb));
+        }
+        for (int k = 0; k < count && top3.size() < resultSize; k++) {
+            if (tier[order[k]] > 2) top3.add(toMatch(catalog, scratch, order[k], itemRgb));
+        }
 
-        return new AnalysisResult(best, top3, tier);
+        ColorMatch best = top3.getFirst();
+        return new AnalysisResult(best, top3, calculateTier(metric, best.deltaE, best.isCustom, best.isFade));
     }
 
     /**
      * Guardrails for final selection to reduce false positives where priority pushes a worse match to the top.
+     * Reorders the first count positions of scratch.order in place.
      */
-    private List<ColorMatch> applySelectionGuards(List<ColorMatch> input) {
-        if (input == null || input.isEmpty()) {
-            return input;
+    private void applySelectionGuards(ColorCatalog catalog, Scratch scratch, int count) {
+        if (count == 0) {
+            return;
         }
 
-        List<ColorMatch> guarded = new ArrayList<>(input);
-        ColorMatch currentBest = guarded.getFirst();
+        int[] order = scratch.order;
+        int[] tier = scratch.tier;
+        double[] deltaE = scratch.deltaE;
 
         // Guard 1: if best is T3+, prefer the closest T0-T2 candidate if one exists.
-        if (currentBest.tier > 2) {
-            Optional<ColorMatch> bestTier2OrLower = guarded.stream()
-                .filter(m -> m.tier <= 2)
-                .min(Comparator.comparingDouble(m -> m.deltaE));
-
-            if (bestTier2OrLower.isPresent()) {
-                ColorMatch better = bestTier2OrLower.get();
-                guarded.remove(better);
-                guarded.addFirst(better);
-                currentBest = better;
+        if (tier[order[0]] > 2) {
+            int better = -1;
+            for (int k = 0; k < count; k++) {
+                int c = order[k];
+                if (tier[c] <= 2 && (better < 0 || deltaE[c] < deltaE[order[better]])) better = k;
             }
+            if (better >= 0) moveToFront(order, better);
         }
 
         // Guard 2: if best is fade, but a normal/custom match is close in deltaE, prefer non-fade.
         // This avoids selecting fade T2 over plausible normal T1/T2 due to priority settings.
-        if (currentBest.isFade) {
-            double maxAllowedDeltaE = currentBest.deltaE + PRIORITY_DELTA_E_WINDOW;
-            Optional<ColorMatch> bestNonFadeNear = guarded.stream()
-                .filter(m -> !m.isFade && m.tier <= 2 && m.deltaE <= maxAllowedDeltaE)
-                .min(Comparator.comparingDouble(m -> m.deltaE));
-
-            if (bestNonFadeNear.isPresent()) {
-                ColorMatch better = bestNonFadeNear.get();
-                guarded.remove(better);
-                guarded.addFirst(better);
+        int currentBest = order[0];
+        if (catalog.category(scratch.entry[currentBest]) == ColorCatalog.FADE) {
+            double maxAllowedDeltaE = deltaE[currentBest] + PRIORITY_DELTA_E_WINDOW;
+            int better = -1;
+            for (int k = 0; k < count; k++) {
+                int c = order[k];
+                if (catalog.category(scratch.entry[c]) == ColorCatalog.FADE || tier[c] > 2 || deltaE[c] > maxAllowedDeltaE) continue;
+                if (better < 0 || deltaE[c] < deltaE[order[better]]) better = k;
             }
+            if (better >= 0) moveToFront(order, better);
         }
-
-        return guarded;
     }
 
-    private List<ColorMatch> findMatchesInMap(String itemHex, String pieceType,
-                                               Map<String, String> colorMap,
-                                               boolean isCustom, boolean isFade) {
-        ClothConfig config = ClothConfig.getInstance();
-        List<ColorMatch> matches = new ArrayList<>();
-        ColorMath.LAB itemLab = colorDatabase.getLabForHex(itemHex);
-
-        for (Map.Entry<String, String> entry : colorMap.entrySet()) {
-            String colorName = entry.getKey();
-            String targetHex = entry.getValue();
-
-            // Piece-specific filtering
-            if (config.isPieceSpecificEnabled() && !canMatchPiece(colorName, pieceType)) {
-                continue;
-            }
-
-            // 3-piece set filtering: skip 3p entries on helmets when disabled
-            if (!config.isThreePieceSetsEnabled() && pieceType != null && pieceType.equals("helmet")) {
-                if (colorName.contains("3p")) {
-                    continue;
-                }
-            }
+    private static void moveToFront(int[] order, int k) {
+        int c = order[k];
+        System.arraycopy(order, 0, order, 1, k);
+        order[0] = c;
+    }
 
-            ColorMath.LAB targetLab = colorDatabase.getLabForHex(targetHex);
-            double deltaE = ColorMath.calculateDeltaEWithLab(itemLab, targetLab);
+    /**
+     * Append the current neighbor buffer to the scratch candidates
+     */
+    private void addNeighbors(DeltaEMetric metric, ColorIndex.Neighbors neighbors, Scratch scratch) {
+        for (int n = 0; n < neighbors.size(); n++) {
+            int c = scratch.size++;
+            scratch.entry[c] = neighbors.index(n);
+            scratch.deltaE[c] = neighbors.deltaE(n);
+            scratch.tier[c] = metric.tierOf(scratch.deltaE[c]);
+        }
+    }
 
-            // Always add to matches - filtering is now done at the category level in analyzeArmorColor
-            int absoluteDist = ColorMath.calculateAbsoluteDistance(itemHex, targetHex);
-            int tier = calculateTier(deltaE, isCustom, isFade);
+    private ColorMatch toMatch(ColorCatalog catalog, Scratch scratch, int c, int itemRgb) {
+        int i = scratch.entry[c];
+        int category = catalog.category(i);
+        int absoluteDist = ColorMath.absDistance(itemRgb, catalog.rgb(i));
+        return new ColorMatch(catalog.name(i), catalog.hex(i), scratch.deltaE[c], absoluteDist, scratch.tier[c],
+            category == ColorCatalog.CUSTOM, category == ColorCatalog.FADE);
+    }
 
-            ColorMatch match = new ColorMatch(colorName, targetHex, deltaE, absoluteDist, tier, isCustom, isFade);
-            matches.add(match);
+    /**
+     * Per-category indexes for the current catalog snapshot; rebuilt when the catalog is replaced
+     */
+    private Indexes getIndexes() {
+        ColorCatalog catalog = ColorDatabase.getInstance().getCatalog();
+        Indexes current = indexes;
+        if (current == null || current.catalog() != catalog) {
+            current = new Indexes(catalog,
+                ColorIndex.build(catalog, ColorCatalog.NORMAL),
+                ColorIndex.build(catalog, ColorCatalog.FADE),
+                ColorIndex.build(catalog, ColorCatalog.CUSTOM));
+            indexes = current;
         }
-
-        return matches;
+        return current;
     }
 
-    private boolean canMatchPiece(String colorName, String pieceType) {
-        if (pieceType == null) return true;
+    /**
+     * Rebuild the custom color index - call after custom colors are added or removed.
+     * Advances the custom color epoch, which also refreshes the catalog and cached analyses.
+     */
+    public void rebuildCustomIndex() {
+        ClothConfig.getInstance().markChanged(ConfigEpochs.Concern.CUSTOMS);
+        indexes = null;
+        VerdictTable.getInstance().refresh();
+    }
 
-        String lower = colorName.toLowerCase();
+    private record Indexes(ColorCatalog catalog, ColorIndex normals, ColorIndex fades, ColorIndex customs) {
+    }
 
-        // 3p entries are multi-piece sets (chestplate/leggings/boots), never helmets.
-        if (lower.contains("3p")) {
-            return !"helmet".equals(pieceType);
-        }
+    /**
+     * Config values analyze() depends on, read once per call or batch.
+     * priorityRank holds the user's priority index for each TIER_PRIORITIES entry.
+     */
+    private record Settings(Indexes indexes, DeltaEMetric metric, boolean pieceSpecific, boolean threePieceSets,
+                            boolean customColors, boolean showHighCustoms, boolean fadeDyes, boolean showHighFades,
+                            int[] priorityRank) {
+    }
 
-        // Build the union of all explicitly mentioned piece types by splitting on
-        // "/" (alternative names for same hex) and "+" (multi-slot compounds).
-        // Parts with no slot keywords don't contribute — they're just name aliases.
-        Set<String> mentionedSlots = new HashSet<>();
-
-        for (String segment : colorName.split("/")) {
-            for (String part : segment.split("\\+")) {
-                part = part.trim();
-                if (PieceTypeUtil.matchesPieceType(part, "helmet"))     mentionedSlots.add("helmet");
-                if (PieceTypeUtil.matchesPieceType(part, "chestplate")) mentionedSlots.add("chestplate");
-                if (PieceTypeUtil.matchesPieceType(part, "leggings"))   mentionedSlots.add("leggings");
-                if (PieceTypeUtil.matchesPieceType(part, "boots"))      mentionedSlots.add("boots");
-            }
+    private Settings snapshotSettings() {
+        ClothConfig config = ClothConfig.getInstance();
+        int[] priorityRank = new int[TIER_PRIORITIES.length];
+        for (int bit = 0; bit < TIER_PRIORITIES.length; bit++) {
+            priorityRank[bit] = config.getPriorityIndex(TIER_PRIORITIES[bit]);
         }
+        return new Settings(getIndexes(), config.getDeltaEMetric(), config.isPieceSpecificEnabled(),
+            config.isThreePieceSetsEnabled(), config.isCustomColorsEnabled(), config.isShowHighCustoms(),
+            config.isFadeDyesEnabled(), config.isShowHighFades(), priorityRank);
+    }
 
-        // If no slot keywords found anywhere → generic color → allow for all slots
-        if (mentionedSlots.isEmpty()) return true;
-
-        return mentionedSlots.contains(pieceType);
+    /**
+     * Per-thread working buffers for analyzeArmorColor. Candidates are addressed by their
+     * collection position (customs, then normals, then fades).
+     */
+    private static final class Scratch {
+        final double[] itemLab = new double[3];
+        final ColorIndex.Neighbors neighbors = new ColorIndex.Neighbors(CATEGORY_LIMIT);
+        final int[] entry = new int[3 * CATEGORY_LIMIT];
+        final double[] deltaE = new double[3 * CATEGORY_LIMIT];
+        final int[] tier = new int[3 * CATEGORY_LIMIT];
+        final int[] priorityBit = new int[3 * CATEGORY_LIMIT];
+        final int[] top = new int[TOP_LIMIT];
+        final int[] order = new int[TOP_LIMIT];
+        int size;
     }
 
-    private int calculateTier(double deltaE, boolean isCustom, boolean isFade) {
-        if (deltaE <= 1) return 0;  // T1<
-        if (deltaE <= 2) return 1;  // T1
-        if (deltaE <= 5) return 2;  // T2
-        return 3;
+    private int calculateTier(DeltaEMetric metric, double deltaE, boolean isCustom, boolean isFade) {
+        return metric.tierOf(deltaE);  // T1< / T1 / T2 / T3+ using the metric's own cutoffs
     }
 
     /**
-     * Determine the MatchPriority enum value for a ColorMatch
-     * This is used to sort matches according to user priority settings
+     * Tier-based priorities in bit order for tierPriorityMask
      */
-    private MatchPriority getMatchPriority(ColorMatch match) {
-        if (match.isCustom) {
-            if (match.tier == 1 || match.tier == 0) return MatchPriority.CUSTOM_T1;
-            if (match.tier == 2) return MatchPriority.CUSTOM_T2;
-        }
+    public static final MatchPriority[] TIER_PRIORITIES = {
+        MatchPriority.CUSTOM_T1, MatchPriority.CUSTOM_T2,
+        MatchPriority.FADE_T0, MatchPriority.FADE_T1, MatchPriority.FADE_T2,
+        MatchPriority.NORMAL_T0, MatchPriority.NORMAL_T1, MatchPriority.NORMAL_T2
+    };
 
-        if (match.isFade) {
-            if (match.tier == 0) return MatchPriority.FADE_T0;
-            if (match.tier == 1) return MatchPriority.FADE_T1;
-            if (match.tier == 2) return MatchPriority.FADE_T2;
-        }
+    /**
+     * Bitmask over TIER_PRIORITIES of every T0-T2 category present in the result's top matches.
+     * A piece can match multiple categories (e.g., T1 fade AND T2 normal).
+     */
+    public static int tierPriorityMask(AnalysisResult analysis) {
+        if (analysis == null || analysis.top3Matches() == null) return 0;
 
-        // Normal colors
-        if (match.tier == 0) return MatchPriority.NORMAL_T0;
-        if (match.tier == 1) return MatchPriority.NORMAL_T1;
-        if (match.tier == 2) return MatchPriority.NORMAL_T2;
+        int mask = 0;
+        for (ColorMatch match : analysis.top3Matches()) {
+            if (match.tier() > 2) continue;
 
-        // Fallback to lowest priority
-        return MatchPriority.NORMAL_T2;
+            mask |= 1 << tierPriorityBit(match.isCustom(), match.isFade(), match.tier());
+        }
+        return mask;
+    }
+
+    /**
+     * Index into TIER_PRIORITIES for a T0-T2 match (customs have no T0, so T0 counts as Custom T1)
+     */
+    private static int tierPriorityBit(boolean isCustom, boolean isFade, int tier) {
+        if (isCustom) return tier <= 1 ? 0 : 1;
+        if (isFade) return 2 + tier;
+        return 5 + tier;
     }
 
     public record AnalysisResult(ColorMatch bestMatch, List<ColorMatch> top3Matches, int tier) {
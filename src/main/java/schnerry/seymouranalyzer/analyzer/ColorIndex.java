@@ -0,0 +1,250 @@
+package schnerry.seymouranalyzer.analyzer;
+
+import schnerry.seymouranalyzer.data.ColorCatalog;
+import schnerry.seymouranalyzer.util.DeltaEMetric;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.IntConsumer;
+
+/**
+ * Static k-d tree over one category range of a {@link ColorCatalog}.
+ * Returned indices are catalog indices; within a category they follow the source map order,
+ * which is also used to break ΔE ties so results match a stable sort over that map.
+ */
+public class ColorIndex {
+    private final ColorCatalog catalog;
+    private final int from;
+    private final int to;
+
+    // Implicit balanced tree: the node for range [lo, hi) sits at (lo + hi) >>> 1
+    private final int[] tree;
+    private final byte[] splitAxis;
+
+    private ColorIndex(ColorCatalog catalog, int from, int to) {
+        this.catalog = catalog;
+        this.from = from;
+        this.to = to;
+        int n = to - from;
+        tree = new int[n];
+        splitAxis = new byte[n];
+        for (int j = 0; j < n; j++) tree[j] = from + j;
+        buildRange(0, n);
+    }
+
+    /**
+     * Index the entries of one catalog category (ColorCatalog.NORMAL, FADE or CUSTOM)
+     */
+    public static ColorIndex build(ColorCatalog catalog, int category) {
+        return new ColorIndex(catalog, catalog.start(category), catalog.end(category));
+    }
+
+    public int size() {
+        return tree.length;
+    }
+
+    public ColorCatalog catalog() {
+        return catalog;
+    }
+
+    /**
+     * Find up to the buffer capacity of nearest entries within maxDeltaE, sorted by ΔE then index.
+     *
+     * @param slotBit   only entries matching this slot (0 = any slot)
+     * @param exclude3p skip entries whose name contains "3p"
+     */
+    public void nearest(double L, double a, double b, double maxDeltaE, int slotBit, boolean exclude3p,
+                        Neighbors out) {
+        out.size = 0;
+        out.maxDistSq = maxDeltaE * maxDeltaE;
+        search(0, tree.length, L, a, b, slotBit, exclude3p, out);
+    }
+
+    /**
+     * nearest() under any ΔE metric. CIE76 uses the tree; the other metrics aren't Euclidean in LAB,
+     * so the range is scanned linearly and the full formula only runs for entries whose
+     * CIE76-derived lower bound can still beat the current k-th best.
+     */
+    public void nearest(DeltaEMetric metric, double L, double a, double b, double maxDeltaE, int slotBit,
+                        boolean exclude3p, Neighbors out) {
+        if (metric == DeltaEMetric.CIE76) {
+            nearest(L, a, b, maxDeltaE, slotBit, exclude3p, out);
+            return;
+        }
+
+        // Seed with the CIE76 nearest entries so the bound is tight from the start
+        nearest(L, a, b, Double.POSITIVE_INFINITY, slotBit, exclude3p, out);
+        int seedCount = out.size;
+        int[] seeds = out.seeds;
+        System.arraycopy(out.index, 0, seeds, 0, seedCount);
+
+        out.size = 0;
+        out.maxDistSq = maxDeltaE * maxDeltaE;
+        double c = Math.sqrt(a * a + b * b);
+        for (int s = 0; s < seedCount; s++) {
+            int i = seeds[s];
+            double deltaE = catalog.deltaE(metric, i, L, a, b, c);
+            out.offer(i, deltaE * deltaE);
+        }
+
+        for (int i = from; i < to; i++) {
+            if (!catalog.accepts(i, slotBit, exclude3p) || isSeed(seeds, seedCount, i)) continue;
+
+            double da = catalog.labA(i) - a;
+            double db = catalog.labB(i) - b;
+            double bound = metric.lowerBoundSq(catalog.labL(i), L, da * da + db * db, catalog.chroma(i), c);
+            if (bound > out.worstDistSq()) continue;
+
+            double deltaE = catalog.deltaE(metric, i, L, a, b, c);
+            out.offer(i, deltaE * deltaE);
+        }
+    }
+
+    private static boolean isSeed(int[] seeds, int seedCount, int i) {
+        for (int s = 0; s < seedCount; s++) {
+            if (seeds[s] == i) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Visit every entry within maxDeltaE (unordered)
+     */
+    public void forEachWithin(double L, double a, double b, double maxDeltaE, int slotBit, boolean exclude3p,
+                              IntConsumer consumer) {
+        visitWithin(0, tree.length, L, a, b, maxDeltaE * maxDeltaE, slotBit, exclude3p, consumer);
+    }
+
+    private void search(int lo, int hi, double L, double a, double b, int slotBit, boolean exclude3p,
+                        Neighbors out) {
+        if (lo >= hi) return;
+        int mid = (lo + hi) >>> 1;
+        int i = tree[mid];
+
+        if (catalog.accepts(i, slotBit, exclude3p)) {
+            out.offer(i, distSq(i, L, a, b));
+        }
+
+        double diff = axisValue(i, splitAxis[mid]) - query(splitAxis[mid], L, a, b);
+        if (diff > 0) {
+            search(lo, mid, L, a, b, slotBit, exclude3p, out);
+            if (diff * diff <= out.worstDistSq()) search(mid + 1, hi, L, a, b, slotBit, exclude3p, out);
+        } else {
+            search(mid + 1, hi, L, a, b, slotBit, exclude3p, out);
+            if (diff * diff <= out.worstDistSq()) search(lo, mid, L, a, b, slotBit, exclude3p, out);
+        }
+    }
+
+    private void visitWithin(int lo, int hi, double L, double a, double b, double maxDistSq, int slotBit,
+                             boolean exclude3p, IntConsumer consumer) {
+        if (lo >= hi) return;
+        int mid = (lo + hi) >>> 1;
+        int i = tree[mid];
+
+        if (catalog.accepts(i, slotBit, exclude3p) && distSq(i, L, a, b) <= maxDistSq) {
+            consumer.accept(i);
+        }
+
+        double diff = axisValue(i, splitAxis[mid]) - query(splitAxis[mid], L, a, b);
+        if (diff > 0 || diff * diff <= maxDistSq) visitWithin(lo, mid, L, a, b, maxDistSq, slotBit, exclude3p, consumer);
+        if (diff <= 0 || diff * diff <= maxDistSq) visitWithin(mid + 1, hi, L, a, b, maxDistSq, slotBit, exclude3p, consumer);
+    }
+
+    private double distSq(int i, double L, double a, double b) {
+        double dL = L - catalog.labL(i);
+        double da = a - catalog.labA(i);
+        double db = b - catalog.labB(i);
+        return dL * dL + da * da + db * db;
+    }
+
+    private double axisValue(int i, int axis) {
+        return axis == 0 ? catalog.labL(i) : axis == 1 ? catalog.labA(i) : catalog.labB(i);
+    }
+
+    private static double query(int axis, double L, double a, double b) {
+        return axis == 0 ? L : axis == 1 ? a : b;
+    }
+
+    private void buildRange(int lo, int hi) {
+        if (hi - lo <= 1) return;
+
+        // Split on the axis with the widest spread in this range
+        int axis = 0;
+        double widest = -1;
+        for (int ax = 0; ax < 3; ax++) {
+            double min = Double.MAX_VALUE, max = -Double.MAX_VALUE;
+            for (int j = lo; j < hi; j++) {
+                double v = axisValue(tree[j], ax);
+                min = Math.min(min, v);
+                max = Math.max(max, v);
+            }
+            if (max - min > widest) {
+                widest = max - min;
+                axis = ax;
+            }
+        }
+
+        final int sortAxis = axis;
+        Integer[] range = new Integer[hi - lo];
+        for (int j = lo; j < hi; j++) range[j - lo] = tree[j];
+        Arrays.sort(range, Comparator.comparingDouble(i -> axisValue(i, sortAxis)));
+        for (int j = lo; j < hi; j++) tree[j] = range[j - lo];
+
+        int mid = (lo + hi) >>> 1;
+        splitAxis[mid] = (byte) axis;
+        buildRange(lo, mid);
+        buildRange(mid + 1, hi);
+    }
+
+    /**
+     * Fixed-capacity result buffer for nearest(), kept sorted by (ΔE, index). Reusable between queries.
+     */
+    public static class Neighbors {
+        private final int[] index;
+        private final double[] distSq;
+        // CIE76 seeds for the non-Euclidean metrics, kept here so queries don't allocate
+        private final int[] seeds;
+        private int size;
+        private double maxDistSq;
+
+        public Neighbors(int capacity) {
+            index = new int[capacity];
+            distSq = new double[capacity];
+            seeds = new int[capacity];
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public int index(int i) {
+            return index[i];
+        }
+
+        public double deltaE(int i) {
+            return Math.sqrt(distSq[i]);
+        }
+
+        private double worstDistSq() {
+            return size < index.length ? maxDistSq : distSq[size - 1];
+        }
+
+        private void offer(int idx, double d) {
+            if (d > maxDistSq) return;
+            if (size == index.length) {
+                int last = size - 1;
+                if (d > distSq[last] || (d == distSq[last] && idx > index[last])) return;
+                size--;
+            }
+            int pos = size;
+            while (pos > 0 && (distSq[pos - 1] > d || (distSq[pos - 1] == d && index[pos - 1] > idx))) {
+                index[pos] = index[pos - 1];
+                distSq[pos] = distSq[pos - 1];
+                pos--;
+            }
+            index[pos] = idx;
+            distSq[pos] = d;
+            size++;
+        }
+    }
+}
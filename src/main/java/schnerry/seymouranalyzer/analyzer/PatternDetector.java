@@ -1,10 +1,15 @@
 package schnerry.seymouranalyzer.analyzer;
 
 import schnerry.seymouranalyzer.config.ClothConfig;
+import schnerry.seymouranalyzer.util.ColorMath;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.IntStream;
 
 /**
  * Detects special hex patterns (paired, repeating, palindrome, AxBxCx) and word matches
@@ -12,6 +17,17 @@ import java.util.Set;
 public class PatternDetector {
     private static PatternDetector INSTANCE;
 
+    private static final String[] AXBXCX_NAMES = new String[16];
+
+    static {
+        for (int digit = 0; digit < 16; digit++) {
+            AXBXCX_NAMES[digit] = "axbxcx_" + Character.toUpperCase(Character.forDigit(digit, 16));
+        }
+    }
+
+    // Word list compiled for the words epoch it was built at
+    private volatile CompiledWords compiledWords;
+
     private PatternDetector() {}
 
     public static PatternDetector getInstance() {
@@ -26,29 +42,35 @@ public class PatternDetector {
      * Returns: "paired", "repeating", "palindrome", "axbxcx", or null
      */
     public String detectPattern(String hex) {
-        if (hex == null || hex.length() != 6) return null;
+        if (hex == null || !isSixDigitHex(hex)) return null;
+        return detectPattern(ColorMath.parseRgb(hex));
+    }
 
-        hex = hex.toUpperCase();
-        char[] chars = hex.toCharArray();
+    /**
+     * detectPattern() for a packed 0xRRGGBB color; compares nibbles directly and doesn't allocate
+     */
+    public String detectPattern(int rgb) {
+        int d0 = (rgb >> 20) & 0xF, d1 = (rgb >> 16) & 0xF, d2 = (rgb >> 12) & 0xF;
+        int d3 = (rgb >> 8) & 0xF, d4 = (rgb >> 4) & 0xF, d5 = rgb & 0xF;
 
         // Check paired (AABBCC)
-        if (chars[0] == chars[1] && chars[2] == chars[3] && chars[4] == chars[5]) {
+        if (d0 == d1 && d2 == d3 && d4 == d5) {
             return "paired";
         }
 
         // Check repeating (ABCABC)
-        if (chars[0] == chars[3] && chars[1] == chars[4] && chars[2] == chars[5]) {
+        if (d0 == d3 && d1 == d4 && d2 == d5) {
             return "repeating";
         }
 
         // Check palindrome (ABCCBA)
-        if (chars[0] == chars[5] && chars[1] == chars[4] && chars[2] == chars[3]) {
+        if (d0 == d5 && d1 == d4 && d2 == d3) {
             return "palindrome";
         }
 
         // Check AxBxCx pattern
-        if (chars[0] == chars[2] && chars[2] == chars[4]) {
-            return "axbxcx_" + Character.toUpperCase(chars[0]);
+        if (d0 == d2 && d2 == d4) {
+            return AXBXCX_NAMES[d0];
         }
 
         return null;
@@ -62,9 +84,57 @@ public class PatternDetector {
         ClothConfig config = ClothConfig.getInstance();
         if (!config.isWordsEnabled()) return null;
 
-        hex = hex.toUpperCase();
-        Map<String, String> wordList = config.getWordList();
+        if (isSixDigitHex(hex)) {
+            return detectWordMatch(ColorMath.parseRgb(hex));
+        }
+        return scanWordList(hex.toUpperCase(), config.getWordList());
+    }
+
+    /**
+     * detectWordMatch() for a packed 0xRRGGBB color. Served from the precomputed WordTable when it's
+     * enabled and current, otherwise from the compiled word list.
+     */
+    public String detectWordMatch(int rgb) {
+        ClothConfig config = ClothConfig.getInstance();
+        if (!config.isWordsEnabled()) return null;
+        return WordTable.getInstance().lookup(rgb, getWordMatcher(config));
+    }
+
+    /**
+     * Word list compiled into a WordMatcher, recompiled when the words epoch moves
+     */
+    private WordMatcher getWordMatcher(ClothConfig config) {
+        long epoch = config.getEpochs().words();
+        CompiledWords current = compiledWords;
+        if (current == null || current.epoch() != epoch) {
+            current = new CompiledWords(epoch, WordMatcher.compile(config.getWordList()));
+            compiledWords = current;
+        }
+        return current.matcher();
+    }
+
+    private record CompiledWords(long epoch, WordMatcher matcher) {
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        if (c >= 'A' && c <= 'F') return c - 'A' + 10;
+        return -1;
+    }
+
+    private static boolean isSixDigitHex(String hex) {
+        if (hex.length() != 6) return false;
+        for (int i = 0; i < 6; i++) {
+            char c = hex.charAt(i);
+            if (!(c >= '0' && c <= '9') && !(c >= 'A' && c <= 'F') && !(c >= 'a' && c <= 'f')) return false;
+        }
+        return true;
+    }
 
+    /**
+     * Per-word scan, kept for hex strings that aren't exactly 6 hex digits
+     */
+    private String scanWordList(String hex, Map<String, String> wordList) {
         String longestMatch = null;
         int longestMatchLength = -1;
 
@@ -147,6 +217,115 @@ public class PatternDetector {
         return true;
     }
 
+    /**
+     * Every packed 0xRRGGBB color that a word pattern matches (same rules as detectWordMatch),
+     * generated from the pattern's structure rather than by testing all 2^24 colors.
+     * Each sliding-window placement enumerates 16^k colors for its k free digits / bound letters;
+     * colors already produced by an earlier placement are skipped, so every color appears once.
+     * The stream is lazy; patterns that can never match (too long, non-hex characters) yield nothing.
+     */
+    public IntStream enumerate(String pattern) {
+        String upper = pattern.toUpperCase();
+        if (upper.length() > 6) return IntStream.empty();
+        for (int i = 0; i < upper.length(); i++) {
+            char c = upper.charAt(i);
+            if (c != 'X' && c != 'W' && c != 'Y' && c != 'Z' && hexValue(c) < 0) return IntStream.empty();
+        }
+
+        List<Placement> placements = new ArrayList<>();
+        for (int start = 0; start + upper.length() <= 6; start++) {
+            Placement placement = new Placement(upper, start);
+            // Short patterns can produce the same constraints at several offsets (e.g. all-wildcard)
+            if (placements.stream().noneMatch(placement::sameConstraints)) {
+                placements.add(placement);
+            }
+        }
+
+        return IntStream.range(0, placements.size()).flatMap(p -> {
+            Placement placement = placements.get(p);
+            return IntStream.range(0, 1 << (4 * placement.variableCount))
+                .map(placement::colorFor)
+                .filter(rgb -> {
+                    for (int q = 0; q < p; q++) {
+                        if (placements.get(q).matches(rgb)) return false;
+                    }
+                    return true;
+                });
+        });
+    }
+
+    /**
+     * One sliding-window position of a word pattern over the 6 hex digits.
+     * Positions outside the window and X are free variables; all W (Y, Z) positions share one variable.
+     */
+    private static final class Placement {
+        private final int[] fixedDigit = new int[6];  // -1 = variable
+        private final int[] variable = new int[6];    // variable slot per position, -1 = fixed
+        private final int[] sameAs = new int[6];      // first position holding the same variable
+        private final int variableCount;
+
+        Placement(String pattern, int start) {
+            int count = 0;
+            int[] letterVariable = new int[3];
+            Arrays.fill(letterVariable, -1);
+            for (int pos = 0; pos < 6; pos++) {
+                int i = pos - start;
+                char c = i >= 0 && i < pattern.length() ? pattern.charAt(i) : 'X';
+                int letter = c == 'W' ? 0 : c == 'Y' ? 1 : c == 'Z' ? 2 : -1;
+                sameAs[pos] = pos;
+                if (letter >= 0) {
+                    if (letterVariable[letter] < 0) {
+                        letterVariable[letter] = count++;
+                    } else {
+                        for (int first = 0; first < pos; first++) {
+                            if (variable[first] == letterVariable[letter]) {
+                                sameAs[pos] = first;
+                                break;
+                            }
+                        }
+                    }
+                    variable[pos] = letterVariable[letter];
+                    fixedDigit[pos] = -1;
+                } else if (c == 'X') {
+                    variable[pos] = count++;
+                    fixedDigit[pos] = -1;
+                } else {
+                    variable[pos] = -1;
+                    fixedDigit[pos] = hexValue(c);
+                }
+            }
+            variableCount = count;
+        }
+
+        /**
+         * Color for the given assignment, variable v taking nibble v of the counter
+         */
+        int colorFor(int counter) {
+            int rgb = 0;
+            for (int pos = 0; pos < 6; pos++) {
+                int digit = variable[pos] < 0 ? fixedDigit[pos] : (counter >>> (4 * variable[pos])) & 0xF;
+                rgb = (rgb << 4) | digit;
+            }
+            return rgb;
+        }
+
+        boolean sameConstraints(Placement other) {
+            return Arrays.equals(fixedDigit, other.fixedDigit) && Arrays.equals(sameAs, other.sameAs);
+        }
+
+        boolean matches(int rgb) {
+            for (int pos = 0; pos < 6; pos++) {
+                int digit = digitAt(rgb, pos);
+                if (variable[pos] < 0 ? digit != fixedDigit[pos] : digit != digitAt(rgb, sameAs[pos])) return false;
+            }
+            return true;
+        }
+
+        private static int digitAt(int rgb, int pos) {
+            return (rgb >>> (4 * (5 - pos))) & 0xF;
+        }
+    }
+
     /**
      * Get all pieces with a specific pattern
      */
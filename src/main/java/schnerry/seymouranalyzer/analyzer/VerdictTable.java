@@ -0,0 +1,393 @@
+package schnerry.seymouranalyzer.analyzer;
+
+import net.fabricmc.loader.api.FabricLoader;
+import schnerry.seymouranalyzer.SeymourAnalyzer;
+import schnerry.seymouranalyzer.config.ClothConfig;
+import schnerry.seymouranalyzer.config.MatchPriority;
+import schnerry.seymouranalyzer.data.ColorCatalog;
+import schnerry.seymouranalyzer.data.ColorDatabase;
+import schnerry.seymouranalyzer.util.ColorMath;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Optional precomputed analysis verdicts for every RGB value and piece type.
+ * Each entry holds the best match, its tier and ΔE, plus the tier priority mask used by highlights.
+ * The table is stored under config/seymouranalyzer/, keyed by a hash of the color catalog and the
+ * config flags that affect ColorAnalyzer, and regenerated in the background when that hash changes.
+ */
+public class VerdictTable {
+    private static final int SIZE = 1 << 24;
+    private static final int MAGIC = 0x53415644; // "SAVD"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int STATE_OFFSET = 20;
+    private static final int STATE_COMPLETE = 1;
+    private static final int CHUNK = 1 << 12;
+
+    // Verdict bit layout: 13 bits match index, 2 bits tier, 17 bits ΔE * 100
+    private static final int NO_MATCH = (1 << 13) - 1;
+    private static final int TIER_SHIFT = 13;
+    private static final int DELTA_SHIFT = 15;
+    private static final int MAX_DELTA = (1 << 17) - 1;
+
+    // Representative piece names per PieceTypeUtil type, index 0 = unknown type
+    private static final String[] PIECE_TYPES = {null, "helmet", "chestplate", "leggings", "boots"};
+
+    private final File tableDir;
+    private volatile Snapshot current;
+    private volatile Layout building; // build in flight, compared by identity; null if none
+
+    private VerdictTable() {
+        tableDir = new File(FabricLoader.getInstance().getConfigDir().toFile(), "seymouranalyzer");
+        if (!tableDir.exists() && !tableDir.mkdirs()) {
+            SeymourAnalyzer.LOGGER.error("Failed to create seymouranalyzer config directory");
+        }
+    }
+
+    // Holder idiom: refresh() runs from the render thread as well as analysis workers
+    private static final class Holder {
+        static final VerdictTable INSTANCE = new VerdictTable();
+    }
+
+    public static VerdictTable getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public record Verdict(String name, String targetHex, double deltaE, int tier, boolean isCustom, boolean isFade) {
+    }
+
+    public boolean isReady() {
+        return current != null;
+    }
+
+    /**
+     * Best match verdict, or null if the table isn't available or nothing matched
+     */
+    public Verdict lookup(int rgb, String pieceType) {
+        Snapshot snapshot = current;
+        if (snapshot == null) return null;
+
+        int verdict = snapshot.verdicts[snapshot.variantOf(pieceType)].get(rgb & 0xFFFFFF);
+        int index = verdict & NO_MATCH;
+        if (index == NO_MATCH) return null;
+
+        return new Verdict(snapshot.names[index], snapshot.hexes[index],
+            (verdict >>> DELTA_SHIFT) / 100.0, (verdict >>> TIER_SHIFT) & 3,
+            index >= snapshot.customStart, index >= snapshot.fadeStart && index < snapshot.customStart);
+    }
+
+    /**
+     * Tier of the best match, or -1 if the table isn't available or nothing matched
+     */
+    public int tierOf(int rgb, String pieceType) {
+        Snapshot snapshot = current;
+        if (snapshot == null || rgb < 0) return -1;
+
+        int verdict = snapshot.verdicts[snapshot.variantOf(pieceType)].get(rgb & 0xFFFFFF);
+        return (verdict & NO_MATCH) == NO_MATCH ? -1 : (verdict >>> TIER_SHIFT) & 3;
+    }
+
+    /**
+     * ColorAnalyzer.tierPriorityMask of the analysis, or -1 if the table isn't available
+     */
+    public int priorityMask(int rgb, String pieceType) {
+        Snapshot snapshot = current;
+        if (snapshot == null) return -1;
+
+        return snapshot.masks[snapshot.variantOf(pieceType)].get(rgb & 0xFFFFFF) & 0xFF;
+    }
+
+    /**
+     * Check the catalog/config hash and load or regenerate the table in the background if it changed.
+     * Cheap when nothing changed; call after anything that affects analysis results.
+     */
+    public void refresh() {
+        if (!ClothConfig.getInstance().isVerdictTableEnabled()) {
+            // Clearing building makes a running builder abort instead of publishing its snapshot
+            building = null;
+            current = null;
+            return;
+        }
+
+        Layout layout = Layout.capture();
+        Snapshot snapshot = current;
+        if (snapshot != null && snapshot.hash == layout.hash) return;
+        Layout inFlight = building;
+        if (inFlight != null && inFlight.hash == layout.hash) return;
+        building = layout; // before clearing current, see loadOrBuild
+        current = null;
+
+        Thread thread = new Thread(() -> loadOrBuild(layout), "VerdictTableBuilder");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void loadOrBuild(Layout layout) {
+        long start = System.currentTimeMillis();
+        File file = new File(tableDir, String.format("verdicts-%016x.bin", layout.hash));
+        long fileBytes = HEADER_BYTES + (long) layout.variantCount * 5 * SIZE;
+
+        try {
+            if (!file.exists() || !isComplete(file, layout.hash, fileBytes)) {
+                // Per builder, so one that's still winding down after a disable/re-enable can't touch ours
+                File tmp = new File(tableDir, file.getName() + "." + Thread.currentThread().threadId() + ".tmp");
+                generate(tmp, layout, fileBytes);
+                if (building != layout) {
+                    Files.deleteIfExists(tmp.toPath());
+                    return;
+                }
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+
+            Snapshot snapshot = map(file, layout, fileBytes);
+            if (building != layout) return;
+            current = snapshot;
+            // Re-checked after publishing: a refresh() that disabled or superseded this build in between
+            // either sees the snapshot and clears it itself, or is seen here
+            if (building != layout || !ClothConfig.getInstance().isVerdictTableEnabled()) {
+                if (current == snapshot) current = null;
+                return;
+            }
+            deleteStaleTables(file);
+
+            SeymourAnalyzer.LOGGER.info("Verdict table ready ({} variants) in {}ms",
+                layout.variantCount, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            SeymourAnalyzer.LOGGER.error("Failed to build verdict table", e);
+        } finally {
+            if (building == layout) building = null;
+        }
+    }
+
+    private boolean isComplete(File file, long hash, long fileBytes) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() != fileBytes) return false;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            channel.read(header, 0);
+            return header.getInt(0) == MAGIC && header.getInt(4) == VERSION
+                && header.getLong(8) == hash && header.getInt(STATE_OFFSET) == STATE_COMPLETE;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private void generate(File file, Layout layout, long fileBytes) throws Exception {
+        SeymourAnalyzer.LOGGER.info("Generating verdict table ({} variants)...", layout.variantCount);
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileBytes);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(8, layout.hash);
+            buffer.putInt(16, layout.variantCount);
+            buffer.putInt(STATE_OFFSET, 0);
+
+            IntBuffer[] verdicts = new IntBuffer[layout.variantCount];
+            ByteBuffer[] masks = new ByteBuffer[layout.variantCount];
+            sliceColumns(buffer, layout.variantCount, verdicts, masks);
+
+            ColorAnalyzer analyzer = ColorAnalyzer.getInstance();
+            ForkJoinPool pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+            try {
+                pool.submit(() -> IntStream.range(0, SIZE / CHUNK).parallel().forEach(chunk -> {
+                    if (building != layout) return; // superseded, stop early
+                    int base = chunk * CHUNK;
+                    for (int v = 0; v < layout.variantCount; v++) {
+                        String pieceName = layout.variantPieceNames[v];
+                        for (int rgb = base; rgb < base + CHUNK; rgb++) {
+                            ColorAnalyzer.AnalysisResult analysis = analyzer.analyzeArmorColor(ColorMath.toHex(rgb), pieceName);
+                            verdicts[v].put(rgb, encode(analysis, layout));
+                            masks[v].put(rgb, (byte) ColorAnalyzer.tierPriorityMask(analysis));
+                        }
+                    }
+                })).get();
+            } finally {
+                pool.shutdown();
+            }
+
+            buffer.force();
+            buffer.putInt(STATE_OFFSET, STATE_COMPLETE);
+            buffer.force();
+        }
+    }
+
+    private Snapshot map(File file, Layout layout, long fileBytes) throws Exception {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileBytes);
+            IntBuffer[] verdicts = new IntBuffer[layout.variantCount];
+            ByteBuffer[] masks = new ByteBuffer[layout.variantCount];
+            sliceColumns(buffer, layout.variantCount, verdicts, masks);
+            return new Snapshot(layout, verdicts, masks);
+        }
+    }
+
+    private static void sliceColumns(ByteBuffer buffer, int variantCount, IntBuffer[] verdicts, ByteBuffer[] masks) {
+        int offset = HEADER_BYTES;
+        for (int v = 0; v < variantCount; v++) {
+            verdicts[v] = buffer.slice(offset, Integer.BYTES * SIZE).asIntBuffer();
+            offset += Integer.BYTES * SIZE;
+            masks[v] = buffer.slice(offset, SIZE);
+            offset += SIZE;
+        }
+    }
+
+    private void deleteStaleTables(File keep) {
+        File[] files = tableDir.listFiles((dir, name) -> name.startsWith("verdicts-") && !name.equals(keep.getName()));
+        if (files == null) return;
+        for (File stale : files) {
+            // Can fail on Windows while an old mapping is still alive; retried on the next rebuild
+            if (!stale.delete()) {
+                SeymourAnalyzer.LOGGER.debug("Could not delete old verdict table {}", stale.getName());
+            }
+        }
+    }
+
+    private static int encode(ColorAnalyzer.AnalysisResult analysis, Layout layout) {
+        if (analysis == null || analysis.bestMatch() == null) return NO_MATCH;
+
+        ColorAnalyzer.ColorMatch best = analysis.bestMatch();
+        Map<String, Integer> names = best.isCustom() ? layout.customIndex
+            : best.isFade() ? layout.fadeIndex : layout.normalIndex;
+        Integer index = names.get(best.name());
+        if (index == null || index >= NO_MATCH) return NO_MATCH;
+
+        int delta = (int) Math.min(MAX_DELTA, Math.round(best.deltaE() * 100));
+        return (delta << DELTA_SHIFT) | ((analysis.tier() & 3) << TIER_SHIFT) | index;
+    }
+
+    /**
+     * Catalog order, piece type variants and hash of everything that affects analysis results
+     */
+    private static class Layout {
+        final long hash;
+        final String[] names;
+        final String[] hexes;
+        final int fadeStart;
+        final int customStart;
+        final Map<String, Integer> normalIndex = new HashMap<>();
+        final Map<String, Integer> fadeIndex = new HashMap<>();
+        final Map<String, Integer> customIndex = new HashMap<>();
+        final int[] variantOfType = new int[PIECE_TYPES.length];
+        final String[] variantPieceNames;
+        final int variantCount;
+
+        private Layout(ClothConfig config, ColorDatabase db) {
+            List<String> nameList = new ArrayList<>();
+            List<String> hexList = new ArrayList<>();
+
+            db.getTargetColors().forEach((name, hex) -> {
+                normalIndex.put(name, nameList.size());
+                nameList.add(name);
+                hexList.add(hex);
+            });
+            fadeStart = nameList.size();
+            db.getFadeDyes().forEach((name, hex) -> {
+                fadeIndex.put(name, nameList.size());
+                nameList.add(name);
+                hexList.add(hex);
+            });
+            customStart = nameList.size();
+            new TreeMap<>(config.getCustomColors()).forEach((name, hex) -> {
+                customIndex.put(name, nameList.size());
+                nameList.add(name);
+                hexList.add(hex);
+            });
+
+            names = nameList.toArray(new String[0]);
+            hexes = hexList.toArray(new String[0]);
+
+            // Piece types that filter the catalog the same way share one variant
+            List<Integer> variantKeys = new ArrayList<>();
+            List<String> pieceNames = new ArrayList<>();
+            for (int t = 0; t < PIECE_TYPES.length; t++) {
+                String type = PIECE_TYPES[t];
+                int slotBit = config.isPieceSpecificEnabled() ? ColorCatalog.slotBit(type) : 0;
+                boolean exclude3p = !config.isThreePieceSetsEnabled() && "helmet".equals(type);
+                int key = (slotBit << 1) | (exclude3p ? 1 : 0);
+
+                int variant = variantKeys.indexOf(key);
+                if (variant < 0) {
+                    variant = variantKeys.size();
+                    variantKeys.add(key);
+                    pieceNames.add(type == null ? "" : type);
+                }
+                variantOfType[t] = variant;
+            }
+            variantPieceNames = pieceNames.toArray(new String[0]);
+            variantCount = variantPieceNames.length;
+
+            long h = 0xcbf29ce484222325L;
+            h = mix(h, VERSION);
+            h = mix(h, config.isFadeDyesEnabled() ? 1 : 0);
+            h = mix(h, config.isCustomColorsEnabled() ? 1 : 0);
+            h = mix(h, config.isShowHighFades() ? 1 : 0);
+            h = mix(h, config.isShowHighCustoms() ? 1 : 0);
+            h = mix(h, config.isThreePieceSetsEnabled() ? 1 : 0);
+            h = mix(h, config.isPieceSpecificEnabled() ? 1 : 0);
+            h = mix(h, config.getDeltaEMetric().ordinal());
+            for (MatchPriority priority : config.getMatchPriorities()) {
+                h = mix(h, priority.ordinal());
+            }
+            h = mix(h, fadeStart);
+            h = mix(h, customStart);
+            for (int i = 0; i < names.length; i++) {
+                h = mix(h, names[i].hashCode());
+                h = mix(h, hexes[i].toUpperCase().hashCode());
+            }
+            hash = h;
+        }
+
+        static Layout capture() {
+            return new Layout(ClothConfig.getInstance(), ColorDatabase.getInstance());
+        }
+
+        private static long mix(long h, int value) {
+            for (int shift = 0; shift < 32; shift += 8) {
+                h ^= (value >>> shift) & 0xFF;
+                h *= 0x100000001b3L;
+            }
+            return h;
+        }
+    }
+
+    private static class Snapshot {
+        final long hash;
+        final String[] names;
+        final String[] hexes;
+        final int fadeStart;
+        final int customStart;
+        final int[] variantOfType;
+        final IntBuffer[] verdicts;
+        final ByteBuffer[] masks;
+
+        Snapshot(Layout layout, IntBuffer[] verdicts, ByteBuffer[] masks) {
+            this.hash = layout.hash;
+            this.names = layout.names;
+            this.hexes = layout.hexes;
+            this.fadeStart = layout.fadeStart;
+            this.customStart = layout.customStart;
+            this.variantOfType = layout.variantOfType;
+            this.verdicts = verdicts;
+            this.masks = masks;
+        }
+
+        int variantOf(String pieceType) {
+            for (int t = 1; t < PIECE_TYPES.length; t++) {
+                if (PIECE_TYPES[t].equals(pieceType)) return variantOfType[t];
+            }
+            return variantOfType[0];
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package schnerry.seymouranalyzer.analyzer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Word list compiled into a fixed-depth trie over the 6 hex digits.
+ * <p>
+ * Every pattern is expanded into its placements inside a 6-digit hex (one per sliding-window start);
+ * positions outside the window and X/W/Y/Z become wildcard edges. A lookup follows the digit edge and
+ * the wildcard edge at each depth, so at most 2^6 leaves are visited however many words there are.
+ * W/Y/Z bindings are checked at the leaf. Leaves keep their candidates sorted by specificity
+ * (non-wildcard characters, longest first) and then word list order, which is the order
+ * PatternDetector's original per-word scan used to pick a winner.
+ */
+public final class WordMatcher {
+    private static final int DIGITS = 6;
+    private static final int WILD = 16;
+    private static final WordMatcher EMPTY = new WordMatcher(List.of());
+
+    // Node n's children live at children[n * 17 + edge]; 0 = no child (the root is never a child)
+    private int[] children = new int[17 * 64];
+    private int nodeCount = 1;
+    private final List<Candidate[]> leaves = new ArrayList<>();
+
+    private WordMatcher(List<Candidate> candidates) {
+        List<List<Candidate>> leafLists = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            int node = 0;
+            for (int pos = 0; pos < DIGITS; pos++) {
+                int edge = candidate.symbols[pos];
+                int slot = node * 17 + edge;
+                if (children[slot] == 0) {
+                    if (pos == DIGITS - 1) {
+                        // Leaf ids are stored negated so they can't collide with node ids
+                        leafLists.add(new ArrayList<>());
+                        children[slot] = -leafLists.size();
+                    } else {
+                        int created = newNode(); // may grow the children array, so assign afterwards
+                        children[slot] = created;
+                    }
+                }
+                node = children[slot];
+            }
+            leafLists.get(-node - 1).add(candidate);
+        }
+
+        Comparator<Candidate> order = Comparator.comparingInt((Candidate c) -> -c.specificity)
+            .thenComparingInt(c -> c.order);
+        for (List<Candidate> list : leafLists) {
+            list.sort(order);
+            leaves.add(list.toArray(new Candidate[0]));
+        }
+        children = Arrays.copyOf(children, nodeCount * 17);
+    }
+
+    /**
+     * Compile a word list (word -> pattern). Ties are broken by the map's iteration order.
+     * Patterns that can never match a 6-digit hex (too long, non-hex characters) are dropped.
+     */
+    public static WordMatcher compile(Map<String, String> wordList) {
+        if (wordList.isEmpty()) return EMPTY;
+
+        List<Candidate> candidates = new ArrayList<>();
+        int order = 0;
+        for (Map.Entry<String, String> entry : wordList.entrySet()) {
+            String pattern = entry.getValue().toUpperCase();
+            addPlacements(entry.getKey(), pattern, order++, candidates);
+        }
+        return new WordMatcher(candidates);
+    }
+
+    private static void addPlacements(String word, String pattern, int order, List<Candidate> out) {
+        int length = pattern.length();
+        if (length > DIGITS) return;
+
+        int specificity = 0;
+        for (int i = 0; i < length; i++) {
+            char c = pattern.charAt(i);
+            if (!isWildcard(c)) {
+                if (hexValue(c) < 0) return; // can never equal an (upper-cased) hex digit
+                specificity++;
+            }
+        }
+
+        Set<String> seen = new HashSet<>();
+        for (int start = 0; start + length <= DIGITS; start++) {
+            int[] symbols = new int[DIGITS];
+            Arrays.fill(symbols, WILD);
+            int[] bindings = new int[DIGITS];
+            Arrays.fill(bindings, -1);
+            for (int i = 0; i < length; i++) {
+                char c = pattern.charAt(i);
+                if (c == 'W' || c == 'Y' || c == 'Z') {
+                    bindings[start + i] = c;
+                } else if (c != 'X') {
+                    symbols[start + i] = hexValue(c);
+                }
+            }
+            if (seen.add(Arrays.toString(symbols) + Arrays.toString(bindings))) {
+                out.add(new Candidate(word, specificity, order, symbols, equalityPairs(bindings)));
+            }
+        }
+    }
+
+    /**
+     * Flatten W/Y/Z bindings into (position, position) pairs that must hold the same digit
+     */
+    private static int[] equalityPairs(int[] bindings) {
+        int[] pairs = new int[DIGITS * 2];
+        int count = 0;
+        for (int pos = 0; pos < DIGITS; pos++) {
+            if (bindings[pos] < 0) continue;
+            for (int first = 0; first < pos; first++) {
+                if (bindings[first] == bindings[pos]) {
+                    pairs[count++] = first;
+                    pairs[count++] = pos;
+                    break;
+                }
+            }
+        }
+        return Arrays.copyOf(pairs, count);
+    }
+
+    private static int digitAt(int rgb, int pos) {
+        return (rgb >>> ((DIGITS - 1 - pos) * 4)) & 0xF;
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        if (c >= 'A' && c <= 'F') return c - 'A' + 10;
+        return -1;
+    }
+
+    private static boolean isWildcard(char c) {
+        return c == 'X' || c == 'W' || c == 'Y' || c == 'Z';
+    }
+
+    private int newNode() {
+        if ((nodeCount + 1) * 17 > children.length) {
+            children = Arrays.copyOf(children, children.length * 2);
+        }
+        return nodeCount++;
+    }
+
+    /**
+     * Most specific word whose pattern occurs in the packed 0xRRGGBB color, or null
+     */
+    public String match(int rgb) {
+        if (leaves.isEmpty()) return null;
+        Candidate best = visit(0, 0, rgb, null);
+        return best == null ? null : best.word;
+    }
+
+    /**
+     * Like match(), but returns the word's position in the compiled word list, or -1
+     */
+    public int matchIndex(int rgb) {
+        if (leaves.isEmpty()) return -1;
+        Candidate best = visit(0, 0, rgb, null);
+        return best == null ? -1 : best.order;
+    }
+
+    private Candidate visit(int node, int depth, int rgb, Candidate best) {
+        best = follow(children[node * 17 + digitAt(rgb, depth)], depth, rgb, best);
+        return follow(children[node * 17 + WILD], depth, rgb, best);
+    }
+
+    private Candidate follow(int child, int depth, int rgb, Candidate best) {
+        if (child == 0) return best;
+        if (depth == DIGITS - 1) return bestAtLeaf(leaves.get(-child - 1), rgb, best);
+        return visit(child, depth + 1, rgb, best);
+    }
+
+    private static Candidate bestAtLeaf(Candidate[] candidates, int rgb, Candidate best) {
+        for (Candidate candidate : candidates) {
+            // Sorted, so nothing further down this leaf can beat the current best
+            if (best != null && !candidate.beats(best)) return best;
+            if (candidate.bindingsHold(rgb)) return candidate;
+        }
+        return best;
+    }
+
+    private record Candidate(String word, int specificity, int order, int[] symbols, int[] equalPairs) {
+        boolean beats(Candidate other) {
+            return specificity > other.specificity || (specificity == other.specificity && order < other.order);
+        }
+
+        boolean bindingsHold(int rgb) {
+            for (int i = 0; i < equalPairs.length; i += 2) {
+                if (digitAt(rgb, equalPairs[i]) != digitAt(rgb, equalPairs[i + 1])) return false;
+            }
+            return true;
+        }
+    }
+}
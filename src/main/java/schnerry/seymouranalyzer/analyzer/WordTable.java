@@ -0,0 +1,259 @@
+package schnerry.seymouranalyzer.analyzer;
+
+import net.fabricmc.loader.api.FabricLoader;
+import schnerry.seymouranalyzer.SeymourAnalyzer;
+import schnerry.seymouranalyzer.config.ClothConfig;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Optional precomputed word match for every RGB value, stored as a 16-bit word id per color
+ * (0 = no word) under config/seymouranalyzer/. Keyed by a hash of the word list, so restarting
+ * with the same words maps the existing file; a changed list is regenerated in the background.
+ * Enabled by its own "Precomputed Word Matches" toggle.
+ */
+public class WordTable {
+    private static final int SIZE = 1 << 24;
+    private static final int MAGIC = 0x53415754; // "SAWT"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int STATE_OFFSET = 20;
+    private static final int STATE_COMPLETE = 1;
+    private static final int CHUNK = 1 << 12;
+    private static final int MAX_WORDS = Character.MAX_VALUE - 1;
+
+    private final File tableDir;
+    private volatile Snapshot current;
+    private volatile Layout building; // build in flight, compared by identity; null if none
+    private volatile long checkedEpoch = -1;
+
+    private WordTable() {
+        tableDir = new File(FabricLoader.getInstance().getConfigDir().toFile(), "seymouranalyzer");
+        if (!tableDir.exists() && !tableDir.mkdirs()) {
+            SeymourAnalyzer.LOGGER.error("Failed to create seymouranalyzer config directory");
+        }
+    }
+
+    // Holder idiom: the first lookup can come from any thread that detects word matches
+    private static final class Holder {
+        static final WordTable INSTANCE = new WordTable();
+    }
+
+    public static WordTable getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public boolean isReady() {
+        return current != null;
+    }
+
+    /**
+     * Word matched by the packed 0xRRGGBB color, answered by the fallback matcher while the table
+     * isn't available (disabled, building, or the word list just changed)
+     */
+    public String lookup(int rgb, WordMatcher fallback) {
+        refresh();
+        Snapshot snapshot = current;
+        if (snapshot == null) return fallback.match(rgb);
+
+        int id = snapshot.ids.get(rgb & 0xFFFFFF);
+        return id == 0 ? null : snapshot.words[id - 1];
+    }
+
+    /**
+     * Load or regenerate the table if the words epoch or the toggle changed. Cheap when nothing changed.
+     */
+    public void refresh() {
+        ClothConfig config = ClothConfig.getInstance();
+        if (!config.isWordTableEnabled()) {
+            if (checkedEpoch != -1 || current != null) disable();
+            return;
+        }
+        if (checkedEpoch == config.getEpochs().words()) return;
+        refreshSlow(config);
+    }
+
+    private synchronized void disable() {
+        // Clearing building makes a running builder abort instead of publishing its snapshot
+        building = null;
+        current = null;
+        checkedEpoch = -1;
+    }
+
+    private synchronized void refreshSlow(ClothConfig config) {
+        long epoch = config.getEpochs().words();
+        if (checkedEpoch == epoch) return;
+        checkedEpoch = epoch;
+
+        Layout layout = new Layout(config.getWordList());
+        Snapshot snapshot = current;
+        if (snapshot != null && snapshot.hash == layout.hash) return;
+        Layout inFlight = building;
+        if (inFlight != null && inFlight.hash == layout.hash) return;
+        if (layout.words.length > MAX_WORDS) {
+            building = null;
+            current = null;
+            SeymourAnalyzer.LOGGER.warn("Word list too large for the word table ({} words)", layout.words.length);
+            return;
+        }
+        building = layout; // before clearing current, see loadOrBuild
+        current = null;
+
+        Thread thread = new Thread(() -> loadOrBuild(layout), "WordTableBuilder");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void loadOrBuild(Layout layout) {
+        long start = System.currentTimeMillis();
+        File file = new File(tableDir, String.format("words-%016x.bin", layout.hash));
+        long fileBytes = HEADER_BYTES + (long) Character.BYTES * SIZE;
+
+        try {
+            if (!file.exists() || !isComplete(file, layout.hash, fileBytes)) {
+                // Per builder, so one that's still stopping after a toggle off/on can't touch this file
+                File tmp = new File(tableDir, file.getName() + "." + Thread.currentThread().threadId() + ".tmp");
+                generate(tmp, layout, fileBytes);
+                if (building != layout) {
+                    Files.deleteIfExists(tmp.toPath());
+                    return;
+                }
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+
+            Snapshot snapshot = map(file, layout, fileBytes);
+            if (building != layout) return;
+            current = snapshot;
+            // Checked again now that it's published, in case refresh() turned the table off or started
+            // another build in between
+            if (building != layout || !ClothConfig.getInstance().isWordTableEnabled()) {
+                if (current == snapshot) current = null;
+                return;
+            }
+            deleteStaleTables(file);
+
+            SeymourAnalyzer.LOGGER.info("Word table ready ({} words) in {}ms",
+                layout.words.length, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            SeymourAnalyzer.LOGGER.error("Failed to build word table", e);
+        } finally {
+            if (building == layout) building = null;
+        }
+    }
+
+    private boolean isComplete(File file, long hash, long fileBytes) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() != fileBytes) return false;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            channel.read(header, 0);
+            return header.getInt(0) == MAGIC && header.getInt(4) == VERSION
+                && header.getLong(8) == hash && header.getInt(STATE_OFFSET) == STATE_COMPLETE;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private void generate(File file, Layout layout, long fileBytes) throws Exception {
+        SeymourAnalyzer.LOGGER.info("Generating word table ({} words)...", layout.words.length);
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileBytes);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(8, layout.hash);
+            buffer.putInt(16, layout.words.length);
+            buffer.putInt(STATE_OFFSET, 0);
+
+            CharBuffer ids = buffer.slice(HEADER_BYTES, Character.BYTES * SIZE).asCharBuffer();
+            WordMatcher matcher = WordMatcher.compile(layout.wordList);
+            ForkJoinPool pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+            try {
+                pool.submit(() -> IntStream.range(0, SIZE / CHUNK).parallel().forEach(chunk -> {
+                    if (building != layout) return; // superseded, stop early
+                    int base = chunk * CHUNK;
+                    for (int rgb = base; rgb < base + CHUNK; rgb++) {
+                        ids.put(rgb, (char) (matcher.matchIndex(rgb) + 1));
+                    }
+                })).get();
+            } finally {
+                pool.shutdown();
+            }
+
+            buffer.force();
+            buffer.putInt(STATE_OFFSET, STATE_COMPLETE);
+            buffer.force();
+        }
+    }
+
+    private Snapshot map(File file, Layout layout, long fileBytes) throws Exception {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileBytes);
+            return new Snapshot(layout, buffer.slice(HEADER_BYTES, Character.BYTES * SIZE).asCharBuffer());
+        }
+    }
+
+    private void deleteStaleTables(File keep) {
+        File[] files = tableDir.listFiles((dir, name) -> name.startsWith("words-") && !name.equals(keep.getName()));
+        if (files == null) return;
+        for (File stale : files) {
+            // Can fail on Windows while an old mapping is still alive; retried on the next rebuild
+            if (!stale.delete()) {
+                SeymourAnalyzer.LOGGER.debug("Could not delete old word table {}", stale.getName());
+            }
+        }
+    }
+
+    /**
+     * Word list snapshot in iteration order (which breaks specificity ties) and its hash
+     */
+    private static class Layout {
+        final Map<String, String> wordList;
+        final String[] words;
+        final long hash;
+
+        Layout(Map<String, String> source) {
+            wordList = new LinkedHashMap<>(source);
+            words = wordList.keySet().toArray(new String[0]);
+
+            long h = 0xcbf29ce484222325L;
+            h = mix(h, VERSION);
+            for (Map.Entry<String, String> entry : wordList.entrySet()) {
+                h = mix(h, entry.getKey().hashCode());
+                h = mix(h, entry.getValue().toUpperCase().hashCode());
+            }
+            hash = h;
+        }
+
+        private static long mix(long h, int value) {
+            for (int shift = 0; shift < 32; shift += 8) {
+                h ^= (value >>> shift) & 0xFF;
+                h *= 0x100000001b3L;
+            }
+            return h;
+        }
+    }
+
+    private static class Snapshot {
+        final long hash;
+        final String[] words;
+        final CharBuffer ids;
+
+        Snapshot(Layout layout, CharBuffer ids) {
+            this.hash = layout.hash;
+            this.words = layout.words;
+            this.ids = ids;
+        }
+    }
+}
@@ -12,6 +12,7 @@ import schnerry.seymouranalyzer.SeymourAnalyzer;
 import schnerry.seymouranalyzer.SeymourAnalyzerClient;
 import schnerry.seymouranalyzer.analyzer.PatternDetector;
 import schnerry.seymouranalyzer.config.ClothConfig;
+import schnerry.seymouranalyzer.config.ConfigEpochs;
 import schnerry.seymouranalyzer.config.ConfigScreen;
 import schnerry.seymouranalyzer.config.PriorityEditorScreen;
 import schnerry.seymouranalyzer.data.ArmorPiece;
@@ -26,9 +27,12 @@ import schnerry.seymouranalyzer.render.InfoBoxRenderer;
 import schnerry.seymouranalyzer.render.ItemSlotHighlighter;
 import schnerry.seymouranalyzer.scanner.ChestScanner;
 import schnerry.seymouranalyzer.scanner.ScanBadge;
+import schnerry.seymouranalyzer.analyzer.AnalysisCache;
 import schnerry.seymouranalyzer.analyzer.ColorAnalyzer;
 import schnerry.seymouranalyzer.util.ColorMath;
+import schnerry.seymouranalyzer.util.PieceTypeUtil;
 
+import java.io.File;
 import java.net.URI;
 import java.util.*;
 
@@ -45,6 +49,10 @@ public class SeymourCommand {
         "autoroll", "dbcompare", "autopin"
     };
 
+    // /seymour word find: lines listed per section, and the most hexes checked against targets
+    private static final int WORD_FIND_SHOWN = 10;
+    private static final int WORD_FIND_ANALYZE_LIMIT = 4096;
+
     private static final SuggestionProvider<FabricClientCommandSource> TOGGLE_SUGGESTIONS =
         (ctx, builder) -> {
             String remaining = builder.getRemaining().toLowerCase();
@@ -94,7 +102,10 @@ public class SeymourCommand {
                     .then(argument("word", StringArgumentType.word())
                         .executes(SeymourCommand::removeWord)))
                 .then(literal("list")
-                    .executes(SeymourCommand::listWords)))
+                    .executes(SeymourCommand::listWords))
+                .then(literal("find")
+                    .then(argument("pattern", StringArgumentType.word())
+                        .executes(SeymourCommand::findWordPattern))))
 
             // /seymour clear - requires confirmation
             .then(literal("clear")
@@ -118,7 +129,7 @@ public class SeymourCommand {
                 .then(literal("stop")
                     .executes(SeymourCommand::stopScan)))
 
-            // /seymour export start/stop/database
+            // /seymour export start/stop/database/json
             .then(literal("export")
                 .executes(SeymourCommand::showExportHelp)
                 .then(literal("start")
@@ -126,7 +137,9 @@ public class SeymourCommand {
                 .then(literal("stop")
                     .executes(SeymourCommand::stopExport))
                 .then(literal("database")
-                    .executes(SeymourCommand::exportDatabase)))
+                    .executes(SeymourCommand::exportDatabase))
+                .then(literal("json")
+                    .executes(SeymourCommand::exportJson)))
 
             // /seymour db [search] - open database GUI with optional search
             // /seymour db hex <hex> - force hex-field search
@@ -188,7 +201,9 @@ public class SeymourCommand {
 
             // /seymour debug - log all data from next hovered item
             .then(literal("debug")
-                .executes(SeymourCommand::enableDebugMode))
+                .executes(SeymourCommand::enableDebugMode)
+                .then(literal("cache")
+                    .executes(SeymourCommand::showCacheStats)))
 
 
             // /seymour rebuild <type> - rebuild collection data
@@ -393,10 +408,11 @@ public class SeymourCommand {
     }
 
     private static int showExportHelp(CommandContext<FabricClientCommandSource> ctx) {
-        ctx.getSource().sendFeedback(Component.literal("§c[Seymour] §7Usage: §f/seymour export <start|stop|database>"));
+        ctx.getSource().sendFeedback(Component.literal("§c[Seymour] §7Usage: §f/seymour export <start|stop|database|json>"));
         ctx.getSource().sendFeedback(Component.literal("  §f/seymour export start §8- Start export mode"));
         ctx.getSource().sendFeedback(Component.literal("  §f/seymour export stop §8- Stop and copy scanned pieces to clipboard"));
         ctx.getSource().sendFeedback(Component.literal("  §f/seymour export database §8- Export entire database to clipboard"));
+        ctx.getSource().sendFeedback(Component.literal("  §f/seymour export json §8- Write the collection to collection-export.json"));
         return 0;
     }
 
@@ -419,10 +435,11 @@ public class SeymourCommand {
     }
 
     private static int showWordHelp(CommandContext<FabricClientCommandSource> ctx) {
-        ctx.getSource().sendFeedback(Component.literal("§c[Seymour] §7Usage: §f/seymour word <add|remove|list>"));
+        ctx.getSource().sendFeedback(Component.literal("§c[Seymour] §7Usage: §f/seymour word <add|remove|list|find>"));
         ctx.getSource().sendFeedback(Component.literal("  §f/seymour word add <word> <pattern> §8- Add custom word (pattern may include X, W, Y, Z wildcards)"));
         ctx.getSource().sendFeedback(Component.literal("  §f/seymour word remove <word> §8- Remove custom word"));
         ctx.getSource().sendFeedback(Component.literal("  §f/seymour word list §8- List all custom words"));
+        ctx.getSource().sendFeedback(Component.literal("  §f/seymour word find <pattern> §8- Count hexes matching a pattern and show owned pieces / T1 targets"));
         ctx.getSource().sendFeedback(Component.literal("§7Example: §f/seymour word add cool C001"));
         return 0;
     }
@@ -464,9 +481,7 @@ public class SeymourCommand {
         config.saveData();
 
         ColorDatabase.getInstance().rebuildLabCache();
-
-        // Mark custom colors for reload in checklist GUI
-        ArmorChecklistScreen.markCustomColorsForReload();
+        ColorAnalyzer.getInstance().rebuildCustomIndex();
 
         ctx.getSource().sendFeedback(Component.literal("§a[Seymour Analyzer] §7Added custom color: §f" +
             colorName + " §7(#" + hex + ")"));
@@ -486,9 +501,7 @@ public class SeymourCommand {
         config.saveData();
 
         ColorDatabase.getInstance().rebuildLabCache();
-
-        // Mark custom colors for reload in checklist GUI
-        ArmorChecklistScreen.markCustomColorsForReload();
+        ColorAnalyzer.getInstance().rebuildCustomIndex();
 
         ctx.getSource().sendFeedback(Component.literal("§a[Seymour Analyzer] §7Removed custom color: §f" +
             colorName + " §7(#" + hex + ")"));
@@ -539,6 +552,7 @@ public class SeymourCommand {
 
         config.getWordList().put(word, pattern);
         config.saveData();
+        config.markChanged(ConfigEpochs.Concern.WORDS);
 
         ctx.getSource().sendFeedback(Component.literal("§a[Seymour Analyzer] §7Added word: §d" + word +
             " §7(matches hex containing: §f" + pattern + "§7)"));
@@ -556,6 +570,7 @@ public class SeymourCommand {
 
         String pattern = config.getWordList().remove(word);
         config.saveData();
+        config.markChanged(ConfigEpochs.Concern.WORDS);
 
         ctx.getSource().sendFeedback(Component.literal("§a[Seymour Analyzer] §7Removed word: §d" + word +
             " §7(" + pattern + ")"));
@@ -580,6 +595,72 @@ public class SeymourCommand {
         return 1;
     }
 
+    private static int findWordPattern(CommandContext<FabricClientCommandSource> ctx) {
+        String pattern = StringArgumentType.getString(ctx, "pattern").toUpperCase();
+
+        if (pattern.length() > 6) {
+            ctx.getSource().sendError(Component.literal("§cPattern must be 1-6 characters long!"));
+            return 0;
+        }
+
+        new Thread(() -> {
+            try {
+                // Stream the enumeration once: count it and join each hex against the collection's color
+                // index. Broad patterns (e.g. "X") match ~16M hexes, so they're never materialized here.
+                CollectionManager manager = CollectionManager.getInstance();
+                List<ArmorPiece> ownedMatches = new ArrayList<>();
+                int[] matchCount = {0};
+                PatternDetector.getInstance().enumerate(pattern).forEach(rgb -> {
+                    matchCount[0]++;
+                    Map<String, ArmorPiece> pieces = manager.getPiecesWithRgb(rgb);
+                    if (!pieces.isEmpty()) ownedMatches.addAll(pieces.values());
+                });
+
+                ctx.getSource().sendFeedback(Component.literal("§8§m----------------------------------------------------"));
+                ctx.getSource().sendFeedback(Component.literal("§a§l[Seymour Analyzer] §7Pattern §f" + pattern + " §7matches §e" + matchCount[0] + " §7hexes"));
+
+                ctx.getSource().sendFeedback(Component.literal("§7In your collection: §e" + ownedMatches.size()));
+                for (int i = 0; i < Math.min(WORD_FIND_SHOWN, ownedMatches.size()); i++) {
+                    ArmorPiece piece = ownedMatches.get(i);
+                    ctx.getSource().sendFeedback(Component.literal("  §f#" + piece.getHexcode().toUpperCase() + " §7" + piece.getPieceName()));
+                }
+
+                if (matchCount[0] > WORD_FIND_ANALYZE_LIMIT) {
+                    ctx.getSource().sendFeedback(Component.literal("§7Too many hexes to check against targets (limit §e" + WORD_FIND_ANALYZE_LIMIT + "§7)"));
+                } else {
+                    // Small enough to collect now; enumerating again is cheap at this size
+                    int[] matches = PatternDetector.getInstance().enumerate(pattern).toArray();
+                    // Closest T1 (or better) target color per hex, ignoring fades and customs
+                    ColorAnalyzer.AnalysisResult[] results = ColorAnalyzer.getInstance().analyzeBatch(matches, new String[matches.length]);
+                    List<Map.Entry<Integer, ColorAnalyzer.ColorMatch>> targetMatches = new ArrayList<>();
+                    for (int i = 0; i < matches.length; i++) {
+                        if (results[i] == null) continue;
+                        for (ColorAnalyzer.ColorMatch match : results[i].top3Matches()) {
+                            if (match.tier() <= 1 && !match.isFade() && !match.isCustom()) {
+                                targetMatches.add(Map.entry(matches[i], match));
+                                break;
+                            }
+                        }
+                    }
+                    targetMatches.sort(Comparator.comparingDouble(entry -> entry.getValue().deltaE()));
+
+                    ctx.getSource().sendFeedback(Component.literal("§7T1 to a target color: §e" + targetMatches.size()));
+                    for (int i = 0; i < Math.min(WORD_FIND_SHOWN, targetMatches.size()); i++) {
+                        Map.Entry<Integer, ColorAnalyzer.ColorMatch> entry = targetMatches.get(i);
+                        ctx.getSource().sendFeedback(Component.literal("  §f#" + ColorMath.toHex(entry.getKey()) + " §7→ §d"
+                            + entry.getValue().name() + " §7(ΔE " + String.format("%.2f", entry.getValue().deltaE()) + ")"));
+                    }
+                }
+                ctx.getSource().sendFeedback(Component.literal("§8§m----------------------------------------------------"));
+            } catch (Exception e) {
+                ctx.getSource().sendError(Component.literal("§c[Seymour] §7Error finding pattern matches: " + e.getMessage()));
+                reportCommandError(ctx, "finding pattern matches", e);
+            }
+        }).start();
+
+        return 1;
+    }
+
     private static int clearCollectionWarning(CommandContext<FabricClientCommandSource> ctx) {
         int collectionSize = CollectionManager.getInstance().size();
         ctx.getSource().sendFeedback(Component.literal("§c§l[WARNING] §cYou are about to clear your entire collection!"));
@@ -621,9 +702,6 @@ public class SeymourCommand {
         int withPattern = 0;
         int withWord = 0;
 
-        // Track duplicates (same hex, different UUID)
-        Map<String, Integer> hexCounts = new HashMap<>();
-
         for (ArmorPiece piece : collection.values()) {
             // Count by tier
                 ArmorPiece.BestMatch bestMatch = piece.getBestMatch();
@@ -657,21 +735,11 @@ public class SeymourCommand {
             if (piece.getWordMatch() != null && !piece.getWordMatch().isEmpty()) {
                 withWord++;
             }
-
-            // Track hex for duplicate detection
-            String hex = piece.getHexcode().toUpperCase();
-            hexCounts.put(hex, hexCounts.getOrDefault(hex, 0) + 1);
         }
 
-        // Count duplicates
-        int dupeHexCount = 0;
-        int totalDupes = 0;
-        for (Map.Entry<String, Integer> entry : hexCounts.entrySet()) {
-            if (entry.getValue() > 1) {
-                dupeHexCount++;
-                totalDupes += entry.getValue();
-            }
-        }
+        // Duplicates (same hex, different UUID), kept up to date by the collection index
+        int dupeHexCount = CollectionManager.getInstance().getDuplicateColorCount();
+        int totalDupes = CollectionManager.getInstance().getDuplicatePieceCount();
 
         // Display statistics
         ctx.getSource().sendFeedback(Component.literal("§8§m----------------------------------------------------"));
@@ -929,6 +997,23 @@ public class SeymourCommand {
         return 1;
     }
 
+    private static int exportJson(CommandContext<FabricClientCommandSource> ctx) {
+        new Thread(() -> {
+            try {
+                CollectionManager manager = CollectionManager.getInstance();
+                File file = manager.getJsonExportFile();
+                int count = manager.exportJson(file);
+                ctx.getSource().sendFeedback(Component.literal("§a[Seymour Analyzer] §7Exported §e" + count
+                    + "§7 pieces to §f" + file.getName() + "§7!"));
+            } catch (Exception e) {
+                ctx.getSource().sendError(Component.literal("§c[Seymour] Failed to export collection: " + e.getMessage()));
+                reportCommandError(ctx, "exporting collection json", e);
+            }
+        }, "CollectionExporter").start();
+
+        return 1;
+    }
+
     private static int openDatabaseGUI(CommandContext<FabricClientCommandSource> ctx) {
         try {
             runOnClientThread(() -> Minecraft.getInstance().setScreen(new DatabaseScreen(null)));
@@ -1050,14 +1135,13 @@ public class SeymourCommand {
             }
 
             // Search for pieces with these hex codes
-            Map<String, ArmorPiece> collection = CollectionManager.getInstance().getCollection();
             List<ArmorPiece> foundPieces = new ArrayList<>();
             Set<String> foundChestLocations = new HashSet<>();
             List<BlockPos> blocksToHighlight = new ArrayList<>();
 
-            for (ArmorPiece piece : collection.values()) {
-                String pieceHex = piece.getHexcode().toUpperCase();
-                if (validHexes.contains(pieceHex)) {
+            for (String hex : new LinkedHashSet<>(validHexes)) {
+                int rgb = ColorMath.parseRgb(hex);
+                for (ArmorPiece piece : CollectionManager.getInstance().getPiecesWithRgb(rgb).values()) {
                     foundPieces.add(piece);
 
                     // Track chest location if available and add to highlighter
@@ -1164,6 +1248,14 @@ public class SeymourCommand {
         return 1;
     }
 
+    private static int showCacheStats(CommandContext<FabricClientCommandSource> ctx) {
+        AnalysisCache.Stats stats = AnalysisCache.getInstance().getStats();
+        ctx.getSource().sendFeedback(Component.literal(String.format(
+            "§a[Seymour Analyzer] §7Analysis cache: §f%d §7entries, §f%d §7hits, §f%d §7misses (§f%.1f%%§7), §f%d §7evictions",
+            stats.size(), stats.hits(), stats.misses(), stats.hitRate() * 100, stats.evictions())));
+        return 1;
+    }
+
     private static int showRebuildHelp(CommandContext<FabricClientCommandSource> ctx) {
         ctx.getSource().sendFeedback(Component.literal("§8§m----------------------------------------------------"));
         ctx.getSource().sendFeedback(Component.literal("§a§l[Seymour Analyzer] §7- Rebuild Commands:"));
@@ -1191,6 +1283,7 @@ public class SeymourCommand {
                 ctx.getSource().sendFeedback(Component.literal("§a[Seymour Analyzer] §7Starting word rebuild for §e" + total + " §7pieces..."));
 
                 PatternDetector detector = PatternDetector.getInstance();
+                List<ArmorPiece> rebuilt = new ArrayList<>();
 
                 for (int i = 0; i < total; i++) {
                     String uuid = keys.get(i);
@@ -1199,6 +1292,7 @@ public class SeymourCommand {
                     if (piece != null && piece.getHexcode() != null) {
                         String wordMatch = detector.detectWordMatch(piece.getHexcode());
                         piece.setWordMatch(wordMatch);
+                        rebuilt.add(piece);
                         updated++;
                     }
 
@@ -1210,6 +1304,7 @@ public class SeymourCommand {
                 }
 
                 ctx.getSource().sendFeedback(Component.literal("§7Saving collection..."));
+                CollectionManager.getInstance().markReanalyzed(rebuilt);
                 CollectionManager.getInstance().save();
 
                 ctx.getSource().sendFeedback(Component.literal("§a[Seymour Analyzer] §7Rebuilt word matches for §e" + updated + " §7pieces!"));
@@ -1230,45 +1325,33 @@ public class SeymourCommand {
             try {
                 Thread.sleep(50);
 
-                Map<String, ArmorPiece> collection = CollectionManager.getInstance().getCollection();
-                ArrayList<String> keys = new ArrayList<>(collection.keySet());
-                int total = keys.size();
+                List<ArmorPiece> pieces = analyzablePieces();
+                int total = pieces.size();
                 int updated = 0;
 
                 ctx.getSource().sendFeedback(Component.literal("§a[Seymour Analyzer] §7Starting analysis rebuild for §e" + total + " §7pieces..."));
 
-                ColorAnalyzer analyzer = ColorAnalyzer.getInstance();
+                long start = System.nanoTime();
+                ColorAnalyzer.AnalysisResult[] results = analyzeAll(pieces);
+                long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+                List<ArmorPiece> rebuilt = new ArrayList<>();
 
                 for (int i = 0; i < total; i++) {
-                    String uuid = keys.get(i);
-                    ArmorPiece piece = collection.get(uuid);
-
-                    if (piece != null && piece.getHexcode() != null && piece.getPieceName() != null) {
-                        ColorAnalyzer.AnalysisResult analysis = analyzer.analyzeArmorColor(piece.getHexcode(), piece.getPieceName());
-
-                        if (analysis != null && analysis.bestMatch() != null) {
-                            ColorAnalyzer.ColorMatch best = analysis.bestMatch();
-
-                            // Calculate absolute distance
-                            int itemRgb = Integer.parseInt(piece.getHexcode(), 16);
-                            int targetRgb = Integer.parseInt(best.targetHex(), 16);
-                            int absoluteDist = Math.abs(((itemRgb >> 16) & 0xFF) - ((targetRgb >> 16) & 0xFF)) +
-                                              Math.abs(((itemRgb >> 8) & 0xFF) - ((targetRgb >> 8) & 0xFF)) +
-                                              Math.abs((itemRgb & 0xFF) - (targetRgb & 0xFF));
+                    ColorAnalyzer.AnalysisResult analysis = results[i];
 
-                            // Update piece with best match data
-                            piece.setBestMatch(best.name(), best.targetHex(), best.deltaE(), absoluteDist, analysis.tier());
-                            updated++;
-                        }
-                    }
+                    if (analysis != null && analysis.bestMatch() != null) {
+                        ColorAnalyzer.ColorMatch best = analysis.bestMatch();
 
-                    if ((i + 1) % 500 == 0 || i == total - 1) {
-                        int progress = (int) ((i + 1) / (float) total * 100);
-                        ctx.getSource().sendFeedback(Component.literal("§7Progress: §e" + (i + 1) + "§7/§e" + total + " §7(§a" + progress + "%§7)"));
+                        // Update piece with best match data
+                        pieces.get(i).setBestMatch(best.name(), best.targetHex(), best.deltaE(), best.absoluteDistance(), analysis.tier());
+                        rebuilt.add(pieces.get(i));
+                        updated++;
                     }
                 }
 
+                ctx.getSource().sendFeedback(Component.literal("§7Analyzed §e" + total + " §7pieces in §e" + elapsedMs + "ms"));
                 ctx.getSource().sendFeedback(Component.literal("§7Saving collection..."));
+                CollectionManager.getInstance().markReanalyzed(rebuilt); // tiers changed in place
                 CollectionManager.getInstance().save();
 
                 ctx.getSource().sendFeedback(Component.literal("§a[Seymour Analyzer] §7Rebuilt analysis for §e" + updated + " §7pieces!"));
@@ -1290,55 +1373,43 @@ public class SeymourCommand {
             try {
                 Thread.sleep(50);
 
-                Map<String, ArmorPiece> collection = CollectionManager.getInstance().getCollection();
-                ArrayList<String> keys = new ArrayList<>(collection.keySet());
-                int total = keys.size();
+                List<ArmorPiece> pieces = analyzablePieces();
+                int total = pieces.size();
                 int updated = 0;
 
                 ctx.getSource().sendFeedback(Component.literal("§a[Seymour Analyzer] §7Starting matches rebuild for §e" + total + " §7pieces..."));
 
-                ColorAnalyzer analyzer = ColorAnalyzer.getInstance();
+                long start = System.nanoTime();
+                ColorAnalyzer.AnalysisResult[] results = analyzeAll(pieces);
+                long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+                List<ArmorPiece> rebuilt = new ArrayList<>();
 
                 for (int i = 0; i < total; i++) {
-                    String uuid = keys.get(i);
-                    ArmorPiece piece = collection.get(uuid);
-
-                    if (piece != null && piece.getHexcode() != null && piece.getPieceName() != null) {
-                        ColorAnalyzer.AnalysisResult analysis = analyzer.analyzeArmorColor(piece.getHexcode(), piece.getPieceName());
-
-                        if (analysis != null && analysis.top3Matches() != null && !analysis.top3Matches().isEmpty()) {
-                            int itemRgb = Integer.parseInt(piece.getHexcode(), 16);
-
-                            // Build top 3 matches array
-                            List<ArmorPiece.ColorMatch> top3 = new ArrayList<>();
-
-                            for (int m = 0; m < Math.min(3, analysis.top3Matches().size()); m++) {
-                                ColorAnalyzer.ColorMatch match = analysis.top3Matches().get(m);
-                                int matchRgb = Integer.parseInt(match.targetHex(), 16);
-                                int matchAbsoluteDist = Math.abs(((itemRgb >> 16) & 0xFF) - ((matchRgb >> 16) & 0xFF)) +
-                                                       Math.abs(((itemRgb >> 8) & 0xFF) - ((matchRgb >> 8) & 0xFF)) +
-                                                       Math.abs((itemRgb & 0xFF) - (matchRgb & 0xFF));
-
-                                ArmorPiece.ColorMatch colorMatch = new ArmorPiece.ColorMatch(
-                                    match.name(), match.targetHex(), match.deltaE(), matchAbsoluteDist, match.tier()
-                                );
-                                colorMatch.isCustom = match.isCustom();
-                                colorMatch.isFade = match.isFade();
-                                top3.add(colorMatch);
-                            }
-
-                            piece.setAllMatches(top3);
-                            updated++;
+                    ColorAnalyzer.AnalysisResult analysis = results[i];
+
+                    if (analysis != null && analysis.top3Matches() != null && !analysis.top3Matches().isEmpty()) {
+                        // Build top 3 matches array
+                        List<ArmorPiece.ColorMatch> top3 = new ArrayList<>();
+
+                        for (int m = 0; m < Math.min(3, analysis.top3Matches().size()); m++) {
+                            ColorAnalyzer.ColorMatch match = analysis.top3Matches().get(m);
+                            ArmorPiece.ColorMatch colorMatch = new ArmorPiece.ColorMatch(
+                                match.name(), match.targetHex(), match.deltaE(), match.absoluteDistance(), match.tier()
+                            );
+                            colorMatch.isCustom = match.isCustom();
+                            colorMatch.isFade = match.isFade();
+                            top3.add(colorMatch);
                         }
-                    }
 
-                    if ((i + 1) % 500 == 0 || i == total - 1) {
-                        int progress = (int) ((i + 1) / (float) total * 100);
-                        ctx.getSource().sendFeedback(Component.literal("§7Progress: §e" + (i + 1) + "§7/§e" + total + " §7(§a" + progress + "%§7)"));
+                        pieces.get(i).setAllMatches(top3);
+                        rebuilt.add(pieces.get(i));
+                        updated++;
                     }
                 }
 
+                ctx.getSource().sendFeedback(Component.literal("§7Analyzed §e" + total + " §7pieces in §e" + elapsedMs + "ms"));
                 ctx.getSource().sendFeedback(Component.literal("§7Saving collection..."));
+                CollectionManager.getInstance().markReanalyzed(rebuilt);
                 CollectionManager.getInstance().save();
 
                 ctx.getSource().sendFeedback(Component.literal("§a[Seymour Analyzer] §7Rebuilt match data for §e" + updated + " §7pieces!"));
@@ -1352,6 +1423,33 @@ public class SeymourCommand {
         return 1;
     }
 
+    /**
+     * Collection pieces that have both a hexcode and a piece name
+     */
+    private static List<ArmorPiece> analyzablePieces() {
+        List<ArmorPiece> pieces = new ArrayList<>();
+        for (ArmorPiece piece : CollectionManager.getInstance().getCollection().values()) {
+            if (piece != null && piece.getHexcode() != null && piece.getPieceName() != null) {
+                pieces.add(piece);
+            }
+        }
+        return pieces;
+    }
+
+    /**
+     * Analyze every piece in one batch, against a single snapshot of the current settings
+     */
+    private static ColorAnalyzer.AnalysisResult[] analyzeAll(List<ArmorPiece> pieces) {
+        int[] rgb = new int[pieces.size()];
+        String[] pieceTypes = new String[pieces.size()];
+        for (int i = 0; i < rgb.length; i++) {
+            ArmorPiece piece = pieces.get(i);
+            rgb[i] = piece.getRgb(); // -1 for a malformed hexcode, which analyzes to null
+            pieceTypes[i] = PieceTypeUtil.detectPieceType(piece.getPieceName());
+        }
+        return ColorAnalyzer.getInstance().analyzeBatch(rgb, pieceTypes);
+    }
+
     private static int rebuildPattern(CommandContext<FabricClientCommandSource> ctx) {
         ctx.getSource().sendFeedback(Component.literal("§a[Seymour Analyzer] §7Preparing pattern rebuild..."));
 
@@ -1367,6 +1465,7 @@ public class SeymourCommand {
                 ctx.getSource().sendFeedback(Component.literal("§a[Seymour Analyzer] §7Starting pattern rebuild for §e" + total + " §7pieces..."));
 
                 PatternDetector detector = PatternDetector.getInstance();
+                List<ArmorPiece> rebuilt = new ArrayList<>();
 
                 for (int i = 0; i < total; i++) {
                     String uuid = keys.get(i);
@@ -1375,6 +1474,7 @@ public class SeymourCommand {
                     if (piece != null && piece.getHexcode() != null) {
                         String pattern = detector.detectPattern(piece.getHexcode());
                         piece.setSpecialPattern(pattern);
+                        rebuilt.add(piece);
                         updated++;
                     }
 
@@ -1385,6 +1485,7 @@ public class SeymourCommand {
                 }
 
                 ctx.getSource().sendFeedback(Component.literal("§7Saving collection..."));
+                CollectionManager.getInstance().markReanalyzed(rebuilt);
                 CollectionManager.getInstance().save();
 
                 ctx.getSource().sendFeedback(Component.literal("§a[Seymour Analyzer] §7Rebuilt pattern data for §e" + updated + " §7pieces!"));
@@ -7,9 +7,10 @@ import lombok.Getter;
 import lombok.Setter;
 import net.fabricmc.loader.api.FabricLoader;
 import schnerry.seymouranalyzer.SeymourAnalyzer;
+import schnerry.seymouranalyzer.analyzer.VerdictTable;
 import schnerry.seymouranalyzer.gui.ArmorChecklistScreen;
 import schnerry.seymouranalyzer.gui.DatabaseScreen;
-import schnerry.seymouranalyzer.render.ItemSlotHighlighter;
+import schnerry.seymouranalyzer.util.DeltaEMetric;
 
 import java.io.File;
 import java.io.FileReader;
@@ -28,6 +29,14 @@ public class ClothConfig {
     private final File configFile;
     private final File dataFile;
 
+    // Per-concern change counters; caches tag derived data with the epochs they were built from
+    private volatile ConfigEpochs epochs = new ConfigEpochs(0, 0, 0, 0, 0);
+    // Settings as of the last load/save, compared by value to tell which concerns a save touched
+    private AnalysisSettings lastAnalysisSettings;
+    private HighlightSettings lastHighlightSettings;
+    private boolean lastWordsEnabled;
+    private boolean lastPatternsEnabled;
+
     // Toggle settings - Analysis Features
     @Setter
     @Getter
@@ -65,6 +74,22 @@ public class ClothConfig {
     @Setter
     private boolean pieceSpecificEnabled = false;
 
+    // Color difference formula used for matching and tiers
+    @Getter
+    @Setter
+    private DeltaEMetric deltaEMetric = DeltaEMetric.CIE76;
+
+    // Toggle settings - Performance
+    @Getter
+    @Setter
+    private boolean verdictTableEnabled = false;
+    @Getter
+    @Setter
+    private boolean wordTableEnabled = false;
+    @Getter
+    @Setter
+    private boolean prettyJsonEnabled = true;
+
     // Toggle settings - Display
     @Getter
     @Setter
@@ -164,6 +189,14 @@ public class ClothConfig {
                 if (json.has("dbCompareOnlyDiffPieces")) dbCompareOnlyDiffPieces = json.get("dbCompareOnlyDiffPieces").getAsBoolean();
                 if (json.has("autoRollOnVisitor")) autoRollOnVisitor = json.get("autoRollOnVisitor").getAsBoolean();
                 if (json.has("autoPinGui")) autoPinGui = json.get("autoPinGui").getAsBoolean();
+                if (json.has("verdictTableEnabled")) verdictTableEnabled = json.get("verdictTableEnabled").getAsBoolean();
+                if (json.has("wordTableEnabled")) wordTableEnabled = json.get("wordTableEnabled").getAsBoolean();
+                if (json.has("prettyJsonEnabled")) prettyJsonEnabled = json.get("prettyJsonEnabled").getAsBoolean();
+
+                if (json.has("deltaEMetric")) {
+                    DeltaEMetric metric = DeltaEMetric.fromName(json.get("deltaEMetric").getAsString());
+                    if (metric != null) deltaEMetric = metric;
+                }
 
                 if (json.has("infoBoxX")) infoBoxX = json.get("infoBoxX").getAsInt();
                 if (json.has("infoBoxY")) infoBoxY = json.get("infoBoxY").getAsInt();
@@ -200,6 +233,8 @@ public class ClothConfig {
             SeymourAnalyzer.LOGGER.error("Failed to load config", e);
         }
 
+        rememberSettings();
+
         // Sync autoPinGui to GUI screens after loading
         DatabaseScreen.setRememberPosition(autoPinGui);
         ArmorChecklistScreen.setRememberPage(autoPinGui);
@@ -250,6 +285,10 @@ public class ClothConfig {
             json.addProperty("dbCompareOnlyDiffPieces", dbCompareOnlyDiffPieces);
             json.addProperty("autoRollOnVisitor", autoRollOnVisitor);
             json.addProperty("autoPinGui", autoPinGui);
+            json.addProperty("verdictTableEnabled", verdictTableEnabled);
+            json.addProperty("wordTableEnabled", wordTableEnabled);
+            json.addProperty("prettyJsonEnabled", prettyJsonEnabled);
+            json.addProperty("deltaEMetric", deltaEMetric.name());
 
             json.addProperty("infoBoxX", infoBoxX);
             json.addProperty("infoBoxY", infoBoxY);
@@ -271,6 +310,15 @@ public class ClothConfig {
         } catch (Exception e) {
             SeymourAnalyzer.LOGGER.error("Failed to save config", e);
         }
+
+        // Only advance the epochs of concerns whose settings actually changed
+        if (!lastAnalysisSettings.equals(analysisSettings())) markChanged(ConfigEpochs.Concern.ANALYSIS);
+        if (!lastHighlightSettings.equals(highlightSettings())) markChanged(ConfigEpochs.Concern.HIGHLIGHT);
+        if (lastWordsEnabled != wordsEnabled) markChanged(ConfigEpochs.Concern.WORDS);
+        if (lastPatternsEnabled != patternsEnabled) markChanged(ConfigEpochs.Concern.PATTERNS);
+        rememberSettings();
+
+        VerdictTable.getInstance().refresh();
     }
 
     public void saveData() {
@@ -295,8 +343,55 @@ public class ClothConfig {
 
     public void setMatchPriorities(List<MatchPriority> matchPriorities) {
         this.matchPriorities = matchPriorities;
-        // Clear highlight cache so items re-calculate with new priorities
-        ItemSlotHighlighter.getInstance().clearCache();
+        // Priorities decide both the best match and which highlight wins
+        markChanged(ConfigEpochs.Concern.ANALYSIS);
+        markChanged(ConfigEpochs.Concern.HIGHLIGHT);
+        VerdictTable.getInstance().refresh();
+    }
+
+    /**
+     * Current per-concern epochs. Cheap (a single volatile read); compare the snapshot by identity
+     * to detect any change, or compare individual fields for the concerns a cache depends on.
+     */
+    public ConfigEpochs getEpochs() {
+        return epochs;
+    }
+
+    /**
+     * Advance one concern's epoch so data derived from it is recomputed on next access
+     */
+    public synchronized void markChanged(ConfigEpochs.Concern concern) {
+        epochs = epochs.next(concern);
+    }
+
+    private void rememberSettings() {
+        lastAnalysisSettings = analysisSettings();
+        lastHighlightSettings = highlightSettings();
+        lastWordsEnabled = wordsEnabled;
+        lastPatternsEnabled = patternsEnabled;
+    }
+
+    /**
+     * The settings ColorAnalyzer results depend on
+     */
+    private record AnalysisSettings(boolean fadeDyes, boolean customColors, boolean showHighFades,
+                                    boolean showHighCustoms, boolean threePieceSets, boolean pieceSpecific,
+                                    DeltaEMetric metric) {
+    }
+
+    /**
+     * The settings highlight colors depend on, besides the analysis
+     */
+    private record HighlightSettings(boolean highlights, boolean dupes) {
+    }
+
+    private AnalysisSettings analysisSettings() {
+        return new AnalysisSettings(fadeDyesEnabled, customColorsEnabled, showHighFades, showHighCustoms,
+            threePieceSetsEnabled, pieceSpecificEnabled, deltaEMetric);
+    }
+
+    private HighlightSettings highlightSettings() {
+        return new HighlightSettings(highlightsEnabled, dupesEnabled);
     }
 
     /**
@@ -309,11 +404,11 @@ public class ClothConfig {
 
     /**
      * Set a custom highlight color for a priority (ARGB).
-     * Clears item cache so highlights update immediately.
+     * Only the highlight epoch advances, so cached analysis results are kept.
      */
     public void setHighlightColor(MatchPriority priority, int argb) {
         highlightColors.put(priority.name(), argb);
-        ItemSlotHighlighter.getInstance().clearCache();
+        markChanged(ConfigEpochs.Concern.HIGHLIGHT);
     }
 
     /**
@@ -321,7 +416,7 @@ public class ClothConfig {
      */
     public void resetHighlightColor(MatchPriority priority) {
         highlightColors.remove(priority.name());
-        ItemSlotHighlighter.getInstance().clearCache();
+        markChanged(ConfigEpochs.Concern.HIGHLIGHT);
     }
 
     /**
@@ -0,0 +1,41 @@
+package schnerry.seymouranalyzer.config;
+
+/**
+ * Immutable snapshot of ClothConfig's per-concern change counters.
+ * Derived data remembers the epochs it was built from and is stale once a relevant counter moves;
+ * a new snapshot instance is published on every change, so "anything changed" is an identity check.
+ */
+public record ConfigEpochs(long analysis, long highlight, long words, long patterns, long customs) {
+
+    public enum Concern {
+        /** Toggles, metric and priorities that change ColorAnalyzer results */
+        ANALYSIS,
+        /** Highlight colors and which highlight sources are enabled */
+        HIGHLIGHT,
+        /** Custom word list and the word-match toggle */
+        WORDS,
+        /** The pattern-detection toggle */
+        PATTERNS,
+        /** Custom color definitions */
+        CUSTOMS
+    }
+
+    public long get(Concern concern) {
+        return switch (concern) {
+            case ANALYSIS -> analysis;
+            case HIGHLIGHT -> highlight;
+            case WORDS -> words;
+            case PATTERNS -> patterns;
+            case CUSTOMS -> customs;
+        };
+    }
+
+    ConfigEpochs next(Concern concern) {
+        return new ConfigEpochs(
+            analysis + (concern == Concern.ANALYSIS ? 1 : 0),
+            highlight + (concern == Concern.HIGHLIGHT ? 1 : 0),
+            words + (concern == Concern.WORDS ? 1 : 0),
+            patterns + (concern == Concern.PATTERNS ? 1 : 0),
+            customs + (concern == Concern.CUSTOMS ? 1 : 0));
+    }
+}
@@ -5,6 +5,7 @@ import me.shedaniel.clothconfig2.api.ConfigCategory;
 import me.shedaniel.clothconfig2.api.ConfigEntryBuilder;
 import net.minecraft.client.gui.screens.Screen;
 import net.minecraft.network.chat.Component;
+import schnerry.seymouranalyzer.util.DeltaEMetric;
 
 /**
  * Cloth Config GUI screen provider
@@ -173,6 +174,40 @@ public class ConfigScreen {
                 .setSaveConsumer(config::setPieceSpecificEnabled)
                 .build());
 
+        filterCategory.addEntry(entryBuilder.startEnumSelector(
+                Component.literal("ΔE Formula"),
+                DeltaEMetric.class,
+                config.getDeltaEMetric())
+                .setDefaultValue(DeltaEMetric.CIE76)
+                .setEnumNameProvider(metric -> Component.literal(((DeltaEMetric) metric).getDisplayName()))
+                .setTooltip(Component.literal("Color difference formula used to rank matches and assign tiers. CIE94 and CIEDE2000 follow perceived differences more closely than CIE76."))
+                .setSaveConsumer(config::setDeltaEMetric)
+                .build());
+
+        filterCategory.addEntry(entryBuilder.startBooleanToggle(
+                Component.literal("Precomputed Verdicts"),
+                config.isVerdictTableEnabled())
+                .setDefaultValue(false)
+                .setTooltip(Component.literal("Precompute the best match for every hex in the background (uses a few hundred MB of disk) so highlights are instant"))
+                .setSaveConsumer(config::setVerdictTableEnabled)
+                .build());
+
+        filterCategory.addEntry(entryBuilder.startBooleanToggle(
+                Component.literal("Precomputed Word Matches"),
+                config.isWordTableEnabled())
+                .setDefaultValue(false)
+                .setTooltip(Component.literal("Precompute the word match for every hex in the background (uses 32 MB of disk, rebuilt when the word list changes) so word highlights don't scan the word list"))
+                .setSaveConsumer(config::setWordTableEnabled)
+                .build());
+
+        filterCategory.addEntry(entryBuilder.startBooleanToggle(
+                Component.literal("Pretty-Printed JSON"),
+                config.isPrettyJsonEnabled())
+                .setDefaultValue(true)
+                .setTooltip(Component.literal("Indent the JSON written by /seymour export json so it's readable. Turn off to keep large exports smaller and faster to write"))
+                .setSaveConsumer(config::setPrettyJsonEnabled)
+                .build());
+
         // Scanning Category
         ConfigCategory scanningCategory = builder.getOrCreateCategory(Component.literal("Scanning"));
 
@@ -2,6 +2,7 @@ package schnerry.seymouranalyzer.data;
 
 import lombok.Getter;
 import lombok.Setter;
+import schnerry.seymouranalyzer.util.ColorMath;
 
 import java.util.List;
 
@@ -75,6 +76,13 @@ public class ArmorPiece {
         }
     }
 
+    /**
+     * Packed 0xRRGGBB of this piece's hexcode, or -1 if it has none or it isn't a valid hex
+     */
+    public int getRgb() {
+        return ColorMath.parseRgb(hexcode);
+    }
+
     // Convenience method for rebuild commands
     public void setBestMatch(String colorName, String targetHex, double deltaE, int absoluteDistance, int tier) {
         this.bestMatch = new BestMatch(colorName, targetHex, deltaE, absoluteDistance, tier);
@@ -1,37 +1,54 @@
 package schnerry.seymouranalyzer.data;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonObject;
 import lombok.Getter;
 import lombok.Setter;
 import net.fabricmc.loader.api.FabricLoader;
 import schnerry.seymouranalyzer.SeymourAnalyzer;
+import schnerry.seymouranalyzer.util.ColorMath;
 
 import java.io.*;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
 
 /**
  * Persistent cache for armor checklist calculations
  * Ported from ChatTriggers PogObject system
+ * <p>
+ * The category maps and an index from stage rgb to its stages are held in one immutable snapshot that
+ * writers replace as a whole (copy-on-write), so hover lookups are O(1), lock-free, and never see the
+ * index out of step with the categories.
+ * <p>
+ * Stored as armorChecklistCache.bin: a header with the hashes of everything the matches were computed
+ * from (checklist catalog, colors catalog, collection fingerprint), a string table, the categories,
+ * and a trailing CRC32. Startup only regenerates when one of the hashes no longer matches.
  */
 public class ChecklistCache {
-    private static final String CACHE_FILE = "armorChecklistCache.json";
+    private static final String CACHE_FILE = "armorChecklistCache.bin";
+    private static final String LEGACY_CACHE_FILE = "armorChecklistCache.json";
+    private static final int MAGIC = 0x53414343; // "SACC"
+    private static final int VERSION = 1;
     private static ChecklistCache instance;
 
     // Cache data (matches the JS structure)
-    @Getter
-    private Map<String, CategoryCache> normalColorCache = new HashMap<>();
-    @Getter
-    private Map<String, CategoryCache> fadeDyeOptimalCache = new HashMap<>();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
     @Setter
     @Getter
     private int collectionSize = 0;
     private long lastUpdated = 0;
+    // What the cached matches were computed from, see setSources()
+    private volatile long checklistHash;
+    private volatile long colorsHash;
+    private volatile long collectionFingerprint;
 
     public static class CategoryCache {
         public String category;
@@ -47,6 +64,80 @@ public class ChecklistCache {
         public boolean calculated = false;
         public String stageHex;
 
+        public MatchInfo get(String pieceType) {
+            return switch (pieceType) {
+                case "helmet" -> helmet;
+                case "chestplate" -> chestplate;
+                case "leggings" -> leggings;
+                case "boots" -> boots;
+                default -> null;
+            };
+        }
+
+        public void set(String pieceType, MatchInfo match) {
+            switch (pieceType) {
+                case "helmet" -> helmet = match;
+                case "chestplate" -> chestplate = match;
+                case "leggings" -> leggings = match;
+                case "boots" -> boots = match;
+                default -> throw new IllegalArgumentException("Unknown piece type: " + pieceType);
+            }
+        }
+
+        /**
+         * Shallow copy, so a slot can be replaced without touching a published instance
+         */
+        public StageMatches copy() {
+            StageMatches copy = new StageMatches();
+            copy.helmet = helmet;
+            copy.chestplate = chestplate;
+            copy.leggings = leggings;
+            copy.boots = boots;
+            copy.calculated = calculated;
+            copy.stageHex = stageHex;
+            return copy;
+        }
+    }
+
+    /**
+     * Where a stage color appears in the cache
+     *
+     * @param matches the stage's matches in the snapshot the reference came from
+     */
+    public record StageRef(String category, int stageIndex, boolean fadeDye, StageMatches matches) {
+    }
+
+    private record Snapshot(Map<String, CategoryCache> normal, Map<String, CategoryCache> fadeDyes,
+                            Map<Integer, List<StageRef>> stagesByRgb) {
+        static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of(), Map.of());
+
+        /**
+         * Snapshot of the given maps (copied) with its rgb index; normal stages come before fade dye ones
+         */
+        static Snapshot of(Map<String, CategoryCache> normal, Map<String, CategoryCache> fadeDyes) {
+            Map<Integer, List<StageRef>> stagesByRgb = new HashMap<>();
+            index(normal, false, stagesByRgb);
+            index(fadeDyes, true, stagesByRgb);
+            stagesByRgb.replaceAll((rgb, refs) -> List.copyOf(refs));
+            return new Snapshot(Collections.unmodifiableMap(new LinkedHashMap<>(normal)),
+                Collections.unmodifiableMap(new LinkedHashMap<>(fadeDyes)), stagesByRgb);
+        }
+
+        private static void index(Map<String, CategoryCache> categories, boolean fadeDye,
+                                  Map<Integer, List<StageRef>> stagesByRgb) {
+            for (Map.Entry<String, CategoryCache> category : categories.entrySet()) {
+                Map<Integer, StageMatches> matchesByIndex = category.getValue().matchesByIndex;
+                if (matchesByIndex == null) continue;
+                for (Map.Entry<Integer, StageMatches> stage : matchesByIndex.entrySet()) {
+                    StageMatches stageMatches = stage.getValue();
+                    if (stageMatches == null) continue;
+                    int rgb = ColorMath.parseRgb(stageMatches.stageHex);
+                    if (rgb < 0) continue;
+                    stagesByRgb.computeIfAbsent(rgb, k -> new ArrayList<>(1))
+                        .add(new StageRef(category.getKey(), stage.getKey(), fadeDye, stageMatches));
+                }
+            }
+        }
     }
 
     public static class MatchInfo {
@@ -85,37 +176,32 @@ public class ChecklistCache {
             return;
         }
 
-        try (BufferedReader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
-            Gson gson = new Gson();
-            JsonObject root = gson.fromJson(reader, JsonObject.class);
-
-            if (root.has("collectionSize")) {
-                collectionSize = root.get("collectionSize").getAsInt();
-            }
-
-            if (root.has("lastUpdated")) {
-                lastUpdated = root.get("lastUpdated").getAsLong();
-            }
-
-            // Load normal color cache
-            if (root.has("normalColorCache")) {
-                JsonObject normalCache = root.getAsJsonObject("normalColorCache");
-                for (String categoryName : normalCache.keySet()) {
-                    JsonObject catObj = normalCache.getAsJsonObject(categoryName);
-                    CategoryCache categoryCache = gson.fromJson(catObj, CategoryCache.class);
-                    normalColorCache.put(categoryName, categoryCache);
-                }
-            }
-
-            // Load fade dye cache
-            if (root.has("fadeDyeOptimalCache")) {
-                JsonObject fadeCache = root.getAsJsonObject("fadeDyeOptimalCache");
-                for (String categoryName : fadeCache.keySet()) {
-                    JsonObject catObj = fadeCache.getAsJsonObject(categoryName);
-                    CategoryCache categoryCache = gson.fromJson(catObj, CategoryCache.class);
-                    fadeDyeOptimalCache.put(categoryName, categoryCache);
-                }
-            }
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(cacheFile), 1 << 16), crc))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not a checklist cache file");
+            int version = in.readInt();
+            if (version != VERSION) throw new IOException("Unsupported checklist cache version " + version);
+            long checklistHash = in.readLong();
+            long colorsHash = in.readLong();
+            long collectionFingerprint = in.readLong();
+            int collectionSize = in.readInt();
+            long lastUpdated = in.readLong();
+
+            String[] strings = new String[in.readInt()];
+            for (int i = 0; i < strings.length; i++) strings[i] = in.readUTF();
+            Map<String, CategoryCache> normalColorCache = readCategories(in, strings);
+            Map<String, CategoryCache> fadeDyeOptimalCache = readCategories(in, strings);
+
+            int expectedCrc = (int) crc.getValue();
+            if (in.readInt() != expectedCrc) throw new IOException("Checklist cache checksum mismatch");
+
+            this.checklistHash = checklistHash;
+            this.colorsHash = colorsHash;
+            this.collectionFingerprint = collectionFingerprint;
+            this.collectionSize = collectionSize;
+            this.lastUpdated = lastUpdated;
+            snapshot = Snapshot.of(normalColorCache, fadeDyeOptimalCache);
 
             SeymourAnalyzer.LOGGER.info("Loaded checklist cache: {} normal categories, {} fade dye categories, collection size {}",
                 normalColorCache.size(), fadeDyeOptimalCache.size(), collectionSize);
@@ -123,80 +209,190 @@ public class ChecklistCache {
         } catch (Exception e) {
             SeymourAnalyzer.LOGGER.error("Failed to load checklist cache", e);
             // Reset to empty cache on error
-            normalColorCache.clear();
-            fadeDyeOptimalCache.clear();
+            snapshot = Snapshot.EMPTY;
             collectionSize = 0;
+            checklistHash = colorsHash = collectionFingerprint = 0;
         }
     }
 
     /**
      * Save cache to disk
      */
-    public void save() {
+    public synchronized void save() {
         Path cacheFile = getCacheFilePath();
+        Path tmp = cacheFile.resolveSibling(CACHE_FILE + ".tmp");
+        Snapshot current = snapshot;
 
         try {
             // Ensure parent directory exists
             Files.createDirectories(cacheFile.getParent());
 
-            Gson gson = new GsonBuilder().setPrettyPrinting().create();
-            JsonObject root = new JsonObject();
+            // Every string goes into one table, categories refer to it by index
+            Map<String, Integer> stringIds = new LinkedHashMap<>();
+            collectStrings(current.normal(), stringIds);
+            collectStrings(current.fadeDyes(), stringIds);
+
+            CRC32 crc = new CRC32();
+            try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16), crc))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(checklistHash);
+                out.writeLong(colorsHash);
+                out.writeLong(collectionFingerprint);
+                out.writeInt(collectionSize);
+                out.writeLong(System.currentTimeMillis());
+
+                out.writeInt(stringIds.size());
+                for (String string : stringIds.keySet()) out.writeUTF(string);
+                writeCategories(out, current.normal(), stringIds);
+                writeCategories(out, current.fadeDyes(), stringIds);
+                out.flush();
+                out.writeInt((int) crc.getValue());
+            }
+            Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.deleteIfExists(cacheFile.resolveSibling(LEGACY_CACHE_FILE));
 
-            root.addProperty("collectionSize", collectionSize);
-            root.addProperty("lastUpdated", System.currentTimeMillis());
+            SeymourAnalyzer.LOGGER.info("Saved checklist cache to disk");
 
-            // Save normal color cache
-            JsonObject normalCache = new JsonObject();
-            for (Map.Entry<String, CategoryCache> entry : normalColorCache.entrySet()) {
-                normalCache.add(entry.getKey(), gson.toJsonTree(entry.getValue()));
+        } catch (Exception e) {
+            SeymourAnalyzer.LOGGER.error("Failed to save checklist cache", e);
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
             }
-            root.add("normalColorCache", normalCache);
+        }
+    }
 
-            // Save fade dye cache
-            JsonObject fadeCache = new JsonObject();
-            for (Map.Entry<String, CategoryCache> entry : fadeDyeOptimalCache.entrySet()) {
-                fadeCache.add(entry.getKey(), gson.toJsonTree(entry.getValue()));
-            }
-            root.add("fadeDyeOptimalCache", fadeCache);
+    /**
+     * Record what the current matches were computed from; written with the next save()
+     */
+    public void setSources(long checklistHash, long colorsHash, long collectionFingerprint) {
+        this.checklistHash = checklistHash;
+        this.colorsHash = colorsHash;
+        this.collectionFingerprint = collectionFingerprint;
+    }
+
+    /**
+     * True if the cache holds matches computed from exactly these catalogs and collection (the caller
+     * checks that every category is there)
+     */
+    public boolean isCurrent(long checklistHash, long colorsHash, long collectionFingerprint) {
+        return this.checklistHash == checklistHash
+            && this.colorsHash == colorsHash
+            && this.collectionFingerprint == collectionFingerprint;
+    }
 
-            try (BufferedWriter writer = Files.newBufferedWriter(cacheFile, StandardCharsets.UTF_8)) {
-                gson.toJson(root, writer);
+    // Stage record flags: CALCULATED, then one bit per slot that has a match (PieceTypeUtil order)
+    private static final int CALCULATED = 1;
+    private static final String[] SLOTS = {"helmet", "chestplate", "leggings", "boots"};
+
+    private static void collectStrings(Map<String, CategoryCache> categories, Map<String, Integer> ids) {
+        for (Map.Entry<String, CategoryCache> category : categories.entrySet()) {
+            intern(category.getKey(), ids);
+            for (StageMatches stage : category.getValue().matchesByIndex.values()) {
+                intern(stage.stageHex, ids);
+                for (String slot : SLOTS) {
+                    MatchInfo match = stage.get(slot);
+                    if (match == null) continue;
+                    intern(match.name, ids);
+                    intern(match.hex, ids);
+                    intern(match.uuid, ids);
+                }
             }
+        }
+    }
 
-            SeymourAnalyzer.LOGGER.info("Saved checklist cache to disk");
+    private static void intern(String string, Map<String, Integer> ids) {
+        if (string != null) ids.putIfAbsent(string, ids.size());
+    }
 
-        } catch (Exception e) {
-            SeymourAnalyzer.LOGGER.error("Failed to save checklist cache", e);
+    private static int idOf(String string, Map<String, Integer> ids) {
+        return string == null ? -1 : ids.get(string);
+    }
+
+    private static void writeCategories(DataOutputStream out, Map<String, CategoryCache> categories,
+                                        Map<String, Integer> ids) throws IOException {
+        out.writeInt(categories.size());
+        for (Map.Entry<String, CategoryCache> category : categories.entrySet()) {
+            out.writeInt(idOf(category.getKey(), ids));
+            Map<Integer, StageMatches> stages = category.getValue().matchesByIndex;
+            out.writeInt(stages.size());
+            for (Map.Entry<Integer, StageMatches> stage : stages.entrySet()) {
+                StageMatches stageMatches = stage.getValue();
+                int flags = stageMatches.calculated ? CALCULATED : 0;
+                for (int slot = 0; slot < SLOTS.length; slot++) {
+                    if (stageMatches.get(SLOTS[slot]) != null) flags |= 2 << slot;
+                }
+                out.writeInt(stage.getKey());
+                out.writeInt(idOf(stageMatches.stageHex, ids));
+                out.writeByte(flags);
+                for (String slot : SLOTS) {
+                    MatchInfo match = stageMatches.get(slot);
+                    if (match == null) continue;
+                    out.writeInt(idOf(match.name, ids));
+                    out.writeInt(idOf(match.hex, ids));
+                    out.writeDouble(match.deltaE);
+                    out.writeInt(idOf(match.uuid, ids));
+                }
+            }
+        }
+    }
+
+    private static Map<String, CategoryCache> readCategories(DataInputStream in, String[] strings) throws IOException {
+        Map<String, CategoryCache> categories = new LinkedHashMap<>();
+        int categoryCount = in.readInt();
+        for (int c = 0; c < categoryCount; c++) {
+            CategoryCache categoryCache = new CategoryCache();
+            categoryCache.category = stringAt(strings, in.readInt());
+            int stageCount = in.readInt();
+            for (int s = 0; s < stageCount; s++) {
+                int index = in.readInt();
+                StageMatches stageMatches = new StageMatches();
+                stageMatches.stageHex = stringAt(strings, in.readInt());
+                int flags = in.readUnsignedByte();
+                stageMatches.calculated = (flags & CALCULATED) != 0;
+                for (int slot = 0; slot < SLOTS.length; slot++) {
+                    if ((flags & (2 << slot)) == 0) continue;
+                    String name = stringAt(strings, in.readInt());
+                    String hex = stringAt(strings, in.readInt());
+                    double deltaE = in.readDouble();
+                    String uuid = stringAt(strings, in.readInt());
+                    stageMatches.set(SLOTS[slot], new MatchInfo(name, hex, deltaE, uuid));
+                }
+                categoryCache.matchesByIndex.put(index, stageMatches);
+            }
+            categories.put(categoryCache.category, categoryCache);
         }
+        return categories;
+    }
+
+    private static String stringAt(String[] strings, int id) throws IOException {
+        if (id == -1) return null;
+        if (id < 0 || id >= strings.length) throw new IOException("Bad string id " + id);
+        return strings[id];
     }
 
     /**
      * Clear all caches (called when collection size changes)
      */
-    public void clearAll() {
-        normalColorCache.clear();
-        fadeDyeOptimalCache.clear();
+    public synchronized void clearAll() {
+        snapshot = Snapshot.EMPTY;
         SeymourAnalyzer.LOGGER.info("Cleared all checklist caches");
     }
 
     /**
      * Check if cache needs to be invalidated
-     * @param currentCollectionSize Current size of the collection
+     * @param currentFingerprint CollectionManager.getFingerprint() of the current collection
      * @return true if cache was cleared, false if still valid
      */
-    public boolean checkAndInvalidate(int currentCollectionSize) {
-        if (currentCollectionSize != collectionSize) {
-            int diff = currentCollectionSize - collectionSize;
+    public boolean checkAndInvalidate(long currentFingerprint) {
+        if (currentFingerprint != collectionFingerprint) {
             clearAll();
-            collectionSize = currentCollectionSize;
+            // What's recalculated from here on is partial, so the next startup regenerates everything
+            collectionFingerprint = 0;
             save();
-
-            if (diff > 0) {
-                SeymourAnalyzer.LOGGER.info("Collection grew by {} pieces, recalculating matches", diff);
-            } else {
-                SeymourAnalyzer.LOGGER.info("Collection changed by {} pieces, recalculating matches", diff);
-            }
-
+            SeymourAnalyzer.LOGGER.info("Collection changed since the checklist cache was built, recalculating matches");
             return true;
         }
         return false;
@@ -208,20 +404,64 @@ public class ChecklistCache {
 
     // Getters and setters
 
+    /**
+     * Read-only view of the current normal categories
+     */
+    public Map<String, CategoryCache> getNormalColorCache() {
+        return snapshot.normal();
+    }
+
+    /**
+     * Read-only view of the current fade dye categories
+     */
+    public Map<String, CategoryCache> getFadeDyeOptimalCache() {
+        return snapshot.fadeDyes();
+    }
+
     public CategoryCache getNormalColorCache(String category) {
-        return normalColorCache.get(category);
+        return snapshot.normal().get(category);
     }
 
     public void setNormalColorCache(String category, CategoryCache cache) {
-        normalColorCache.put(category, cache);
+        putCategories(Map.of(category, cache), Map.of());
     }
 
     public CategoryCache getFadeDyeOptimalCache(String category) {
-        return fadeDyeOptimalCache.get(category);
+        return snapshot.fadeDyes().get(category);
     }
 
     public void setFadeDyeOptimalCache(String category, CategoryCache cache) {
-        fadeDyeOptimalCache.put(category, cache);
+        putCategories(Map.of(), Map.of(category, cache));
+    }
+
+    /**
+     * Replace (or add) several categories in one step, so readers see either none or all of them
+     */
+    public synchronized void putCategories(Map<String, CategoryCache> normal, Map<String, CategoryCache> fadeDyes) {
+        Snapshot current = snapshot;
+        Map<String, CategoryCache> newNormal = new LinkedHashMap<>(current.normal());
+        newNormal.putAll(normal);
+        Map<String, CategoryCache> newFadeDyes = new LinkedHashMap<>(current.fadeDyes());
+        newFadeDyes.putAll(fadeDyes);
+        snapshot = Snapshot.of(newNormal, newFadeDyes);
+    }
+
+    /**
+     * Drop one category so it's recalculated on next use
+     */
+    public synchronized void removeCategory(String category, boolean fadeDye) {
+        Snapshot current = snapshot;
+        Map<String, CategoryCache> newNormal = new LinkedHashMap<>(current.normal());
+        Map<String, CategoryCache> newFadeDyes = new LinkedHashMap<>(current.fadeDyes());
+        (fadeDye ? newFadeDyes : newNormal).remove(category);
+        snapshot = Snapshot.of(newNormal, newFadeDyes);
+    }
+
+    /**
+     * Every stage with exactly this color, normal categories first
+     */
+    public List<StageRef> getStagesForRgb(int rgb) {
+        return snapshot.stagesByRgb().getOrDefault(rgb, List.of());
     }
 
     /**
@@ -230,33 +470,6 @@ public class ChecklistCache {
      * @return true if this hex is needed for any checklist category
      */
     public boolean hasChecklistMatches(String hex) {
-        String hexUpper = hex.toUpperCase();
-
-        // Check normal color cache
-        for (CategoryCache categoryCache : normalColorCache.values()) {
-            if (categoryCache.matchesByIndex != null) {
-                for (StageMatches stageMatches : categoryCache.matchesByIndex.values()) {
-                    if (stageMatches.stageHex != null && stageMatches.stageHex.equalsIgnoreCase(hexUpper)) {
-                        // This hex is a target in the checklist
-                        return true;
-                    }
-                }
-            }
-        }
-
-        // Check fade dye cache
-        for (CategoryCache categoryCache : fadeDyeOptimalCache.values()) {
-            if (categoryCache.matchesByIndex != null) {
-                for (StageMatches stageMatches : categoryCache.matchesByIndex.values()) {
-                    if (stageMatches.stageHex != null && stageMatches.stageHex.equalsIgnoreCase(hexUpper)) {
-                        // This hex is a target in the checklist
-                        return true;
-                    }
-                }
-            }
-        }
-
-        return false;
+        return snapshot.stagesByRgb().containsKey(ColorMath.parseRgb(hex));
     }
 }
-
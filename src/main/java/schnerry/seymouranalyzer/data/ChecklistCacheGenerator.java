@@ -12,222 +12,411 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
 
 /**
  * Utility class to generate checklist caches for all categories
  * Called on mod init and after collection changes
+ * <p>
+ * Each slot (helmet/chestplate/leggings/boots) of a category is matched independently, so a batch of
+ * collection changes only needs the category x slot pairs with a stage within MATCH_THRESHOLD of a
+ * changed piece redone (see {@link #applyChanges}); everything else is kept as is.
+ * <p>
+ * Candidates for a stage come from the collection's LAB index (only pieces within MATCH_THRESHOLD are
+ * ever looked at), the bundled catalogs are parsed once, and a full rebuild runs categories in parallel.
  */
 public class ChecklistCacheGenerator {
+    private static final double MATCH_THRESHOLD = 5.0;
+    private static final double ROUNDING_MARGIN = 0.01; // LAB index vs ColorMath.deltaE rounding; over-including only costs a check
+    private static final int INCREMENTAL_LIMIT = 256; // past this many changes a full rebuild is cheaper
+    private static final int MATCHER_VERSION = 2; // bump when matching changes, so persisted caches are redone
+    private static final long SOLVE_BUDGET_NANOS = 50_000_000L; // per category x slot, then StageAssignment falls back to greedy
+
+    private static Catalogs catalogs; // guarded by the class lock
 
     private static class ChecklistEntry {
         String hex;
+        int rgb;
         String name;
         List<String> pieces; // helmet, chestplate, leggings, boots
     }
 
-    private static class CandidateMatch {
-        int stageIndex;
-        String uuid;
-        ArmorPiece piece;
-        double deltaE;
-        boolean isNeeded;
-
-        CandidateMatch(int stageIndex, String uuid, ArmorPiece piece, double deltaE, boolean isNeeded) {
-            this.stageIndex = stageIndex;
-            this.uuid = uuid;
-            this.piece = piece;
-            this.deltaE = deltaE;
-            this.isNeeded = isNeeded;
+    /**
+     * Parsed checklistdata.json categories and colors.json fade dyes (bundled, so they never change at
+     * runtime), with a content hash of each for ChecklistCache's header
+     */
+    private record Catalogs(Map<String, List<ChecklistEntry>> normal, Map<String, List<ChecklistEntry>> fadeDyes,
+                            long checklistHash, long colorsHash) {
+        Catalogs(Map<String, List<ChecklistEntry>> normal, Map<String, List<ChecklistEntry>> fadeDyes) {
+            this(normal, fadeDyes, hash(normal), hash(fadeDyes));
+        }
+
+        private static long hash(Map<String, List<ChecklistEntry>> categories) {
+            long h = mix(0xcbf29ce484222325L, MATCHER_VERSION);
+            for (Map.Entry<String, List<ChecklistEntry>> category : categories.entrySet()) {
+                h = mix(h, category.getKey().hashCode());
+                for (ChecklistEntry entry : category.getValue()) {
+                    h = mix(h, entry.rgb);
+                    h = mix(h, entry.name.hashCode());
+                    h = mix(h, entry.pieces.hashCode());
+                }
+            }
+            return h;
+        }
+
+        private static long mix(long h, int value) {
+            for (int shift = 0; shift < 32; shift += 8) {
+                h ^= (value >>> shift) & 0xFF;
+                h *= 0x100000001b3L;
+            }
+            return h;
+        }
+    }
+
+    /**
+     * Which slots each owned piece's name fits, worked out at most once per piece per run
+     */
+    private static final class PieceSlots {
+        private final Map<ArmorPiece, Integer> masks = new ConcurrentHashMap<>();
+
+        boolean fits(ArmorPiece piece, int slot) {
+            return (masks.computeIfAbsent(piece, PieceSlots::maskOf) & (1 << slot)) != 0;
+        }
+
+        private static int maskOf(ArmorPiece piece) {
+            int mask = 0;
+            for (int slot = 0; slot < PieceTypeUtil.pieceTypes.length; slot++) {
+                if (PieceTypeUtil.matchesPieceType(piece.getPieceName(), PieceTypeUtil.pieceTypes[slot])) {
+                    mask |= 1 << slot;
+                }
+            }
+            return mask;
         }
     }
 
     /**
      * Generate all checklist caches (both normal and fade dye)
-     * This is called on mod init and after collection changes
+     * This is called on mod init and as the fallback for collection changes
      */
-    public static void generateAllCaches() {
+    public static synchronized void generateAllCaches() {
         SeymourAnalyzer.LOGGER.info("Starting full checklist cache generation...");
+        long start = System.nanoTime();
+        long fingerprint = CollectionManager.getInstance().getFingerprint(); // before reading, so later changes re-trigger
 
-        Map<String, ArmorPiece> collection = CollectionManager.getInstance().getCollection();
         ChecklistCache cache = ChecklistCache.getInstance();
-
-        // Load checklist data
-        Map<String, List<ChecklistEntry>> normalCategories = loadChecklistData();
-        if (normalCategories.isEmpty()) {
+        Catalogs catalogs = catalogs();
+        if (catalogs.normal().isEmpty()) {
             SeymourAnalyzer.LOGGER.warn("No checklist data found, skipping cache generation");
             return;
         }
-
-        // Load fade dye categories
-        Map<String, List<ChecklistEntry>> fadeDyeCategories = loadFadeDyeData();
-        if (fadeDyeCategories.isEmpty()) {
+        if (catalogs.fadeDyes().isEmpty()) {
             SeymourAnalyzer.LOGGER.warn("No fade dye data found, skipping fade dye cache generation");
         }
 
-        // Generate normal color caches
-        for (Map.Entry<String, List<ChecklistEntry>> categoryEntry : normalCategories.entrySet()) {
-            String categoryName = categoryEntry.getKey();
-            List<ChecklistEntry> entries = categoryEntry.getValue();
+        // Every category, normal first, generated in parallel
+        List<Map.Entry<String, List<ChecklistEntry>>> categories = new ArrayList<>(catalogs.normal().entrySet());
+        categories.addAll(catalogs.fadeDyes().entrySet());
+        int normalCount = catalogs.normal().size();
+
+        PieceSlots slots = new PieceSlots();
+        ChecklistCache.CategoryCache[] results = new ChecklistCache.CategoryCache[categories.size()];
+        long[] nanos = new long[categories.size()];
+        IntStream.range(0, categories.size()).parallel().forEach(i -> {
+            long categoryStart = System.nanoTime();
+            Map.Entry<String, List<ChecklistEntry>> category = categories.get(i);
+            results[i] = generateCacheForCategory(category.getKey(), category.getValue(), slots);
+            nanos[i] = System.nanoTime() - categoryStart;
+        });
+
+        int slowest = 0;
+        Map<String, ChecklistCache.CategoryCache> normal = new LinkedHashMap<>();
+        Map<String, ChecklistCache.CategoryCache> fadeDyes = new LinkedHashMap<>();
+        StringJoiner timings = new StringJoiner(", ");
+        for (int i = 0; i < categories.size(); i++) {
+            String categoryName = categories.get(i).getKey();
+            (i < normalCount ? normal : fadeDyes).put(categoryName, results[i]);
+            if (nanos[i] > nanos[slowest]) slowest = i;
+            timings.add(String.format("%s %.1fms", categoryName, nanos[i] / 1_000_000.0));
+        }
 
-            ChecklistCache.CategoryCache categoryCache = generateCacheForCategory(
-                categoryName, entries, collection
-            );
+        cache.putCategories(normal, fadeDyes);
+        cache.setSources(catalogs.checklistHash(), catalogs.colorsHash(), fingerprint);
 
-            cache.setNormalColorCache(categoryName, categoryCache);
+        // Update collection size and save
+        cache.setCollectionSize(CollectionManager.getInstance().size());
+        cache.save();
+
+        // Clear InfoBoxRenderer's cached hover data so it will be regenerated with new cache data
+        schnerry.seymouranalyzer.render.InfoBoxRenderer.forceCloseHoveredDataCache();
+
+        SeymourAnalyzer.LOGGER.info("Completed full checklist cache generation for {} normal and {} fade dye categories in {}ms (slowest: {} at {}ms)",
+            normalCount, catalogs.fadeDyes().size(), (System.nanoTime() - start) / 1_000_000,
+            categories.get(slowest).getKey(), nanos[slowest] / 1_000_000.0);
+        SeymourAnalyzer.LOGGER.info("Checklist category times: {}", timings);
+    }
+
+    /**
+     * Bring the caches up to date with a batch of collection changes, redoing only the category x slot
+     * pairs that have a stage within MATCH_THRESHOLD of an added or removed piece. Falls back to
+     * {@link #generateAllCaches} when there is no cache yet, the collection was cleared, or the batch
+     * is large, or categories are missing (e.g. after the checklist screen invalidated the cache).
+     */
+    public static synchronized void applyChanges(List<CollectionEvent> events) {
+        ChecklistCache cache = ChecklistCache.getInstance();
+        boolean cleared = events.stream().anyMatch(e -> e instanceof CollectionEvent.Cleared);
+        Catalogs catalogs = catalogs();
+        if (cleared || events.size() > INCREMENTAL_LIMIT || !isComplete(cache, catalogs)) {
+            generateAllCaches();
+            return;
         }
 
-        // Generate fade dye caches
-        for (Map.Entry<String, List<ChecklistEntry>> categoryEntry : fadeDyeCategories.entrySet()) {
-            String categoryName = categoryEntry.getKey();
-            List<ChecklistEntry> entries = categoryEntry.getValue();
+        long start = System.currentTimeMillis();
+        long fingerprint = CollectionManager.getInstance().getFingerprint();
+
+        // Category -> slots an added or removed piece could change
+        PieceSlots slots = new PieceSlots();
+        Map<String, Set<Integer>> normalSlots = new LinkedHashMap<>();
+        Map<String, Set<Integer>> fadeDyeSlots = new LinkedHashMap<>();
+        for (CollectionEvent event : events) {
+            ArmorPiece piece = switch (event) {
+                case CollectionEvent.PieceAdded added -> added.piece();
+                case CollectionEvent.PieceRemoved removed -> removed.piece();
+                default -> null; // moves and re-analysis don't change colors or piece types
+            };
+            if (piece == null) continue;
+            collectAffectedSlots(piece, slots, catalogs.normal(), normalSlots);
+            collectAffectedSlots(piece, slots, catalogs.fadeDyes(), fadeDyeSlots);
+        }
 
-            ChecklistCache.CategoryCache categoryCache = generateCacheForCategory(
-                categoryName, entries, collection
-            );
+        if (normalSlots.isEmpty() && fadeDyeSlots.isEmpty()) {
+            // Matches are unchanged, but the saved fingerprint has to follow the collection
+            cache.setSources(catalogs.checklistHash(), catalogs.colorsHash(), fingerprint);
+            cache.setCollectionSize(CollectionManager.getInstance().size());
+            cache.save();
+            SeymourAnalyzer.LOGGER.info("{} collection change(s) don't touch any checklist stage, matches unchanged",
+                events.size());
+            return;
+        }
 
-            cache.setFadeDyeOptimalCache(categoryName, categoryCache);
+        Map<String, ChecklistCache.CategoryCache> normal = new LinkedHashMap<>();
+        for (Map.Entry<String, Set<Integer>> affected : normalSlots.entrySet()) {
+            String categoryName = affected.getKey();
+            normal.put(categoryName, updateCategory(categoryName, catalogs.normal().get(categoryName),
+                cache.getNormalColorCache(categoryName), affected.getValue(), slots));
         }
+        Map<String, ChecklistCache.CategoryCache> fadeDyes = new LinkedHashMap<>();
+        for (Map.Entry<String, Set<Integer>> affected : fadeDyeSlots.entrySet()) {
+            String categoryName = affected.getKey();
+            fadeDyes.put(categoryName, updateCategory(categoryName, catalogs.fadeDyes().get(categoryName),
+                cache.getFadeDyeOptimalCache(categoryName), affected.getValue(), slots));
+        }
+        cache.putCategories(normal, fadeDyes);
+        cache.setSources(catalogs.checklistHash(), catalogs.colorsHash(), fingerprint);
 
-        // Update collection size and save
-        cache.setCollectionSize(collection.size());
+        cache.setCollectionSize(CollectionManager.getInstance().size());
         cache.save();
-
-        // Clear InfoBoxRenderer's cached hover data so it will be regenerated with new cache data
         schnerry.seymouranalyzer.render.InfoBoxRenderer.forceCloseHoveredDataCache();
 
-        SeymourAnalyzer.LOGGER.info("Completed full checklist cache generation for {} normal and {} fade dye categories",
-            normalCategories.size(), fadeDyeCategories.size());
+        SeymourAnalyzer.LOGGER.info("Updated {} normal and {} fade dye checklist categories for {} collection change(s) in {}ms",
+            normalSlots.size(), fadeDyeSlots.size(), events.size(), System.currentTimeMillis() - start);
     }
 
     /**
-     * Generate cache for a single category
+     * True if the persisted cache was computed from the current catalogs and collection, so startup
+     * doesn't need to regenerate it
      */
-    private static ChecklistCache.CategoryCache generateCacheForCategory(
+    public static synchronized boolean isCacheCurrent() {
+        Catalogs catalogs = catalogs();
+        ChecklistCache cache = ChecklistCache.getInstance();
+        return isComplete(cache, catalogs) && cache.isCurrent(
+            catalogs.checklistHash(), catalogs.colorsHash(), CollectionManager.getInstance().getFingerprint());
+    }
+
+    /**
+     * Every catalog category has a cached entry
+     */
+    private static boolean isComplete(ChecklistCache cache, Catalogs catalogs) {
+        return !catalogs.normal().isEmpty()
+            && cache.getNormalColorCache().keySet().containsAll(catalogs.normal().keySet())
+            && cache.getFadeDyeOptimalCache().keySet().containsAll(catalogs.fadeDyes().keySet());
+    }
+
+    /**
+     * The bundled catalogs, parsed on first use. A failed load isn't kept, so the next run retries.
+     */
+    private static Catalogs catalogs() {
+        if (catalogs == null) {
+            Catalogs loaded = new Catalogs(loadChecklistData(), loadFadeDyeData());
+            if (loaded.normal().isEmpty()) return loaded;
+            catalogs = loaded;
+        }
+        return catalogs;
+    }
+
+    /**
+     * Add every category x slot where the piece fits the slot and is within MATCH_THRESHOLD of a stage
+     */
+    private static void collectAffectedSlots(ArmorPiece piece, PieceSlots slots,
+                                             Map<String, List<ChecklistEntry>> categories,
+                                             Map<String, Set<Integer>> affected) {
+        int rgb = piece.getRgb();
+        if (rgb < 0) return;
+
+        for (int slot = 0; slot < PieceTypeUtil.pieceTypes.length; slot++) {
+            if (!slots.fits(piece, slot)) continue;
+
+            for (Map.Entry<String, List<ChecklistEntry>> category : categories.entrySet()) {
+                for (ChecklistEntry entry : category.getValue()) {
+                    if (entry.rgb < 0) continue;
+                    if (ColorMath.deltaE(entry.rgb, rgb) <= MATCH_THRESHOLD + ROUNDING_MARGIN) {
+                        affected.computeIfAbsent(category.getKey(), k -> new HashSet<>()).add(slot);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Copy of the cached category with the given slots recomputed; the whole category is regenerated
+     * if there's no usable cached copy
+     */
+    private static ChecklistCache.CategoryCache updateCategory(
             String categoryName,
             List<ChecklistEntry> entries,
-            Map<String, ArmorPiece> collection) {
+            ChecklistCache.CategoryCache current,
+            Set<Integer> slotsToUpdate,
+            PieceSlots slots) {
+
+        if (current == null || current.matchesByIndex == null || current.matchesByIndex.size() != entries.size()) {
+            return generateCacheForCategory(categoryName, entries, slots);
+        }
 
         ChecklistCache.CategoryCache categoryCache = new ChecklistCache.CategoryCache();
         categoryCache.category = categoryName;
         categoryCache.isCalculating = false;
 
-        String[] pieceTypes = {"helmet", "chestplate", "leggings", "boots"};
-
-        // Temporary storage for matches
-        Map<Integer, Map<String, ArmorPiece>> foundPieces = new HashMap<>();
-        Map<Integer, Map<String, String>> foundPieceUuids = new HashMap<>();
+        Map<Integer, ChecklistCache.MatchInfo[]> recomputed = new HashMap<>();
+        for (int slot : slotsToUpdate) {
+            recomputed.put(slot, assignSlot(entries, slot, slots));
+        }
 
         for (int i = 0; i < entries.size(); i++) {
-            foundPieces.put(i, new HashMap<>());
-            foundPieceUuids.put(i, new HashMap<>());
+            ChecklistCache.StageMatches cached = current.matchesByIndex.get(i);
+            ChecklistCache.StageMatches stageMatches = cached != null ? cached.copy() : newStageMatches(entries.get(i));
+            for (Map.Entry<Integer, ChecklistCache.MatchInfo[]> slot : recomputed.entrySet()) {
+                stageMatches.set(PieceTypeUtil.pieceTypes[slot.getKey()], slot.getValue()[i]);
+            }
+            categoryCache.matchesByIndex.put(i, stageMatches);
         }
 
-        // Calculate optimal matches for each piece type
-        for (String pieceType : pieceTypes) {
-            List<CandidateMatch> candidates = new ArrayList<>();
-
-            // Build candidate list
-            for (int stageIdx = 0; stageIdx < entries.size(); stageIdx++) {
-                ChecklistEntry entry = entries.get(stageIdx);
-
-                for (Map.Entry<String, ArmorPiece> collectionEntry : collection.entrySet()) {
-                    String uuid = collectionEntry.getKey();
-                    ArmorPiece piece = collectionEntry.getValue();
+        return categoryCache;
+    }
 
-                    if (!PieceTypeUtil.matchesPieceType(piece.getPieceName(), pieceType)) {
-                        continue;
-                    }
+    /**
+     * Generate cache for a single category
+     */
+    private static ChecklistCache.CategoryCache generateCacheForCategory(
+            String categoryName,
+            List<ChecklistEntry> entries,
+            PieceSlots slots) {
 
-                    double deltaE = ColorMath.calculateDeltaE(entry.hex, piece.getHexcode());
-                    if (deltaE <= 5.0) {
-                        boolean isNeeded = entry.pieces.contains(pieceType);
-                        candidates.add(new CandidateMatch(stageIdx, uuid, piece, deltaE, isNeeded));
-                    }
-                }
-            }
+        ChecklistCache.CategoryCache categoryCache = new ChecklistCache.CategoryCache();
+        categoryCache.category = categoryName;
+        categoryCache.isCalculating = false;
 
-            // Sort: needed pieces first, then by quality
-            candidates.sort((a, b) -> {
-                if (a.isNeeded != b.isNeeded) {
-                    return a.isNeeded ? -1 : 1;
-                }
-                return Double.compare(a.deltaE, b.deltaE);
-            });
-
-            // Greedy assignment
-            Set<String> usedPieces = new HashSet<>();
-            Set<Integer> assignedStages = new HashSet<>();
-
-            for (CandidateMatch candidate : candidates) {
-                if (!usedPieces.contains(candidate.uuid) && !assignedStages.contains(candidate.stageIndex)) {
-                    foundPieces.get(candidate.stageIndex).put(pieceType, candidate.piece);
-                    foundPieceUuids.get(candidate.stageIndex).put(pieceType, candidate.uuid);
-                    usedPieces.add(candidate.uuid);
-                    assignedStages.add(candidate.stageIndex);
-                }
-            }
+        for (int i = 0; i < entries.size(); i++) {
+            categoryCache.matchesByIndex.put(i, newStageMatches(entries.get(i)));
         }
 
-        // Build StageMatches for each entry
-        for (int i = 0; i < entries.size(); i++) {
-            ChecklistEntry entry = entries.get(i);
-            ChecklistCache.StageMatches stageMatches = new ChecklistCache.StageMatches();
-            stageMatches.stageHex = entry.hex;
-            stageMatches.calculated = true;
-
-
-            Map<String, ArmorPiece> pieces = foundPieces.get(i);
-            Map<String, String> uuids = foundPieceUuids.get(i);
-
-            // Save each piece match
-            if (pieces.containsKey("helmet")) {
-                ArmorPiece piece = pieces.get("helmet");
-                String uuid = uuids.get("helmet");
-                stageMatches.helmet = new ChecklistCache.MatchInfo(
-                    piece.getPieceName(),
-                    piece.getHexcode(),
-                    ColorMath.calculateDeltaE(entry.hex, piece.getHexcode()),
-                    uuid
-                );
+        // Calculate optimal matches for each piece type
+        for (int slot = 0; slot < PieceTypeUtil.pieceTypes.length; slot++) {
+            ChecklistCache.MatchInfo[] matches = assignSlot(entries, slot, slots);
+            for (int i = 0; i < entries.size(); i++) {
+                categoryCache.matchesByIndex.get(i).set(PieceTypeUtil.pieceTypes[slot], matches[i]);
             }
+        }
 
-            if (pieces.containsKey("chestplate")) {
-                ArmorPiece piece = pieces.get("chestplate");
-                String uuid = uuids.get("chestplate");
-                stageMatches.chestplate = new ChecklistCache.MatchInfo(
-                    piece.getPieceName(),
-                    piece.getHexcode(),
-                    ColorMath.calculateDeltaE(entry.hex, piece.getHexcode()),
-                    uuid
-                );
-            }
+        return categoryCache;
+    }
 
-            if (pieces.containsKey("leggings")) {
-                ArmorPiece piece = pieces.get("leggings");
-                String uuid = uuids.get("leggings");
-                stageMatches.leggings = new ChecklistCache.MatchInfo(
-                    piece.getPieceName(),
-                    piece.getHexcode(),
-                    ColorMath.calculateDeltaE(entry.hex, piece.getHexcode()),
-                    uuid
-                );
-            }
+    private static ChecklistCache.StageMatches newStageMatches(ChecklistEntry entry) {
+        ChecklistCache.StageMatches stageMatches = new ChecklistCache.StageMatches();
+        stageMatches.stageHex = entry.hex;
+        stageMatches.calculated = true;
+        return stageMatches;
+    }
 
-            if (pieces.containsKey("boots")) {
-                ArmorPiece piece = pieces.get("boots");
-                String uuid = uuids.get("boots");
-                stageMatches.boots = new ChecklistCache.MatchInfo(
-                    piece.getPieceName(),
-                    piece.getHexcode(),
-                    ColorMath.calculateDeltaE(entry.hex, piece.getHexcode()),
-                    uuid
-                );
+    /**
+     * Match one slot of a category: each stage gets at most one piece and each piece at most one stage,
+     * filling as many needed stages as possible, then as many stages as possible, then lowest total ΔE
+     * (see {@link StageAssignment})
+     * @param slot index into PieceTypeUtil.pieceTypes
+     * @return the match for each stage index (null where nothing is within MATCH_THRESHOLD)
+     */
+    private static ChecklistCache.MatchInfo[] assignSlot(
+            List<ChecklistEntry> entries,
+            int slot,
+            PieceSlots slots) {
+
+        String pieceType = PieceTypeUtil.pieceTypes[slot];
+        CollectionManager manager = CollectionManager.getInstance();
+        boolean[] needed = new boolean[entries.size()];
+        List<ArmorPiece> pieces = new ArrayList<>();
+        Map<String, Integer> pieceIndex = new HashMap<>();
+        List<StageAssignment.Candidate> candidates = new ArrayList<>();
+
+        // Build candidate list from the owned pieces near each stage
+        for (int stageIdx = 0; stageIdx < entries.size(); stageIdx++) {
+            ChecklistEntry entry = entries.get(stageIdx);
+            needed[stageIdx] = entry.pieces.contains(pieceType);
+
+            for (NearbyPiece nearby : manager.findWithin(entry.rgb, MATCH_THRESHOLD + ROUNDING_MARGIN)) {
+                ArmorPiece piece = nearby.piece();
+                if (!slots.fits(piece, slot)) continue;
+
+                // Same ΔE as everywhere else in the UI, so the index's rounding never shows
+                double deltaE = ColorMath.deltaE(entry.rgb, piece.getRgb());
+                if (deltaE <= MATCH_THRESHOLD) {
+                    Integer index = pieceIndex.get(piece.getUuid());
+                    if (index == null) {
+                        index = pieces.size();
+                        pieceIndex.put(piece.getUuid(), index);
+                        pieces.add(piece);
+                    }
+                    candidates.add(new StageAssignment.Candidate(stageIdx, index, deltaE));
+                }
             }
+        }
 
-            categoryCache.matchesByIndex.put(i, stageMatches);
+        // Number pieces by uuid and order candidates, so exact ties (e.g. duplicate colors) settle the
+        // same way no matter what order the index returned them in
+        List<ArmorPiece> byUuid = new ArrayList<>(pieces);
+        byUuid.sort(Comparator.comparing(ArmorPiece::getUuid));
+        int[] rank = new int[pieces.size()];
+        for (int i = 0; i < byUuid.size(); i++) rank[pieceIndex.get(byUuid.get(i).getUuid())] = i;
+        List<StageAssignment.Candidate> ordered = new ArrayList<>(candidates.size());
+        for (StageAssignment.Candidate candidate : candidates) {
+            ordered.add(new StageAssignment.Candidate(candidate.stage(), rank[candidate.piece()], candidate.deltaE()));
+        }
+        ordered.sort(Comparator.comparingInt(StageAssignment.Candidate::stage).thenComparingInt(StageAssignment.Candidate::piece));
+
+        int[] assigned = StageAssignment.solve(needed, byUuid.size(), ordered, SOLVE_BUDGET_NANOS);
+
+        ChecklistCache.MatchInfo[] matches = new ChecklistCache.MatchInfo[entries.size()];
+        for (int stageIdx = 0; stageIdx < assigned.length; stageIdx++) {
+            if (assigned[stageIdx] < 0) continue;
+            ArmorPiece piece = byUuid.get(assigned[stageIdx]);
+            matches[stageIdx] = new ChecklistCache.MatchInfo(
+                piece.getPieceName(),
+                piece.getHexcode(),
+                ColorMath.deltaE(entries.get(stageIdx).rgb, piece.getRgb()),
+                piece.getUuid()
+            );
         }
 
-        return categoryCache;
+        return matches;
     }
 
     /**
@@ -256,6 +445,7 @@ public class ChecklistCacheGenerator {
                     JsonObject obj = element.getAsJsonObject();
                     ChecklistEntry entry = new ChecklistEntry();
                     entry.hex = obj.get("hex").getAsString().toUpperCase();
+                    entry.rgb = ColorMath.parseRgb(entry.hex);
                     entry.name = obj.get("name").getAsString();
                     entry.pieces = new ArrayList<>();
 
@@ -310,6 +500,7 @@ public class ChecklistCacheGenerator {
 
                     ChecklistEntry entry = new ChecklistEntry();
                     entry.hex = hexValue;
+                    entry.rgb = ColorMath.parseRgb(hexValue);
                     entry.name = key;
                     entry.pieces = new ArrayList<>();
                     entry.pieces.add("helmet");
@@ -0,0 +1,32 @@
+package schnerry.seymouranalyzer.data;
+
+/**
+ * A change to the collection, delivered to {@link CollectionListener}s in per-tick batches.
+ * Replacing a piece under an existing uuid is reported as {@link PieceRemoved} then {@link PieceAdded}.
+ */
+public sealed interface CollectionEvent {
+    record PieceAdded(ArmorPiece piece) implements CollectionEvent {
+    }
+
+    record PieceRemoved(ArmorPiece piece) implements CollectionEvent {
+    }
+
+    /**
+     * Only the chest location changed; from is null if the piece had no location yet
+     */
+    record PieceMoved(ArmorPiece piece, ArmorPiece.ChestLocation from, ArmorPiece.ChestLocation to)
+        implements CollectionEvent {
+    }
+
+    /**
+     * Match data (best match, top matches, word, pattern) was recomputed in place; the color is unchanged
+     */
+    record PieceReanalyzed(ArmorPiece piece) implements CollectionEvent {
+    }
+
+    /**
+     * Every piece was removed
+     */
+    record Cleared() implements CollectionEvent {
+    }
+}
@@ -0,0 +1,128 @@
+package schnerry.seymouranalyzer.data;
+
+import schnerry.seymouranalyzer.util.PieceTypeUtil;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Secondary indexes over the collection: pieces by exact color, by piece type and by best-match tier,
+ * running duplicate counts, and a LAB grid for nearest/radius color queries (CollectionLabIndex).
+ * Buckets are uuid -> piece maps, so lookups and per-piece updates are O(1).
+ * <p>
+ * Writers are serialized; readers get live read-only views of the concurrent buckets without locking.
+ * The keys a piece was indexed under are remembered, so removal stays correct even if the piece was
+ * changed in place since (call {@link #add} again to re-key it).
+ */
+final class CollectionIndex {
+    private final Map<Integer, Map<String, ArmorPiece>> byRgb = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, ArmorPiece>> byType = new ConcurrentHashMap<>();
+    private final Map<Integer, Map<String, ArmorPiece>> byTier = new ConcurrentHashMap<>();
+    private final Map<String, Keys> keysByUuid = new ConcurrentHashMap<>();
+    private final CollectionLabIndex lab = new CollectionLabIndex();
+
+    private volatile int duplicateColors;
+    private volatile int duplicatePieces;
+
+    private record Keys(int rgb, String type, int tier) {
+    }
+
+    synchronized void add(ArmorPiece piece) {
+        String uuid = piece.getUuid();
+        remove(uuid);
+
+        int rgb = piece.getRgb();
+        String type = PieceTypeUtil.detectPieceType(piece.getPieceName());
+        int tier = piece.getBestMatch() != null ? piece.getBestMatch().tier : -1;
+        keysByUuid.put(uuid, new Keys(rgb, type, tier));
+
+        if (rgb >= 0) {
+            Map<String, ArmorPiece> bucket = byRgb.computeIfAbsent(rgb, k -> new ConcurrentHashMap<>());
+            bucket.put(uuid, piece);
+            int size = bucket.size();
+            if (size == 2) {
+                duplicateColors++;
+                duplicatePieces += 2;
+            } else if (size > 2) {
+                duplicatePieces++;
+            }
+        }
+        if (type != null) byType.computeIfAbsent(type, k -> new ConcurrentHashMap<>()).put(uuid, piece);
+        if (tier >= 0) byTier.computeIfAbsent(tier, k -> new ConcurrentHashMap<>()).put(uuid, piece);
+        lab.add(piece);
+    }
+
+    synchronized void remove(String uuid) {
+        Keys keys = keysByUuid.remove(uuid);
+        if (keys == null) return;
+
+        if (keys.rgb >= 0) {
+            Map<String, ArmorPiece> bucket = byRgb.get(keys.rgb);
+            if (bucket != null && bucket.remove(uuid) != null) {
+                int size = bucket.size();
+                if (size == 1) {
+                    duplicateColors--;
+                    duplicatePieces -= 2;
+                } else if (size > 1) {
+                    duplicatePieces--;
+                }
+                if (size == 0) byRgb.remove(keys.rgb);
+            }
+        }
+        if (keys.type != null) removeFrom(byType, keys.type, uuid);
+        if (keys.tier >= 0) removeFrom(byTier, keys.tier, uuid);
+        lab.remove(uuid);
+    }
+
+    synchronized void clear() {
+        byRgb.clear();
+        byType.clear();
+        byTier.clear();
+        keysByUuid.clear();
+        lab.clear();
+        duplicateColors = 0;
+        duplicatePieces = 0;
+    }
+
+    Map<String, ArmorPiece> withRgb(int rgb) {
+        return view(byRgb.get(rgb));
+    }
+
+    Map<String, ArmorPiece> ofType(String type) {
+        return view(type == null ? null : byType.get(type));
+    }
+
+    Map<String, ArmorPiece> ofTier(int tier) {
+        return view(byTier.get(tier));
+    }
+
+    List<NearbyPiece> nearest(int rgb, int k, String excludeUuid, Predicate<ArmorPiece> filter) {
+        return lab.nearest(rgb, k, excludeUuid, filter);
+    }
+
+    List<NearbyPiece> within(int rgb, double maxDeltaE) {
+        return lab.within(rgb, maxDeltaE);
+    }
+
+    int duplicateColors() {
+        return duplicateColors;
+    }
+
+    int duplicatePieces() {
+        return duplicatePieces;
+    }
+
+    private static <K> void removeFrom(Map<K, Map<String, ArmorPiece>> index, K key, String uuid) {
+        Map<String, ArmorPiece> bucket = index.get(key);
+        if (bucket == null) return;
+        bucket.remove(uuid);
+        if (bucket.isEmpty()) index.remove(key);
+    }
+
+    private static Map<String, ArmorPiece> view(Map<String, ArmorPiece> bucket) {
+        return bucket == null ? Collections.emptyMap() : Collections.unmodifiableMap(bucket);
+    }
+}
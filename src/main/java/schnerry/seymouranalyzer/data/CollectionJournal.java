@@ -0,0 +1,198 @@
+package schnerry.seymouranalyzer.data;
+
+import com.google.gson.Gson;
+import schnerry.seymouranalyzer.SeymourAnalyzer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of collection mutations (collection.journal), replayed over the last
+ * collection.bin snapshot on startup.
+ * <p>
+ * Records are encoded on the mutating thread and queued; flush() writes everything queued with a
+ * single fsync. Each record is [length][crc32][type][payload], so a torn tail after a crash is
+ * detected and cut off on replay. Every record sets a piece's state outright (put/remove/move/clear),
+ * so replaying records that already made it into the snapshot is harmless.
+ */
+final class CollectionJournal {
+    private static final Gson GSON = new Gson();
+    private static final int MAGIC = 0x5341434A; // "SACJ"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final int RECORD_HEADER_BYTES = 9;
+    private static final int MAX_RECORD_BYTES = 1 << 24;
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final byte MOVE = 3;
+    private static final byte CLEAR = 4;
+
+    private final File file;
+    private final ConcurrentLinkedQueue<ByteBuffer> pending = new ConcurrentLinkedQueue<>();
+    private FileChannel channel;
+
+    CollectionJournal(File file) {
+        this.file = file;
+    }
+
+    void recordPut(ArmorPiece piece) {
+        enqueue(PUT, GSON.toJson(piece).getBytes(StandardCharsets.UTF_8), null);
+    }
+
+    void recordRemove(String uuid) {
+        enqueue(REMOVE, uuid.getBytes(StandardCharsets.UTF_8), null);
+    }
+
+    void recordMove(String uuid, ArmorPiece.ChestLocation location) {
+        enqueue(MOVE, uuid.getBytes(StandardCharsets.UTF_8), location);
+    }
+
+    void recordClear() {
+        enqueue(CLEAR, new byte[0], null);
+    }
+
+    boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    /**
+     * Bytes currently in the journal file
+     */
+    synchronized long size() throws IOException {
+        return open().size();
+    }
+
+    /**
+     * Apply the journal to a freshly loaded collection. A damaged tail is truncated so later appends
+     * stay readable.
+     * @return number of records applied
+     */
+    synchronized int replay(Map<String, ArmorPiece> collection) throws IOException {
+        FileChannel ch = open();
+        long size = ch.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        if (size < HEADER_BYTES || ch.read(header, 0) < HEADER_BYTES
+                || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            if (size > 0) SeymourAnalyzer.LOGGER.warn("Discarding unreadable collection journal");
+            reset();
+            return 0;
+        }
+
+        int applied = 0;
+        long position = HEADER_BYTES;
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+        CRC32 crc = new CRC32();
+        while (position + RECORD_HEADER_BYTES <= size) {
+            recordHeader.clear();
+            ch.read(recordHeader, position);
+            int length = recordHeader.getInt(0);
+            if (length < 0 || length > MAX_RECORD_BYTES || position + RECORD_HEADER_BYTES + length > size) break;
+
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            ch.read(payload, position + RECORD_HEADER_BYTES);
+            byte type = recordHeader.get(8);
+            crc.reset();
+            crc.update(type);
+            crc.update(payload.array());
+            if ((int) crc.getValue() != recordHeader.getInt(4)) break;
+
+            apply(type, payload, collection);
+            applied++;
+            position += RECORD_HEADER_BYTES + length;
+        }
+
+        if (position < size) {
+            SeymourAnalyzer.LOGGER.warn("Collection journal has a damaged tail, dropping {} bytes", size - position);
+            ch.truncate(position);
+        }
+        return applied;
+    }
+
+    /**
+     * Write every queued record and fsync once
+     */
+    synchronized void flush() throws IOException {
+        if (pending.isEmpty()) return;
+        FileChannel ch = open();
+        List<ByteBuffer> batch = new ArrayList<>();
+        ByteBuffer record;
+        while ((record = pending.poll()) != null) batch.add(record);
+
+        long position = ch.size();
+        if (position == 0) {
+            reset();
+            position = HEADER_BYTES;
+        }
+        for (ByteBuffer buffer : batch) {
+            while (buffer.hasRemaining()) position += ch.write(buffer, position);
+        }
+        ch.force(false);
+    }
+
+    /**
+     * Empty the journal once its records are covered by a new snapshot. Records still queued stay queued.
+     */
+    synchronized void reset() throws IOException {
+        FileChannel ch = open();
+        ch.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).flip();
+        ch.write(header, 0);
+        ch.force(false);
+    }
+
+    private void enqueue(byte type, byte[] payload, ArmorPiece.ChestLocation location) {
+        int length = payload.length + (location != null ? 12 : 0);
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_BYTES + length);
+        buffer.putInt(length);
+        buffer.putInt(0); // crc, filled in below
+        buffer.put(type);
+        if (location != null) {
+            buffer.putInt(location.x).putInt(location.y).putInt(location.z);
+        }
+        buffer.put(payload);
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), RECORD_HEADER_BYTES - 1, length + 1);
+        buffer.putInt(4, (int) crc.getValue());
+        buffer.flip();
+        pending.add(buffer);
+    }
+
+    private static void apply(byte type, ByteBuffer payload, Map<String, ArmorPiece> collection) {
+        switch (type) {
+            case PUT -> {
+                ArmorPiece piece = GSON.fromJson(new String(payload.array(), StandardCharsets.UTF_8), ArmorPiece.class);
+                if (piece != null && piece.getUuid() != null) collection.put(piece.getUuid(), piece);
+            }
+            case REMOVE -> collection.remove(new String(payload.array(), StandardCharsets.UTF_8));
+            case MOVE -> {
+                ArmorPiece.ChestLocation location = new ArmorPiece.ChestLocation(
+                    payload.getInt(0), payload.getInt(4), payload.getInt(8));
+                String uuid = new String(payload.array(), 12, payload.capacity() - 12, StandardCharsets.UTF_8);
+                ArmorPiece piece = collection.get(uuid);
+                if (piece != null) piece.setChestLocation(location);
+            }
+            case CLEAR -> collection.clear();
+            default -> SeymourAnalyzer.LOGGER.warn("Unknown collection journal record type {}", type);
+        }
+    }
+
+    private FileChannel open() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        return channel;
+    }
+}
@@ -0,0 +1,229 @@
+package schnerry.seymouranalyzer.data;
+
+import schnerry.seymouranalyzer.util.ColorMath;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Uniform grid over LAB space holding every owned piece with a color, for nearest-neighbour and
+ * radius (ΔE, CIE76) queries against the collection.
+ * <p>
+ * Cells are CELL_SIZE wide on each axis, so a ΔE 5 radius touches at most 27 cells and a nearest
+ * search only widens ring by ring until no unvisited cell can hold anything closer (or, when the grid
+ * is too sparse for that to pay off, scans every entry once). Inserts and
+ * removals are O(1) (removal swaps the last entry into the freed slot). Kept in sync by CollectionIndex.
+ */
+final class CollectionLabIndex {
+    private static final double CELL_SIZE = 5.0;
+    private static final double A_B_OFFSET = 128.0; // sRGB a/b stay well inside [-128, 128)
+    private static final int L_CELLS = 21;
+    private static final int AB_CELLS = 52;
+
+    private final Cell[] cells = new Cell[L_CELLS * AB_CELLS * AB_CELLS];
+    private final Map<String, Entry> byUuid = new HashMap<>();
+
+    private static final class Entry {
+        final ArmorPiece piece;
+        final String uuid;
+        final double L, a, b;
+        final int cell;
+        int slot;
+
+        Entry(ArmorPiece piece, ColorMath.LAB lab) {
+            this.piece = piece;
+            this.uuid = piece.getUuid();
+            this.L = lab.L();
+            this.a = lab.a();
+            this.b = lab.b();
+            this.cell = cellIndex(cellL(L), cellAB(a), cellAB(b));
+        }
+
+        double distSq(double qL, double qa, double qb) {
+            double dL = L - qL;
+            double da = a - qa;
+            double db = b - qb;
+            return dL * dL + da * da + db * db;
+        }
+    }
+
+    private static final class Cell {
+        Entry[] entries = new Entry[2];
+        int size;
+
+        void add(Entry entry) {
+            if (size == entries.length) entries = Arrays.copyOf(entries, size * 2);
+            entry.slot = size;
+            entries[size++] = entry;
+        }
+
+        void remove(Entry entry) {
+            Entry last = entries[--size];
+            entries[entry.slot] = last;
+            last.slot = entry.slot;
+            entries[size] = null;
+        }
+    }
+
+    synchronized void add(ArmorPiece piece) {
+        int rgb = piece.getRgb();
+        if (rgb < 0) return;
+        Entry entry = new Entry(piece, ColorMath.rgbToLab(rgb));
+        Cell cell = cells[entry.cell];
+        if (cell == null) cells[entry.cell] = cell = new Cell();
+        cell.add(entry);
+        byUuid.put(entry.uuid, entry);
+    }
+
+    synchronized void remove(String uuid) {
+        Entry entry = byUuid.remove(uuid);
+        if (entry != null) cells[entry.cell].remove(entry);
+    }
+
+    synchronized void clear() {
+        Arrays.fill(cells, null);
+        byUuid.clear();
+    }
+
+    /**
+     * Up to k pieces closest to the color, nearest first
+     *
+     * @param excludeUuid skip this piece (may be null)
+     * @param filter      only consider pieces it accepts (may be null)
+     */
+    synchronized List<NearbyPiece> nearest(int rgb, int k, String excludeUuid, Predicate<ArmorPiece> filter) {
+        if (k <= 0 || rgb < 0) return List.of();
+        ColorMath.LAB q = ColorMath.rgbToLab(rgb);
+        int cl = cellL(q.L()), ca = cellAB(q.a()), cb = cellAB(q.b());
+        Nearest top = new Nearest(k, q, excludeUuid, filter);
+        int total = byUuid.size();
+        int visited = 0; // entries in the cells scanned so far, whether they qualified or not
+        int probed = 0; // cells looked at so far, empty or not
+
+        // Rings past the farthest grid edge from the query cell are empty
+        int maxRing = Math.max(Math.max(cl, L_CELLS - 1 - cl),
+            Math.max(Math.max(ca, AB_CELLS - 1 - ca), Math.max(cb, AB_CELLS - 1 - cb)));
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Everything has been seen (e.g. fewer than k pieces pass the filter)
+            if (visited >= total) break;
+            // Every cell in this ring or beyond is at least (ring - 1) cells away on some axis
+            if (top.found == k && ring > 0) {
+                double reach = (ring - 1) * CELL_SIZE;
+                if (top.bestDistSq[k - 1] <= reach * reach) break;
+            }
+            // Sparse grid (small collection, or a filter that rejects most pieces): the remaining
+            // rings would cost more than looking at every piece once, so do that instead
+            if (probed > total) {
+                top = new Nearest(k, q, excludeUuid, filter);
+                for (Entry entry : byUuid.values()) top.offer(entry);
+                break;
+            }
+            for (int dl = -ring; dl <= ring; dl++) {
+                int il = cl + dl;
+                if (il < 0 || il >= L_CELLS) continue;
+                for (int da = -ring; da <= ring; da++) {
+                    int ia = ca + da;
+                    if (ia < 0 || ia >= AB_CELLS) continue;
+                    boolean onShell = Math.abs(dl) == ring || Math.abs(da) == ring;
+                    int step = onShell ? 1 : Math.max(1, 2 * ring);
+                    for (int db = -ring; db <= ring; db += step) {
+                        int ib = cb + db;
+                        if (ib < 0 || ib >= AB_CELLS) continue;
+                        probed++;
+                        Cell cell = cells[cellIndex(il, ia, ib)];
+                        if (cell == null) continue;
+                        visited += cell.size;
+                        for (int i = 0; i < cell.size; i++) top.offer(cell.entries[i]);
+                    }
+                }
+            }
+        }
+
+        List<NearbyPiece> result = new ArrayList<>(top.found);
+        for (int i = 0; i < top.found; i++) {
+            result.add(new NearbyPiece(top.best[i].piece, Math.sqrt(top.bestDistSq[i])));
+        }
+        return result;
+    }
+
+    /**
+     * The k closest qualifying entries offered so far, nearest first
+     */
+    private static final class Nearest {
+        final Entry[] best;
+        final double[] bestDistSq;
+        final ColorMath.LAB q;
+        final String excludeUuid;
+        final Predicate<ArmorPiece> filter;
+        int found;
+
+        Nearest(int k, ColorMath.LAB q, String excludeUuid, Predicate<ArmorPiece> filter) {
+            this.best = new Entry[k];
+            this.bestDistSq = new double[k];
+            this.q = q;
+            this.excludeUuid = excludeUuid;
+            this.filter = filter;
+        }
+
+        void offer(Entry entry) {
+            int k = best.length;
+            if (excludeUuid != null && excludeUuid.equals(entry.uuid)) return;
+            double d = entry.distSq(q.L(), q.a(), q.b());
+            if (found == k && d >= bestDistSq[k - 1]) return;
+            if (filter != null && !filter.test(entry.piece)) return;
+
+            int pos = found < k ? found++ : k - 1;
+            while (pos > 0 && bestDistSq[pos - 1] > d) {
+                best[pos] = best[pos - 1];
+                bestDistSq[pos] = bestDistSq[pos - 1];
+                pos--;
+            }
+            best[pos] = entry;
+            bestDistSq[pos] = d;
+        }
+    }
+
+    /**
+     * Every piece within maxDeltaE of the color, unordered
+     */
+    synchronized List<NearbyPiece> within(int rgb, double maxDeltaE) {
+        if (rgb < 0) return List.of();
+        ColorMath.LAB q = ColorMath.rgbToLab(rgb);
+        double maxSq = maxDeltaE * maxDeltaE;
+        List<NearbyPiece> result = new ArrayList<>();
+
+        int l0 = cellL(q.L() - maxDeltaE), l1 = cellL(q.L() + maxDeltaE);
+        int a0 = cellAB(q.a() - maxDeltaE), a1 = cellAB(q.a() + maxDeltaE);
+        int b0 = cellAB(q.b() - maxDeltaE), b1 = cellAB(q.b() + maxDeltaE);
+        for (int il = l0; il <= l1; il++) {
+            for (int ia = a0; ia <= a1; ia++) {
+                for (int ib = b0; ib <= b1; ib++) {
+                    Cell cell = cells[cellIndex(il, ia, ib)];
+                    if (cell == null) continue;
+                    for (int i = 0; i < cell.size; i++) {
+                        Entry entry = cell.entries[i];
+                        double d = entry.distSq(q.L(), q.a(), q.b());
+                        if (d <= maxSq) result.add(new NearbyPiece(entry.piece, Math.sqrt(d)));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static int cellL(double L) {
+        return Math.max(0, Math.min(L_CELLS - 1, (int) Math.floor(L / CELL_SIZE)));
+    }
+
+    private static int cellAB(double v) {
+        return Math.max(0, Math.min(AB_CELLS - 1, (int) Math.floor((v + A_B_OFFSET) / CELL_SIZE)));
+    }
+
+    private static int cellIndex(int il, int ia, int ib) {
+        return (il * AB_CELLS + ia) * AB_CELLS + ib;
+    }
+}
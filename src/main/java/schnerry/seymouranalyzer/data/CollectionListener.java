@@ -0,0 +1,14 @@
+package schnerry.seymouranalyzer.data;
+
+import java.util.List;
+
+/**
+ * Receives collection changes, see {@link CollectionManager#addListener}
+ */
+@FunctionalInterface
+public interface CollectionListener {
+    /**
+     * Called on the client thread once per tick with every change since the previous call, oldest first
+     */
+    void onCollectionChanged(List<CollectionEvent> events);
+}
@@ -1,33 +1,55 @@
 package schnerry.seymouranalyzer.data;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonObject;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
 import lombok.Getter;
 import net.fabricmc.loader.api.FabricLoader;
 import schnerry.seymouranalyzer.SeymourAnalyzer;
 import schnerry.seymouranalyzer.SeymourAnalyzerClient;
+import schnerry.seymouranalyzer.config.ClothConfig;
 import schnerry.seymouranalyzer.gui.GuiScaleManager;
-import schnerry.seymouranalyzer.render.HexTooltipRenderer;
 import schnerry.seymouranalyzer.scanner.ChestScanner;
+import schnerry.seymouranalyzer.util.JsonFiles;
+import schnerry.seymouranalyzer.util.PieceTypeUtil;
 
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
 /**
  * Manages the collection of scanned armor pieces
- * Optimized for batch operations with async saving
+ * Optimized for batch operations with async saving.
+ * Persisted as a columnar binary snapshot (see CollectionStore) plus a journal of the mutations
+ * since (see CollectionJournal). Mutations are fsynced in batches at most once a second and the
+ * journal is folded into a new snapshot once it grows past COMPACT_THRESHOLD_BYTES, so routine
+ * saves cost as much as the change rather than the collection. collection.json is only read once
+ * for migration and written on explicit export.
+ * <p>
+ * Changes are published as {@link CollectionEvent}s, queued from any thread and delivered to
+ * listeners in one batch per client tick. A fingerprint of the contents (XOR of a hash per piece)
+ * and a mutation counter are kept up to date in O(1) per change, so caches can tell whether they
+ * were built from the current collection.
  */
 public class CollectionManager {
     private static CollectionManager INSTANCE;
-    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final Gson GSON = new Gson();
     private static final ExecutorService SAVE_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
         Thread t = new Thread(r, "CollectionSaver");
         t.setDaemon(true);
@@ -35,20 +57,30 @@ public class CollectionManager {
     });
 
     private final File collectionFile;
+    private final File legacyJsonFile;
+    private final CollectionJournal journal;
     @Getter
     private final Map<String, ArmorPiece> collection = new ConcurrentHashMap<>();
-    private final AtomicBoolean isDirty = new AtomicBoolean(false);
+    private final CollectionIndex index = new CollectionIndex();
+    private final AtomicLong fingerprint = new AtomicLong();
+    private final AtomicLong modCount = new AtomicLong();
+    private final AtomicBoolean isDirty = new AtomicBoolean(false); // journal records not yet fsynced
     private final AtomicBoolean isSaving = new AtomicBoolean(false);
-    private long lastSaveTime = 0;
-    private static final long SAVE_DEBOUNCE_MS = 2000; // Wait 2 seconds after last change before saving
-    private int lastCollectionSize = 0; // Track size to detect changes
+    private volatile long dirtySince = 0;
+    private static final long JOURNAL_FLUSH_MS = 1000; // fsync queued journal records at most once a second
+    private static final long COMPACT_THRESHOLD_BYTES = 1 << 20; // fold the journal into a snapshot past 1 MB
+    private final List<CollectionListener> listeners = new CopyOnWriteArrayList<>();
+    private final ConcurrentLinkedQueue<CollectionEvent> pendingEvents = new ConcurrentLinkedQueue<>();
+    private final List<CollectionEvent> checklistBacklog = new ArrayList<>(); // changes the checklist cache hasn't seen yet
 
     private CollectionManager() {
         File configDir = new File(FabricLoader.getInstance().getConfigDir().toFile(), "seymouranalyzer");
         if (!configDir.exists() && !configDir.mkdirs()) {
             SeymourAnalyzer.LOGGER.error("Failed to create seymouranalyzer config directory");
         }
-        collectionFile = new File(configDir, "collection.json");
+        collectionFile = new File(configDir, "collection.bin");
+        legacyJsonFile = new File(configDir, "collection.json");
+        journal = new CollectionJournal(new File(configDir, "collection.journal"));
         load();
     }
 
@@ -60,32 +92,110 @@ public class CollectionManager {
     }
 
     public void load() {
+        if (collectionFile.exists()) {
+            loadBinary();
+        } else if (legacyJsonFile.exists()) {
+            migrateFromJson();
+        }
+
         try {
-            if (collectionFile.exists()) {
-                JsonObject json = GSON.fromJson(new FileReader(collectionFile), JsonObject.class);
-
-                json.entrySet().forEach(entry -> {
-                    try {
-                        ArmorPiece piece = GSON.fromJson(entry.getValue(), ArmorPiece.class);
-                        collection.put(entry.getKey(), piece);
-                    } catch (Exception e) {
-                        SeymourAnalyzer.LOGGER.warn("Failed to parse armor piece: " + entry.getKey(), e);
-                    }
-                });
-
-                SeymourAnalyzer.LOGGER.info("Loaded {} armor pieces from collection", collection.size());
+            int replayed = journal.replay(collection);
+            if (replayed > 0) {
+                SeymourAnalyzer.LOGGER.info("Replayed {} collection journal records ({} pieces)", replayed, collection.size());
             }
+        } catch (Exception e) {
+            SeymourAnalyzer.LOGGER.error("Failed to replay collection journal", e);
+        }
+        reindex();
+    }
+
+    private void loadBinary() {
+        long start = System.currentTimeMillis();
+        try {
+            for (ArmorPiece piece : CollectionStore.read(collectionFile)) {
+                collection.put(piece.getUuid(), piece);
+            }
+            SeymourAnalyzer.LOGGER.info("Loaded {} armor pieces from collection in {}ms",
+                collection.size(), System.currentTimeMillis() - start);
         } catch (Exception e) {
             SeymourAnalyzer.LOGGER.error("Failed to load collection", e);
+            // Move the unreadable file aside so the next save can't overwrite it
+            File corrupt = new File(collectionFile.getParentFile(), collectionFile.getName() + ".corrupt");
+            try {
+                Files.move(collectionFile.toPath(), corrupt.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                SeymourAnalyzer.LOGGER.warn("Moved unreadable collection to {}", corrupt.getName());
+            } catch (Exception moveError) {
+                SeymourAnalyzer.LOGGER.error("Failed to move unreadable collection aside", moveError);
+            }
         }
     }
 
+    /**
+     * One-time import of the old collection.json. The JSON is kept as collection.json.bak once the
+     * binary snapshot has been written.
+     */
+    private void migrateFromJson() {
+        // Streamed one piece at a time, so only a single piece's tree is ever in memory
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(legacyJsonFile.toPath(), StandardCharsets.UTF_8))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String uuid = reader.nextName();
+                JsonElement element = JsonParser.parseReader(reader);
+                try {
+                    ArmorPiece piece = GSON.fromJson(element, ArmorPiece.class);
+                    if (piece.getUuid() == null) piece.setUuid(uuid);
+                    collection.put(uuid, piece);
+                } catch (Exception e) {
+                    SeymourAnalyzer.LOGGER.warn("Failed to parse armor piece: " + uuid, e);
+                }
+            }
+            reader.endObject();
+        } catch (Exception e) {
+            SeymourAnalyzer.LOGGER.error("Failed to load collection.json", e);
+            return;
+        }
+
+        if (!writeSnapshot()) return;
+        File backup = new File(legacyJsonFile.getParentFile(), "collection.json.bak");
+        try {
+            Files.move(legacyJsonFile.toPath(), backup.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (Exception e) {
+            SeymourAnalyzer.LOGGER.warn("Failed to rename collection.json after migration", e);
+        }
+        SeymourAnalyzer.LOGGER.info("Migrated {} armor pieces from collection.json", collection.size());
+    }
+
+    /**
+     * Write the collection as JSON (uuid -> piece, the old collection.json format) for other tools
+     * @return number of pieces exported
+     */
+    public int exportJson(File file) throws IOException {
+        int[] count = {0};
+        JsonFiles.writeAtomically(file.toPath(), ClothConfig.getInstance().isPrettyJsonEnabled(), writer -> {
+            writer.beginObject();
+            for (Map.Entry<String, ArmorPiece> entry : collection.entrySet()) {
+                writer.name(entry.getKey());
+                GSON.toJson(entry.getValue(), ArmorPiece.class, writer);
+                count[0]++;
+            }
+            writer.endObject();
+        });
+        return count[0];
+    }
+
+    /**
+     * Default location for exportJson()
+     */
+    public File getJsonExportFile() {
+        return new File(collectionFile.getParentFile(), "collection-export.json");
+    }
+
     public void save() {
         save(false);
     }
 
     /**
-     * Save collection to disk
+     * Write a full snapshot, e.g. after pieces were changed in place by a rebuild
      * @param async If true, saves on background thread
      */
     public void save(boolean async) {
@@ -97,118 +207,207 @@ public class CollectionManager {
     }
 
     private void saveSync() {
-        if (isSaving.get()) {
-            SeymourAnalyzer.LOGGER.warn("Save already in progress, skipping");
-            return;
-        }
-
         isSaving.set(true);
         try {
-            JsonObject json = new JsonObject();
-
-            collection.forEach((uuid, piece) -> json.add(uuid, GSON.toJsonTree(piece)));
-
-            try (FileWriter writer = new FileWriter(collectionFile)) {
-                GSON.toJson(json, writer);
-            }
-
-            isDirty.set(false);
-            lastSaveTime = System.currentTimeMillis();
-            SeymourAnalyzer.LOGGER.info("Saved {} armor pieces to collection", collection.size());
-        } catch (Exception e) {
-            SeymourAnalyzer.LOGGER.error("Failed to save collection", e);
+            compact();
         } finally {
             isSaving.set(false);
         }
     }
 
     private void saveAsync() {
-        if (isSaving.get()) {
+        if (!isSaving.compareAndSet(false, true)) {
             return; // Already saving
         }
 
         SAVE_EXECUTOR.submit(() -> {
             try {
-                Thread.sleep(100); // Brief delay to batch multiple rapid changes
-                saveSync();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+                compact();
+            } finally {
+                isSaving.set(false);
             }
         });
     }
 
+    private void flushAsync() {
+        if (!isSaving.compareAndSet(false, true)) {
+            return; // Already saving, the next tick retries
+        }
+
+        SAVE_EXECUTOR.submit(() -> {
+            try {
+                flushJournal();
+            } finally {
+                isSaving.set(false);
+            }
+        });
+    }
+
+    /**
+     * Append queued journal records with one fsync, compacting if the journal got too big
+     */
+    private void flushJournal() {
+        isDirty.set(false);
+        try {
+            journal.flush();
+            if (journal.size() > COMPACT_THRESHOLD_BYTES) {
+                compact();
+            }
+        } catch (IOException e) {
+            SeymourAnalyzer.LOGGER.error("Failed to write collection journal, saving a full snapshot instead", e);
+            compact();
+        }
+    }
+
+    /**
+     * Write a full snapshot and empty the journal it now covers
+     */
+    private void compact() {
+        synchronized (journal) {
+            isDirty.set(false);
+            try {
+                journal.flush();
+            } catch (IOException e) {
+                SeymourAnalyzer.LOGGER.warn("Failed to flush collection journal before snapshot", e);
+            }
+            if (!writeSnapshot()) {
+                markDirty();
+                return;
+            }
+            try {
+                journal.reset();
+            } catch (IOException e) {
+                // The old records are still valid on top of the new snapshot, so this is only wasted space
+                SeymourAnalyzer.LOGGER.warn("Failed to reset collection journal", e);
+            }
+        }
+    }
+
+    private boolean writeSnapshot() {
+        try {
+            long start = System.currentTimeMillis();
+            CollectionStore.write(collectionFile, collection.values());
+            SeymourAnalyzer.LOGGER.info("Saved {} armor pieces to collection in {}ms",
+                collection.size(), System.currentTimeMillis() - start);
+            return true;
+        } catch (Exception e) {
+            SeymourAnalyzer.LOGGER.error("Failed to save collection", e);
+            return false;
+        }
+    }
+
     /**
-     * Mark collection as dirty (needs save). Will trigger async save after debounce period.
+     * Mark collection as dirty (journal records queued). Will trigger an async flush after JOURNAL_FLUSH_MS.
      */
     private void markDirty() {
-        isDirty.set(true);
-        lastSaveTime = System.currentTimeMillis();
+        if (isDirty.compareAndSet(false, true)) {
+            dirtySince = System.currentTimeMillis();
+        }
     }
 
     /**
-     * Called every tick to handle auto-save and cache regeneration
+     * Called every tick to handle auto-save, change events and cache regeneration
      */
     public void tick() {
         if (isDirty.get() && !isSaving.get()) {
-            long timeSinceLastChange = System.currentTimeMillis() - lastSaveTime;
-            if (timeSinceLastChange >= SAVE_DEBOUNCE_MS) {
-                saveAsync();
+            if (System.currentTimeMillis() - dirtySince >= JOURNAL_FLUSH_MS) {
+                flushAsync();
             }
         }
 
-        // Check if collection size changed and regenerate cache if needed
+        dispatchEvents();
+
+        // Update the checklist cache if pieces were added, removed or re-analyzed
         checkAndRegenerateCache();
     }
 
     /**
-     * Check if collection size changed and regenerate checklist cache if needed
+     * Subscribe to collection changes. Listeners are called on the client thread, once per tick.
      */
-    private void checkAndRegenerateCache() {
-        int currentSize = collection.size();
-        if (currentSize != lastCollectionSize && currentSize > 0) {
-            // Don't regenerate during active scanning/exporting to avoid lag
-            ChestScanner scanner = SeymourAnalyzerClient.getScanner();
-            if (scanner != null && (scanner.isScanningEnabled() || scanner.isExportingEnabled())) {
-                // Don't update lastCollectionSize during scanning - this way when scanning stops,
-                // the size mismatch will trigger regeneration
-                return;
-            }
+    public void addListener(CollectionListener listener) {
+        listeners.add(listener);
+    }
 
-            // Don't regenerate while in a mod GUI (e.g., database screen, checklist screen)
-            // to avoid lag while browsing
-            GuiScaleManager guiManager = GuiScaleManager.getInstance();
-            if (guiManager != null && guiManager.isInModGui()) {
-                // Don't update lastCollectionSize while in GUI - this way when GUI closes,
-                // the size mismatch will trigger regeneration
-                return;
+    public void removeListener(CollectionListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void publish(CollectionEvent event) {
+        pendingEvents.add(event);
+    }
+
+    /**
+     * Deliver the events queued since the last tick to every listener
+     */
+    private void dispatchEvents() {
+        if (pendingEvents.isEmpty()) return;
+        List<CollectionEvent> batch = new ArrayList<>();
+        CollectionEvent event;
+        while ((event = pendingEvents.poll()) != null) batch.add(event);
+        batch = List.copyOf(batch);
+
+        for (CollectionListener listener : listeners) {
+            try {
+                listener.onCollectionChanged(batch);
+            } catch (Exception e) {
+                SeymourAnalyzer.LOGGER.error("Collection listener failed", e);
             }
+        }
 
-            // Calculate the difference for logging
-            int sizeDiff = currentSize - lastCollectionSize;
-            lastCollectionSize = currentSize;
+        for (CollectionEvent e : batch) {
+            if (e instanceof CollectionEvent.PieceMoved) continue; // checklist doesn't track locations
+            if (e instanceof CollectionEvent.Cleared) checklistBacklog.clear();
+            checklistBacklog.add(e);
+        }
+    }
 
-            // Regenerate cache in background thread to avoid lag
-            new Thread(() -> {
-                try {
-                    if (sizeDiff > 0) {
-                        SeymourAnalyzer.LOGGER.info("Collection size increased by {} (now {}), regenerating checklist cache...", sizeDiff, currentSize);
-                    } else {
-                        SeymourAnalyzer.LOGGER.info("Collection size decreased by {} (now {}), regenerating checklist cache...", -sizeDiff, currentSize);
-                    }
-                    ChecklistCacheGenerator.generateAllCaches();
-                } catch (Exception e) {
-                    SeymourAnalyzer.LOGGER.error("Failed to regenerate checklist cache", e);
-                }
-            }, "ChecklistCacheRegenerator").start();
+    /**
+     * Update the checklist cache if there are collection changes it hasn't seen yet
+     */
+    private void checkAndRegenerateCache() {
+        if (checklistBacklog.isEmpty()) return;
+
+        // Don't regenerate during active scanning/exporting to avoid lag.
+        // The backlog is kept, so regeneration happens once scanning stops.
+        ChestScanner scanner = SeymourAnalyzerClient.getScanner();
+        if (scanner != null && (scanner.isScanningEnabled() || scanner.isExportingEnabled())) {
+            return;
         }
+
+        // Don't regenerate while in a mod GUI (e.g., database screen, checklist screen)
+        // to avoid lag while browsing; regeneration happens once the GUI closes
+        GuiScaleManager guiManager = GuiScaleManager.getInstance();
+        if (guiManager != null && guiManager.isInModGui()) {
+            return;
+        }
+
+        List<CollectionEvent> changes = List.copyOf(checklistBacklog);
+        checklistBacklog.clear();
+
+        // Update the cache in a background thread to avoid lag (only the affected categories are redone)
+        new Thread(() -> {
+            try {
+                if (ChecklistCacheGenerator.isCacheCurrent()) {
+                    // e.g. pieces rescanned unchanged, or added and removed again
+                    SeymourAnalyzer.LOGGER.info("{} collection change(s) leave the checklist cache current, skipping update",
+                        changes.size());
+                    return;
+                }
+                SeymourAnalyzer.LOGGER.info("{} collection change(s) (now {} pieces), updating checklist cache...",
+                    changes.size(), collection.size());
+                ChecklistCacheGenerator.applyChanges(changes);
+            } catch (Exception e) {
+                SeymourAnalyzer.LOGGER.error("Failed to update checklist cache", e);
+            }
+        }, "ChecklistCacheRegenerator").start();
     }
 
     /**
-     * Force immediate synchronous save (use when stopping scan or on shutdown)
+     * Force immediate synchronous journal flush (use when stopping scan or on shutdown)
      */
     public void forceSync() {
         if (isDirty.get()) {
-            saveSync();
+            flushJournal();
         }
     }
 
@@ -216,16 +415,26 @@ public class CollectionManager {
         if (piece.getUuid() == null) {
             piece.setUuid(UUID.randomUUID().toString());
         }
-        collection.put(piece.getUuid(), piece);
-        HexTooltipRenderer.getInstance().clearDbCache();
-        schnerry.seymouranalyzer.render.InfoBoxRenderer.invalidateOwnedDeltaCache();
+        ArmorPiece previous = collection.put(piece.getUuid(), piece);
+        index.add(piece);
+        if (previous != null) toggleFingerprint(previous);
+        toggleFingerprint(piece);
+        modCount.incrementAndGet();
+        journal.recordPut(piece);
+        if (previous != null) publish(new CollectionEvent.PieceRemoved(previous));
+        publish(new CollectionEvent.PieceAdded(piece));
         markDirty(); // Don't save immediately!
     }
 
     public void removePiece(String uuid) {
-        collection.remove(uuid);
-        HexTooltipRenderer.getInstance().clearDbCache();
-        schnerry.seymouranalyzer.render.InfoBoxRenderer.invalidateOwnedDeltaCache();
+        ArmorPiece removed = collection.remove(uuid);
+        index.remove(uuid);
+        if (removed != null) {
+            toggleFingerprint(removed);
+            modCount.incrementAndGet();
+        }
+        journal.recordRemove(uuid);
+        if (removed != null) publish(new CollectionEvent.PieceRemoved(removed));
         markDirty(); // Don't save immediately!
     }
 
@@ -252,20 +461,154 @@ public class CollectionManager {
             return false; // already up to date
         }
         piece.setChestLocation(newLocation);
+        modCount.incrementAndGet();
+        journal.recordMove(uuid, newLocation);
+        publish(new CollectionEvent.PieceMoved(piece, cur, newLocation));
         markDirty();
         return true;
     }
 
     public void clear() {
         collection.clear();
-        HexTooltipRenderer.getInstance().clearDbCache();
-        schnerry.seymouranalyzer.render.InfoBoxRenderer.invalidateOwnedDeltaCache();
+        index.clear();
+        fingerprint.set(0);
+        modCount.incrementAndGet();
+        journal.recordClear();
+        publish(new CollectionEvent.Cleared());
         markDirty();
-        forceSync(); // Clear is important, save immediately
+        saveSync(); // Clear is important, save immediately (an empty snapshot is cheap)
     }
 
     public int size() {
         return collection.size();
     }
+
+    /**
+     * Report pieces whose match data was recomputed in place: re-keys them in the indexes and
+     * publishes PieceReanalyzed for each. Call save() afterwards to persist the new data.
+     */
+    public void markReanalyzed(Collection<ArmorPiece> pieces) {
+        for (ArmorPiece piece : pieces) {
+            if (collection.get(piece.getUuid()) != piece) continue; // removed or replaced meanwhile
+            index.add(piece);
+            modCount.incrementAndGet();
+            publish(new CollectionEvent.PieceReanalyzed(piece));
+        }
+    }
+
+    /**
+     * Rebuild the secondary indexes from scratch
+     */
+    private void reindex() {
+        synchronized (index) {
+            index.clear();
+            collection.values().forEach(index::add);
+        }
+        long h = 0;
+        for (ArmorPiece piece : collection.values()) h ^= fingerprintOf(piece);
+        fingerprint.set(h);
+    }
+
+    /**
+     * Order-independent 64-bit hash of every piece's uuid, color and piece type; equal fingerprints
+     * mean the same pieces with the same colors (up to hash collisions), whatever happened in between
+     */
+    public long getFingerprint() {
+        return fingerprint.get();
+    }
+
+    /**
+     * Number of changes so far (adds, removes, moves, re-analysis, clears). Unlike the fingerprint it
+     * never repeats, so a different count means something changed, even if it was changed back.
+     */
+    public long getModCount() {
+        return modCount.get();
+    }
+
+    private void toggleFingerprint(ArmorPiece piece) {
+        long h = fingerprintOf(piece);
+        fingerprint.getAndAccumulate(h, (a, b) -> a ^ b);
+    }
+
+    private static long fingerprintOf(ArmorPiece piece) {
+        long h = 0xcbf29ce484222325L; // FNV-1a over the uuid
+        String uuid = piece.getUuid();
+        for (int i = 0; i < uuid.length(); i++) {
+            h ^= uuid.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= (piece.getRgb() & 0xFFFFFFFFL) * 0x9E3779B97F4A7C15L;
+        String type = PieceTypeUtil.detectPieceType(piece.getPieceName());
+        h ^= (type != null ? type.hashCode() & 0xFFFFFFFFL : 0xFFFFFFFFL) * 0xC2B2AE3D27D4EB4FL;
+        // SplitMix64 finalizer, so per-piece hashes are well spread before they're XOR-ed together
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+
+    /**
+     * Pieces with exactly this packed 0xRRGGBB color, uuid -> piece (read-only live view)
+     */
+    public Map<String, ArmorPiece> getPiecesWithRgb(int rgb) {
+        return index.withRgb(rgb);
+    }
+
+    public int countWithRgb(int rgb) {
+        return index.withRgb(rgb).size();
+    }
+
+    /**
+     * True if a piece other than uuid has this color
+     */
+    public boolean hasOtherPieceWithRgb(int rgb, String uuid) {
+        Map<String, ArmorPiece> pieces = index.withRgb(rgb);
+        int size = pieces.size();
+        return size > 1 || (size == 1 && !pieces.containsKey(uuid));
+    }
+
+    /**
+     * Pieces of a PieceTypeUtil type ("helmet", "chestplate", ...), uuid -> piece (read-only live view)
+     */
+    public Map<String, ArmorPiece> getPiecesOfType(String pieceType) {
+        return index.ofType(pieceType);
+    }
+
+    /**
+     * Pieces whose best match has this tier, uuid -> piece (read-only live view)
+     */
+    public Map<String, ArmorPiece> getPiecesOfTier(int tier) {
+        return index.ofTier(tier);
+    }
+
+    /**
+     * Up to k owned pieces closest to the packed 0xRRGGBB color by ΔE (CIE76), nearest first
+     *
+     * @param excludeUuid skip this piece, e.g. the hovered one (may be null)
+     * @param filter      only consider pieces it accepts (may be null)
+     */
+    public List<NearbyPiece> findNearest(int rgb, int k, String excludeUuid, Predicate<ArmorPiece> filter) {
+        return index.nearest(rgb, k, excludeUuid, filter);
+    }
+
+    /**
+     * Every owned piece within maxDeltaE (CIE76) of the packed 0xRRGGBB color, unordered
+     */
+    public List<NearbyPiece> findWithin(int rgb, double maxDeltaE) {
+        return index.within(rgb, maxDeltaE);
+    }
+
+    /**
+     * Number of colors owned more than once
+     */
+    public int getDuplicateColorCount() {
+        return index.duplicateColors();
+    }
+
+    /**
+     * Number of pieces sharing their color with at least one other piece
+     */
+    public int getDuplicatePieceCount() {
+        return index.duplicatePieces();
+    }
 }
 
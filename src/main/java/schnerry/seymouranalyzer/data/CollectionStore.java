@@ -0,0 +1,359 @@
+package schnerry.seymouranalyzer.data;
+
+import schnerry.seymouranalyzer.util.PieceTypeUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar binary snapshot of the collection (collection.bin).
+ * <p>
+ * Layout: a 32-byte header, an interned string table (offsets + one UTF-8 blob), one column per
+ * piece field, then the allMatches entries as columns of their own. Every string (uuid, names, hexes,
+ * words, patterns) is a string table id, -1 for null. Written to a temp file and atomically moved
+ * into place; read by loading the file into a heap buffer and bulk-copying the columns.
+ * <p>
+ * Deliberately not memory-mapped: a mapping outlives its channel until GC, and on Windows a file with
+ * a live mapping can't be replaced, so every later snapshot move would fail.
+ */
+final class CollectionStore {
+    private static final int MAGIC = 0x53414353; // "SACS"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+
+    private static final byte HAS_LOCATION = 1;
+    private static final byte HAS_BEST_MATCH = 2;
+    private static final byte HAS_MATCHES = 4;
+
+    private static final byte MATCH_CUSTOM = 1;
+    private static final byte MATCH_FADE = 2;
+
+    private CollectionStore() {
+    }
+
+    static List<ArmorPiece> read(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) throw new IOException("Collection file is truncated");
+            if (size > Integer.MAX_VALUE) throw new IOException("Collection file is too large");
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) throw new IOException("Collection file is truncated");
+            }
+
+            if (buffer.getInt(0) != MAGIC) throw new IOException("Not a collection file");
+            if (buffer.getInt(4) != VERSION) throw new IOException("Unsupported collection file version " + buffer.getInt(4));
+            int n = buffer.getInt(8);
+            int stringCount = buffer.getInt(12);
+            int m = buffer.getInt(16);
+            if (buffer.getLong(24) != size) throw new IOException("Collection file is truncated");
+
+            Reader in = new Reader(buffer);
+            int[] stringOffsets = in.ints(stringCount + 1);
+            byte[] blob = in.bytes(stringOffsets[stringCount]);
+            String[] strings = new String[stringCount];
+            for (int i = 0; i < stringCount; i++) {
+                strings[i] = new String(blob, stringOffsets[i], stringOffsets[i + 1] - stringOffsets[i], StandardCharsets.UTF_8);
+            }
+
+            int[] uuid = in.ints(n);
+            int[] hex = in.ints(n);
+            in.ints(n); // rgb, derived from hex
+            int[] pieceName = in.ints(n);
+            in.bytes(n); // piece type, derived from pieceName
+            byte[] flags = in.bytes(n);
+            int[] bestName = in.ints(n);
+            int[] bestHex = in.ints(n);
+            byte[] bestTier = in.bytes(n);
+            double[] bestDeltaE = in.doubles(n);
+            int[] bestDistance = in.ints(n);
+            int[] locX = in.ints(n);
+            int[] locY = in.ints(n);
+            int[] locZ = in.ints(n);
+            long[] timestamp = in.longs(n);
+            int[] word = in.ints(n);
+            int[] pattern = in.ints(n);
+            int[] matchStart = in.ints(n + 1);
+
+            int[] matchName = in.ints(m);
+            int[] matchHex = in.ints(m);
+            double[] matchDeltaE = in.doubles(m);
+            int[] matchDistance = in.ints(m);
+            byte[] matchTier = in.bytes(m);
+            byte[] matchFlags = in.bytes(m);
+
+            List<ArmorPiece> pieces = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                ArmorPiece piece = new ArmorPiece();
+                piece.setUuid(string(strings, uuid[i]));
+                piece.setHexcode(string(strings, hex[i]));
+                piece.setPieceName(string(strings, pieceName[i]));
+                if ((flags[i] & HAS_LOCATION) != 0) {
+                    piece.setChestLocation(new ArmorPiece.ChestLocation(locX[i], locY[i], locZ[i]));
+                }
+                if ((flags[i] & HAS_BEST_MATCH) != 0) {
+                    piece.setBestMatch(string(strings, bestName[i]), string(strings, bestHex[i]),
+                        bestDeltaE[i], bestDistance[i], bestTier[i]);
+                }
+                if ((flags[i] & HAS_MATCHES) != 0) {
+                    List<ArmorPiece.ColorMatch> matches = new ArrayList<>(matchStart[i + 1] - matchStart[i]);
+                    for (int j = matchStart[i]; j < matchStart[i + 1]; j++) {
+                        ArmorPiece.ColorMatch match = new ArmorPiece.ColorMatch(string(strings, matchName[j]),
+                            string(strings, matchHex[j]), matchDeltaE[j], matchDistance[j], matchTier[j]);
+                        match.isCustom = (matchFlags[j] & MATCH_CUSTOM) != 0;
+                        match.isFade = (matchFlags[j] & MATCH_FADE) != 0;
+                        matches.add(match);
+                    }
+                    piece.setAllMatches(matches);
+                }
+                piece.setTimestamp(timestamp[i]);
+                piece.setWordMatch(string(strings, word[i]));
+                piece.setSpecialPattern(string(strings, pattern[i]));
+                pieces.add(piece);
+            }
+            return pieces;
+        }
+    }
+
+    static void write(File file, Collection<ArmorPiece> source) throws IOException {
+        List<ArmorPiece> pieces = new ArrayList<>(source);
+        int n = pieces.size();
+        Strings strings = new Strings();
+
+        int[] uuid = new int[n];
+        int[] hex = new int[n];
+        int[] rgb = new int[n];
+        int[] pieceName = new int[n];
+        byte[] pieceType = new byte[n];
+        byte[] flags = new byte[n];
+        int[] bestName = new int[n];
+        int[] bestHex = new int[n];
+        byte[] bestTier = new byte[n];
+        double[] bestDeltaE = new double[n];
+        int[] bestDistance = new int[n];
+        int[] locX = new int[n];
+        int[] locY = new int[n];
+        int[] locZ = new int[n];
+        long[] timestamp = new long[n];
+        int[] word = new int[n];
+        int[] pattern = new int[n];
+        int[] matchStart = new int[n + 1];
+        List<ArmorPiece.ColorMatch> matches = new ArrayList<>();
+
+        for (int i = 0; i < n; i++) {
+            ArmorPiece piece = pieces.get(i);
+            uuid[i] = strings.id(piece.getUuid());
+            hex[i] = strings.id(piece.getHexcode());
+            rgb[i] = piece.getRgb();
+            pieceName[i] = strings.id(piece.getPieceName());
+            pieceType[i] = (byte) pieceTypeIndex(piece.getPieceName());
+
+            ArmorPiece.ChestLocation location = piece.getChestLocation();
+            if (location != null) {
+                flags[i] |= HAS_LOCATION;
+                locX[i] = location.x;
+                locY[i] = location.y;
+                locZ[i] = location.z;
+            }
+
+            ArmorPiece.BestMatch best = piece.getBestMatch();
+            if (best != null) {
+                flags[i] |= HAS_BEST_MATCH;
+                bestName[i] = strings.id(best.colorName);
+                bestHex[i] = strings.id(best.targetHex);
+                bestTier[i] = (byte) best.tier;
+                bestDeltaE[i] = best.deltaE;
+                bestDistance[i] = best.absoluteDistance;
+            }
+
+            List<ArmorPiece.ColorMatch> pieceMatches = piece.getAllMatches();
+            if (pieceMatches != null) {
+                flags[i] |= HAS_MATCHES;
+                matches.addAll(pieceMatches);
+            }
+            matchStart[i + 1] = matches.size();
+
+            timestamp[i] = piece.getTimestamp();
+            word[i] = strings.id(piece.getWordMatch());
+            pattern[i] = strings.id(piece.getSpecialPattern());
+        }
+
+        int m = matches.size();
+        int[] matchName = new int[m];
+        int[] matchHex = new int[m];
+        double[] matchDeltaE = new double[m];
+        int[] matchDistance = new int[m];
+        byte[] matchTier = new byte[m];
+        byte[] matchFlags = new byte[m];
+        for (int j = 0; j < m; j++) {
+            ArmorPiece.ColorMatch match = matches.get(j);
+            matchName[j] = strings.id(match.colorName);
+            matchHex[j] = strings.id(match.targetHex);
+            matchDeltaE[j] = match.deltaE;
+            matchDistance[j] = match.absoluteDistance;
+            matchTier[j] = (byte) match.tier;
+            matchFlags[j] = (byte) ((match.isCustom ? MATCH_CUSTOM : 0) | (match.isFade ? MATCH_FADE : 0));
+        }
+
+        int stringCount = strings.values.size();
+        int[] stringOffsets = new int[stringCount + 1];
+        List<byte[]> encoded = new ArrayList<>(stringCount);
+        for (int i = 0; i < stringCount; i++) {
+            byte[] bytes = strings.values.get(i).getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            stringOffsets[i + 1] = stringOffsets[i] + bytes.length;
+        }
+
+        long fileBytes = HEADER_BYTES
+            + 4L * (stringCount + 1) + stringOffsets[stringCount]
+            + (long) n * (4 * 12 + 3 + 8 + 8) + 4L * (n + 1)
+            + (long) m * (4 * 3 + 8 + 2);
+
+        if (fileBytes > Integer.MAX_VALUE) throw new IOException("Collection is too large to store");
+        ByteBuffer buffer = ByteBuffer.allocate((int) fileBytes);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(n);
+        buffer.putInt(stringCount);
+        buffer.putInt(m);
+        buffer.putInt(0);
+        buffer.putLong(fileBytes);
+
+        putInts(buffer, stringOffsets);
+        for (byte[] bytes : encoded) buffer.put(bytes);
+
+        putInts(buffer, uuid);
+        putInts(buffer, hex);
+        putInts(buffer, rgb);
+        putInts(buffer, pieceName);
+        buffer.put(pieceType);
+        buffer.put(flags);
+        putInts(buffer, bestName);
+        putInts(buffer, bestHex);
+        buffer.put(bestTier);
+        putDoubles(buffer, bestDeltaE);
+        putInts(buffer, bestDistance);
+        putInts(buffer, locX);
+        putInts(buffer, locY);
+        putInts(buffer, locZ);
+        putLongs(buffer, timestamp);
+        putInts(buffer, word);
+        putInts(buffer, pattern);
+        putInts(buffer, matchStart);
+
+        putInts(buffer, matchName);
+        putInts(buffer, matchHex);
+        putDoubles(buffer, matchDeltaE);
+        putInts(buffer, matchDistance);
+        buffer.put(matchTier);
+        buffer.put(matchFlags);
+
+        if (buffer.position() != fileBytes) {
+            throw new IOException("Collection file size mismatch: wrote " + buffer.position() + " of " + fileBytes);
+        }
+        buffer.flip();
+
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int pieceTypeIndex(String pieceName) {
+        String type = PieceTypeUtil.detectPieceType(pieceName);
+        for (int i = 0; i < PieceTypeUtil.pieceTypes.length; i++) {
+            if (PieceTypeUtil.pieceTypes[i].equals(type)) return i;
+        }
+        return -1;
+    }
+
+    private static String string(String[] strings, int id) {
+        return id < 0 ? null : strings[id];
+    }
+
+    private static void putInts(ByteBuffer buffer, int[] values) {
+        buffer.asIntBuffer().put(values);
+        buffer.position(buffer.position() + values.length * Integer.BYTES);
+    }
+
+    private static void putLongs(ByteBuffer buffer, long[] values) {
+        buffer.asLongBuffer().put(values);
+        buffer.position(buffer.position() + values.length * Long.BYTES);
+    }
+
+    private static void putDoubles(ByteBuffer buffer, double[] values) {
+        buffer.asDoubleBuffer().put(values);
+        buffer.position(buffer.position() + values.length * Double.BYTES);
+    }
+
+    /**
+     * Sequential bulk reads over the loaded file, bounds-checked by the buffer itself
+     */
+    private static class Reader {
+        private final ByteBuffer buffer;
+
+        Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+            buffer.position(HEADER_BYTES);
+        }
+
+        int[] ints(int count) {
+            int[] values = new int[count];
+            buffer.asIntBuffer().get(values);
+            buffer.position(buffer.position() + count * Integer.BYTES);
+            return values;
+        }
+
+        long[] longs(int count) {
+            long[] values = new long[count];
+            buffer.asLongBuffer().get(values);
+            buffer.position(buffer.position() + count * Long.BYTES);
+            return values;
+        }
+
+        double[] doubles(int count) {
+            double[] values = new double[count];
+            buffer.asDoubleBuffer().get(values);
+            buffer.position(buffer.position() + count * Double.BYTES);
+            return values;
+        }
+
+        byte[] bytes(int count) {
+            byte[] values = new byte[count];
+            buffer.get(values);
+            return values;
+        }
+    }
+
+    /**
+     * Interned string table, ids in first-seen order
+     */
+    private static class Strings {
+        final Map<String, Integer> ids = new HashMap<>();
+        final List<String> values = new ArrayList<>();
+
+        int id(String value) {
+            if (value == null) return -1;
+            return ids.computeIfAbsent(value, v -> {
+                values.add(v);
+                return values.size() - 1;
+            });
+        }
+    }
+}
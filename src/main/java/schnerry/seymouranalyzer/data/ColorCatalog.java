@@ -0,0 +1,205 @@
+package schnerry.seymouranalyzer.data;
+
+import schnerry.seymouranalyzer.util.ColorMath;
+import schnerry.seymouranalyzer.util.DeltaEMetric;
+import schnerry.seymouranalyzer.util.PieceTypeUtil;
+
+import java.util.Map;
+
+/**
+ * Immutable struct-of-arrays snapshot of every matchable color: target colors, then fade dyes,
+ * then custom colors. LAB values, chroma, slot masks and 3p flags are precomputed once per snapshot
+ * so queries never touch Strings or maps.
+ */
+public final class ColorCatalog {
+    public static final int NORMAL = 0;
+    public static final int FADE = 1;
+    public static final int CUSTOM = 2;
+
+    public static final int SLOT_HELMET = 1;
+    public static final int SLOT_CHESTPLATE = 1 << 1;
+    public static final int SLOT_LEGGINGS = 1 << 2;
+    public static final int SLOT_BOOTS = 1 << 3;
+    public static final int SLOT_ALL = SLOT_HELMET | SLOT_CHESTPLATE | SLOT_LEGGINGS | SLOT_BOOTS;
+
+    private final String[] names;
+    private final String[] hexes;
+    private final int[] rgb;
+    private final float[] labL;
+    private final float[] labA;
+    private final float[] labB;
+    private final float[] chroma;
+    private final byte[] slotMask;
+    private final boolean[] threePiece;
+    private final int[] categoryStart = new int[4];
+
+    private ColorCatalog(Map<String, String> targets, Map<String, String> fades, Map<String, String> customs) {
+        // Entries with a malformed hex are left out rather than matched as black
+        int n = countValid(targets) + countValid(fades) + countValid(customs);
+        names = new String[n];
+        hexes = new String[n];
+        rgb = new int[n];
+        labL = new float[n];
+        labA = new float[n];
+        labB = new float[n];
+        chroma = new float[n];
+        slotMask = new byte[n];
+        threePiece = new boolean[n];
+
+        double[] lab = new double[3];
+        int i = 0;
+        int category = 0;
+        for (Map<String, String> colors : java.util.List.of(targets, fades, customs)) {
+            categoryStart[category++] = i;
+            for (Map.Entry<String, String> entry : colors.entrySet()) {
+                int value = ColorMath.parseRgb(entry.getValue());
+                if (value < 0) continue;
+                names[i] = entry.getKey();
+                hexes[i] = entry.getValue();
+                rgb[i] = value;
+                ColorMath.labInto(rgb[i], lab);
+                // Rounded to float so values line up with the LAB table
+                labL[i] = (float) lab[0];
+                labA[i] = (float) lab[1];
+                labB[i] = (float) lab[2];
+                chroma[i] = (float) Math.sqrt(labA[i] * labA[i] + labB[i] * labB[i]);
+                slotMask[i] = (byte) slotMaskFor(names[i]);
+                threePiece[i] = names[i].contains("3p");
+                i++;
+            }
+        }
+        categoryStart[3] = n;
+    }
+
+    public static ColorCatalog build(Map<String, String> targets, Map<String, String> fades, Map<String, String> customs) {
+        return new ColorCatalog(targets, fades, customs);
+    }
+
+    private static int countValid(Map<String, String> colors) {
+        int count = 0;
+        for (String hex : colors.values()) {
+            if (ColorMath.parseRgb(hex) >= 0) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Slot bit for a piece type from PieceTypeUtil, or 0 if unknown
+     */
+    public static int slotBit(String pieceType) {
+        if (pieceType == null) return 0;
+        return switch (pieceType) {
+            case "helmet" -> SLOT_HELMET;
+            case "chestplate" -> SLOT_CHESTPLATE;
+            case "leggings" -> SLOT_LEGGINGS;
+            case "boots" -> SLOT_BOOTS;
+            default -> 0;
+        };
+    }
+
+    /**
+     * Slots a target color can be matched on, derived from its name.
+     * 3p entries are multi-piece sets (chestplate/leggings/boots), never helmets.
+     * Otherwise the union of slots mentioned across "/" aliases and "+" compounds;
+     * names without any slot keyword are generic and allowed everywhere.
+     */
+    public static int slotMaskFor(String colorName) {
+        if (colorName.toLowerCase().contains("3p")) {
+            return SLOT_ALL & ~SLOT_HELMET;
+        }
+
+        int mask = 0;
+        for (String segment : colorName.split("/")) {
+            for (String part : segment.split("\\+")) {
+                part = part.trim();
+                if (PieceTypeUtil.matchesPieceType(part, "helmet"))     mask |= SLOT_HELMET;
+                if (PieceTypeUtil.matchesPieceType(part, "chestplate")) mask |= SLOT_CHESTPLATE;
+                if (PieceTypeUtil.matchesPieceType(part, "leggings"))   mask |= SLOT_LEGGINGS;
+                if (PieceTypeUtil.matchesPieceType(part, "boots"))      mask |= SLOT_BOOTS;
+            }
+        }
+        return mask == 0 ? SLOT_ALL : mask;
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * First index of a category (NORMAL, FADE, CUSTOM)
+     */
+    public int start(int category) {
+        return categoryStart[category];
+    }
+
+    /**
+     * One past the last index of a category
+     */
+    public int end(int category) {
+        return categoryStart[category + 1];
+    }
+
+    public int category(int i) {
+        return i >= categoryStart[CUSTOM] ? CUSTOM : i >= categoryStart[FADE] ? FADE : NORMAL;
+    }
+
+    public String name(int i) {
+        return names[i];
+    }
+
+    public String hex(int i) {
+        return hexes[i];
+    }
+
+    public int rgb(int i) {
+        return rgb[i];
+    }
+
+    public float labL(int i) {
+        return labL[i];
+    }
+
+    public float labA(int i) {
+        return labA[i];
+    }
+
+    public float labB(int i) {
+        return labB[i];
+    }
+
+    /**
+     * C*ab of entry i, precomputed for the CIE94/CIEDE2000 metrics
+     */
+    public float chroma(int i) {
+        return chroma[i];
+    }
+
+    /**
+     * ΔE from a LAB point (with chroma c) to entry i under the given metric
+     */
+    public double deltaE(DeltaEMetric metric, int i, double L, double a, double b, double c) {
+        return metric.deltaE(labL[i], labA[i], labB[i], chroma[i], L, a, b, c);
+    }
+
+    /**
+     * Whether entry i may be matched on the given slot (0 = any slot) and 3p rule
+     */
+    public boolean accepts(int i, int slotBit, boolean exclude3p) {
+        if (slotBit != 0 && (slotMask[i] & slotBit) == 0) return false;
+        return !exclude3p || !threePiece[i];
+    }
+
+    /**
+     * Squared ΔE (CIE76) from a LAB point to every entry in [from, to), written to out[from..to).
+     * Plain loop over contiguous float columns so the JIT can vectorize it.
+     */
+    public void distancesSq(double L, double a, double b, int from, int to, float[] out) {
+        float qL = (float) L, qa = (float) a, qb = (float) b;
+        for (int i = from; i < to; i++) {
+            float dL = labL[i] - qL;
+            float da = labA[i] - qa;
+            float db = labB[i] - qb;
+            out[i] = dL * dL + da * da + db * db;
+        }
+    }
+}
@@ -3,7 +3,9 @@ package schnerry.seymouranalyzer.data;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import schnerry.seymouranalyzer.SeymourAnalyzer;
+import schnerry.seymouranalyzer.config.ClothConfig;
 import schnerry.seymouranalyzer.util.ColorMath;
+import schnerry.seymouranalyzer.util.LabTable;
 
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -20,6 +22,8 @@ public class ColorDatabase {
     private final Map<String, String> fadeDyes = new LinkedHashMap<>();
     private final Map<String, ColorMath.LAB> labCache = new ConcurrentHashMap<>();
     private final Set<String> fadeDyeNames = new HashSet<>();
+    private volatile ColorCatalog catalog;
+    private volatile long catalogCustomsEpoch = -1;
 
     private ColorDatabase() {
         loadColors();
@@ -70,6 +74,22 @@ public class ColorDatabase {
         return Collections.unmodifiableMap(fadeDyes);
     }
 
+    /**
+     * Columnar snapshot of target colors, fade dyes and the current custom colors.
+     * Rebuilt lazily when the custom color epoch moves; compare by identity to detect changes.
+     */
+    public ColorCatalog getCatalog() {
+        ClothConfig config = ClothConfig.getInstance();
+        long customsEpoch = config.getEpochs().customs();
+        ColorCatalog current = catalog;
+        if (current == null || catalogCustomsEpoch != customsEpoch) {
+            current = ColorCatalog.build(targetColors, fadeDyes, new LinkedHashMap<>(config.getCustomColors()));
+            catalog = current;
+            catalogCustomsEpoch = customsEpoch;
+        }
+        return current;
+    }
+
     public boolean isFadeDye(String colorName) {
         for (String fadeName : fadeDyeNames) {
             if (colorName.startsWith(fadeName + " - Stage")) {
@@ -80,6 +100,10 @@ public class ColorDatabase {
     }
 
     public ColorMath.LAB getLabForHex(String hex) {
+        // Once the full LAB table is built it's a plain memory read, no need to memoize by String
+        if (LabTable.getInstance().isReady()) {
+            return ColorMath.hexToLab(hex);
+        }
         return labCache.computeIfAbsent(hex.toUpperCase(), ColorMath::hexToLab);
     }
 
@@ -0,0 +1,7 @@
+package schnerry.seymouranalyzer.data;
+
+/**
+ * An owned piece found by a color query, with its ΔE (CIE76) to the queried color
+ */
+public record NearbyPiece(ArmorPiece piece, double deltaE) {
+}
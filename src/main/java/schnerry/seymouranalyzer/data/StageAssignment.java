@@ -0,0 +1,208 @@
+package schnerry.seymouranalyzer.data;
+
+import schnerry.seymouranalyzer.SeymourAnalyzer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Assigns owned pieces to the stages of one checklist category x slot: each stage gets at most one
+ * piece and each piece at most one stage.
+ * <p>
+ * Solved exactly as a min-cost assignment over the sparse candidate graph (only stage/piece pairs the
+ * caller lists are edges) by successive shortest paths: stages are added one at a time, each along the
+ * cheapest augmenting path (Dijkstra on reduced costs). Every stage also has a private "left empty"
+ * option, so not filling a stage is just another choice. Costs are ordered so that filling more needed
+ * stages beats filling more stages overall, which beats a lower total ΔE. If the time budget runs out
+ * the greedy pass (needed stages first, then best ΔE) is returned instead.
+ */
+public final class StageAssignment {
+    private static final double MAX_DELTA_E = 6.0; // above any candidate's ΔE
+
+    private StageAssignment() {
+    }
+
+    /**
+     * A piece that may fill a stage
+     *
+     * @param piece caller's index for the piece, 0..pieceCount-1
+     */
+    public record Candidate(int stage, int piece, double deltaE) {
+    }
+
+    /**
+     * @param needed      whether each stage actually needs this slot (its length is the stage count)
+     * @param budgetNanos give up on the exact solution after this long and fall back to {@link #greedy}
+     * @return the piece index for each stage, -1 where the stage stays empty
+     */
+    public static int[] solve(boolean[] needed, int pieceCount, List<Candidate> candidates, long budgetNanos) {
+        long deadline = System.nanoTime() + budgetNanos;
+        int stages = needed.length;
+        if (stages == 0 || candidates.isEmpty()) return empty(stages);
+
+        // Edge costs, shifted so they're all non-negative (every stage takes exactly one edge, so a
+        // constant shift doesn't change which assignment is cheapest):
+        //   filled needed stage:   ΔE
+        //   filled unneeded stage: ΔE + neededBonus
+        //   empty stage:           fillBonus + neededBonus
+        // fillBonus outweighs any ΔE total and neededBonus outweighs any number of filled stages.
+        double fillBonus = MAX_DELTA_E * (stages + 1);
+        double neededBonus = fillBonus * (stages + 1);
+        double emptyCost = fillBonus + neededBonus;
+
+        // Right side: pieces 0..pieceCount-1, then one "empty" node per stage
+        int rights = pieceCount + stages;
+        List<List<Candidate>> edges = new ArrayList<>(stages);
+        for (int s = 0; s < stages; s++) edges.add(new ArrayList<>());
+        for (Candidate candidate : candidates) edges.get(candidate.stage()).add(candidate);
+
+        double[] potentialL = new double[stages];
+        double[] potentialR = new double[rights];
+        int[] matchL = new int[stages];
+        double[] matchCost = new double[stages]; // cost of the edge each stage is matched along
+        int[] matchR = new int[rights];
+        Arrays.fill(matchL, -1);
+        Arrays.fill(matchR, -1);
+
+        // Dijkstra state over stages (0..stages-1) and rights (stages..stages+rights-1), reset per round
+        double[] dist = new double[stages + rights];
+        int[] prevStage = new int[rights]; // stage a right node was reached from
+        double[] prevCost = new double[rights]; // and the cost of that edge
+        boolean[] done = new boolean[stages + rights];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        List<Integer> touched = new ArrayList<>();
+        PriorityQueue<double[]> queue = new PriorityQueue<>(Comparator.comparingDouble(e -> e[0]));
+
+        for (int start = 0; start < stages; start++) {
+            if (System.nanoTime() > deadline) {
+                SeymourAnalyzer.LOGGER.debug("Stage assignment for {} stages / {} candidates ran over budget, using greedy",
+                    stages, candidates.size());
+                return greedy(needed, pieceCount, candidates);
+            }
+
+            queue.clear();
+            dist[start] = 0;
+            touched.add(start);
+            queue.add(new double[]{0, start});
+            int target = -1;
+
+            while (!queue.isEmpty()) {
+                double[] top = queue.poll();
+                int node = (int) top[1];
+                if (done[node] || top[0] > dist[node]) continue;
+                done[node] = true;
+
+                if (node < stages) {
+                    // Stage: try each of its pieces and its own empty node
+                    int s = node;
+                    for (Candidate candidate : edges.get(s)) {
+                        double cost = candidate.deltaE() + (needed[s] ? 0 : neededBonus);
+                        relax(s, candidate.piece(), cost, stages, potentialL, potentialR, matchL, dist, done, prevStage, prevCost, touched, queue);
+                    }
+                    relax(s, pieceCount + s, emptyCost, stages, potentialL, potentialR, matchL, dist, done, prevStage, prevCost, touched, queue);
+                } else {
+                    int r = node - stages;
+                    int owner = matchR[r];
+                    if (owner < 0) {
+                        target = r; // nearest free right node
+                        break;
+                    }
+                    // Matched right: the only way on is back along its matched edge (reduced cost 0)
+                    double d = dist[node] + potentialR[r] - potentialL[owner] - matchCost[owner];
+                    if (!done[owner] && d < dist[owner]) {
+                        if (dist[owner] == Double.POSITIVE_INFINITY) touched.add(owner);
+                        dist[owner] = d;
+                        queue.add(new double[]{d, owner});
+                    }
+                }
+            }
+
+            // Potentials: pull every node settled closer than the target in by the difference, which keeps
+            // all reduced costs non-negative and makes the augmenting path tight
+            double targetDist = dist[stages + target];
+            for (int node : touched) {
+                if (done[node] && dist[node] < targetDist) {
+                    double shift = targetDist - dist[node];
+                    if (node < stages) potentialL[node] -= shift;
+                    else potentialR[node - stages] -= shift;
+                }
+            }
+
+            // Augment along the path back to the new stage
+            int r = target;
+            while (true) {
+                int s = prevStage[r];
+                int previous = matchL[s];
+                matchL[s] = r;
+                matchCost[s] = prevCost[r];
+                matchR[r] = s;
+                if (s == start) break;
+                r = previous;
+            }
+
+            for (int node : touched) {
+                dist[node] = Double.POSITIVE_INFINITY;
+                done[node] = false;
+            }
+            touched.clear();
+        }
+
+        int[] result = new int[stages];
+        for (int s = 0; s < stages; s++) {
+            result[s] = matchL[s] < pieceCount ? matchL[s] : -1;
+        }
+        return result;
+    }
+
+    /**
+     * Needed stages first, then best ΔE; each candidate is taken if neither its stage nor its piece is used yet
+     *
+     * @return the piece index for each stage, -1 where the stage stays empty
+     */
+    public static int[] greedy(boolean[] needed, int pieceCount, List<Candidate> candidates) {
+        List<Candidate> sorted = new ArrayList<>(candidates);
+        sorted.sort((a, b) -> {
+            if (needed[a.stage()] != needed[b.stage()]) {
+                return needed[a.stage()] ? -1 : 1;
+            }
+            int byDeltaE = Double.compare(a.deltaE(), b.deltaE());
+            if (byDeltaE != 0) return byDeltaE;
+            return a.piece() != b.piece() ? Integer.compare(a.piece(), b.piece()) : Integer.compare(a.stage(), b.stage());
+        });
+
+        int[] result = empty(needed.length);
+        boolean[] usedPieces = new boolean[pieceCount];
+        for (Candidate candidate : sorted) {
+            if (!usedPieces[candidate.piece()] && result[candidate.stage()] < 0) {
+                result[candidate.stage()] = candidate.piece();
+                usedPieces[candidate.piece()] = true;
+            }
+        }
+        return result;
+    }
+
+    private static void relax(int s, int r, double cost, int stages, double[] potentialL, double[] potentialR,
+                              int[] matchL, double[] dist, boolean[] done, int[] prevStage, double[] prevCost,
+                              List<Integer> touched, PriorityQueue<double[]> queue) {
+        if (matchL[s] == r) return; // already matched along this edge; it's only usable backwards
+        int node = stages + r;
+        if (done[node]) return; // settled; rounding must not re-route its path (the augment walk relies on it)
+        double d = dist[s] + cost + potentialL[s] - potentialR[r];
+        if (d < dist[node]) {
+            if (dist[node] == Double.POSITIVE_INFINITY) touched.add(node);
+            dist[node] = d;
+            prevStage[r] = s;
+            prevCost[r] = cost;
+            queue.add(new double[]{d, node});
+        }
+    }
+
+    private static int[] empty(int stages) {
+        int[] result = new int[stages];
+        Arrays.fill(result, -1);
+        return result;
+    }
+}
@@ -7,8 +7,10 @@ import net.minecraft.world.item.Item;
 import net.minecraft.world.item.component.DyedItemColor;
 import schnerry.seymouranalyzer.config.ClothConfig;
 import schnerry.seymouranalyzer.config.MatchPriority;
+import schnerry.seymouranalyzer.data.ColorCatalog;
 import schnerry.seymouranalyzer.data.ColorDatabase;
 import schnerry.seymouranalyzer.util.ColorMath;
+import schnerry.seymouranalyzer.util.DeltaEMetric;
 
 import java.util.*;
 
@@ -60,6 +62,7 @@ public class GamblingRoller {
 
     private static final Map<Integer, RollColor> ROLL_COLOR_MAP = new HashMap<>();
     private static final double PRIORITY_DELTA_E_WINDOW = 0.75;
+    private static final ThreadLocal<float[]> DIST_BUFFER = ThreadLocal.withInitial(() -> new float[0]);
 
     public static List<ItemStack> buildRollStrip(int count, int winnerIndex) {
         return buildRollStrip(count, winnerIndex, -1, null);
@@ -119,16 +122,36 @@ public class GamblingRoller {
     private record MatchCandidate(String name, String hex, double deltaE, boolean isFade) {}
 
     private static RollColor classifyRandomColor(int rgb, boolean detailed) {
-        String hex = String.format("%06X", rgb & 0xFFFFFF);
-        ColorDatabase db = ColorDatabase.getInstance();
+        String hex = ColorMath.toHex(rgb);
+        ColorCatalog catalog = ColorDatabase.getInstance().getCatalog();
         ClothConfig config = ClothConfig.getInstance();
-        ColorMath.LAB itemLab = db.getLabForHex(hex);
+        double[] itemLab = new double[3];
+        ColorMath.labInto(rgb, itemLab);
+
+        // One pass over the contiguous normal + fade columns, then cheap argmins per range
+        int to = config.isFadeDyesEnabled() ? catalog.end(ColorCatalog.FADE) : catalog.end(ColorCatalog.NORMAL);
+        float[] distSq = DIST_BUFFER.get();
+        if (distSq.length < catalog.size()) {
+            distSq = new float[catalog.size()];
+            DIST_BUFFER.set(distSq);
+        }
+        catalog.distancesSq(itemLab[0], itemLab[1], itemLab[2], catalog.start(ColorCatalog.NORMAL), to, distSq);
+
+        DeltaEMetric metric = config.getDeltaEMetric();
+        if (metric != DeltaEMetric.CIE76) {
+            // Rolls are classified once per strip, so just rescore every entry under the chosen metric
+            double c = Math.sqrt(itemLab[1] * itemLab[1] + itemLab[2] * itemLab[2]);
+            for (int i = catalog.start(ColorCatalog.NORMAL); i < to; i++) {
+                double deltaE = catalog.deltaE(metric, i, itemLab[0], itemLab[1], itemLab[2], c);
+                distSq[i] = (float) (deltaE * deltaE);
+            }
+        }
 
-        MatchCandidate bestNormal = findBestMatch(itemLab, db.getTargetColors(), false);
+        MatchCandidate bestNormal = findBestMatch(catalog, distSq, ColorCatalog.NORMAL, false);
 
         MatchCandidate bestFade = null;
         if (config.isFadeDyesEnabled()) {
-            bestFade = findBestMatch(itemLab, db.getFadeDyes(), true);
+            bestFade = findBestMatch(catalog, distSq, ColorCatalog.FADE, true);
         }
 
         MatchCandidate chosen = chooseBestCandidate(bestNormal, bestFade);
@@ -141,7 +164,7 @@ public class GamblingRoller {
 
         List<GamblingMatch> topMatches;
         if (detailed) {
-            topMatches = findTopMatches(itemLab, db, config, 3);
+            topMatches = findTopMatches(catalog, distSq, to, 3);
         } else {
             topMatches = List.of(new GamblingMatch(
                     chosen.name, chosen.hex, chosen.deltaE, chosen.isFade, tier
@@ -151,24 +174,17 @@ public class GamblingRoller {
         return new RollColor(rgb, "#" + hex, chosen.name, tier, topMatches);
     }
 
-    private static MatchCandidate findBestMatch(ColorMath.LAB itemLab,
-                                                 Map<String, String> colorMap,
-                                                 boolean isFade) {
-        ColorDatabase db = ColorDatabase.getInstance();
-        MatchCandidate best = null;
-
-        for (Map.Entry<String, String> entry : colorMap.entrySet()) {
-            String name = entry.getKey();
-            String targetHex = entry.getValue();
-            ColorMath.LAB targetLab = db.getLabForHex(targetHex);
-            double deltaE = ColorMath.calculateDeltaEWithLab(itemLab, targetLab);
-
-            if (best == null || deltaE < best.deltaE) {
-                best = new MatchCandidate(name, targetHex, deltaE, isFade);
+    private static MatchCandidate findBestMatch(ColorCatalog catalog, float[] distSq,
+                                                 int category, boolean isFade) {
+        int best = -1;
+        for (int i = catalog.start(category), end = catalog.end(category); i < end; i++) {
+            if (best < 0 || distSq[i] < distSq[best]) {
+                best = i;
             }
         }
 
-        return best;
+        if (best < 0) return null;
+        return new MatchCandidate(catalog.name(best), catalog.hex(best), Math.sqrt(distSq[best]), isFade);
     }
 
     private static MatchCandidate chooseBestCandidate(MatchCandidate normal, MatchCandidate fade) {
@@ -213,42 +229,43 @@ public class GamblingRoller {
         return normal.deltaE <= fade.deltaE ? normal : fade;
     }
 
-    private static List<GamblingMatch> findTopMatches(ColorMath.LAB itemLab,
-                                                       ColorDatabase db,
-                                                       ClothConfig config,
-                                                       int count) {
-        List<GamblingMatch> all = new ArrayList<>();
-
-        for (Map.Entry<String, String> entry : db.getTargetColors().entrySet()) {
-            ColorMath.LAB targetLab = db.getLabForHex(entry.getValue());
-            double deltaE = ColorMath.calculateDeltaEWithLab(itemLab, targetLab);
-            Tier tier = tierFromDeltaE(deltaE, false);
-            all.add(new GamblingMatch(entry.getKey(), entry.getValue(), deltaE, false, tier));
-        }
-
-        if (config.isFadeDyesEnabled()) {
-            for (Map.Entry<String, String> entry : db.getFadeDyes().entrySet()) {
-                ColorMath.LAB targetLab = db.getLabForHex(entry.getValue());
-                double deltaE = ColorMath.calculateDeltaEWithLab(itemLab, targetLab);
-                Tier tier = tierFromDeltaE(deltaE, true);
-                all.add(new GamblingMatch(entry.getKey(), entry.getValue(), deltaE, true, tier));
+    /**
+     * Closest count entries in [NORMAL start, to), ordered by ΔE with ties kept in catalog order
+     */
+    private static List<GamblingMatch> findTopMatches(ColorCatalog catalog, float[] distSq, int to, int count) {
+        int[] top = new int[count];
+        int size = 0;
+        for (int i = catalog.start(ColorCatalog.NORMAL); i < to; i++) {
+            if (size == count && distSq[i] >= distSq[top[size - 1]]) continue;
+            int pos = size < count ? size++ : size - 1;
+            while (pos > 0 && distSq[top[pos - 1]] > distSq[i]) {
+                top[pos] = top[pos - 1];
+                pos--;
             }
+            top[pos] = i;
         }
 
-        all.sort(Comparator.comparingDouble(GamblingMatch::deltaE));
-        return all.stream().limit(count).toList();
+        List<GamblingMatch> result = new ArrayList<>(size);
+        for (int n = 0; n < size; n++) {
+            int i = top[n];
+            boolean isFade = catalog.category(i) == ColorCatalog.FADE;
+            double deltaE = Math.sqrt(distSq[i]);
+            result.add(new GamblingMatch(catalog.name(i), catalog.hex(i), deltaE, isFade, tierFromDeltaE(deltaE, isFade)));
+        }
+        return result;
     }
 
     private static Tier tierFromDeltaE(double deltaE, boolean isFade) {
+        int tier = ClothConfig.getInstance().getDeltaEMetric().tierOf(deltaE);
         if (!isFade) {
             if (deltaE < 0.01) return Tier.ONE_OF_ONE;
-            if (deltaE <= 1.0)  return Tier.T0;
-            if (deltaE <= 2.0)  return Tier.T1;
-            if (deltaE <= 5.0)  return Tier.T2;
+            if (tier == 0) return Tier.T0;
+            if (tier == 1) return Tier.T1;
+            if (tier == 2) return Tier.T2;
         } else {
-            if (deltaE <= 1.0)  return Tier.FADE_T0;
-            if (deltaE <= 2.0)  return Tier.FADE_T1;
-            if (deltaE <= 5.0)  return Tier.FADE_T2;
+            if (tier == 0) return Tier.FADE_T0;
+            if (tier == 1) return Tier.FADE_T1;
+            if (tier == 2) return Tier.FADE_T2;
         }
         return Tier.T3;
     }
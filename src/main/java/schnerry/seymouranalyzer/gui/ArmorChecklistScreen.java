@@ -15,6 +15,7 @@ import schnerry.seymouranalyzer.config.ClothConfig;
 import schnerry.seymouranalyzer.data.ArmorPiece;
 import schnerry.seymouranalyzer.data.ChecklistCache;
 import schnerry.seymouranalyzer.data.CollectionManager;
+import schnerry.seymouranalyzer.data.StageAssignment;
 import schnerry.seymouranalyzer.util.ColorMath;
 import schnerry.seymouranalyzer.util.PieceTypeUtil;
 
@@ -37,6 +38,7 @@ public class ArmorChecklistScreen extends ModScreen {
     private static final int ROW_HEIGHT = 30;
     private static final int START_Y = 70;
     private static final int BOTTOM_MARGIN = 95; // Reserved px at bottom for page buttons + fixed buttons
+    private static final long SOLVE_BUDGET_NANOS = 50_000_000L; // per piece type, then StageAssignment falls back to greedy
 
     // Mode toggles
     private boolean fadeDyeMode = false;
@@ -48,8 +50,8 @@ public class ArmorChecklistScreen extends ModScreen {
     // Context menu
     private ContextMenu contextMenu = null;
 
-    // Flag to track when custom colors need reloading
-    private static boolean customColorsNeedReload = false;
+    // Custom color epoch the Custom category was last loaded from
+    private long loadedCustomsEpoch = -1;
 
     // Remember position state (static = persists between opens)
     @Setter
@@ -81,10 +83,8 @@ public class ArmorChecklistScreen extends ModScreen {
         super(Component.literal("Armor Set Checklist"), parent);
         loadChecklistData();
 
-        // Check if cache needs invalidation (collection size changed)
-        ChecklistCache cache = ChecklistCache.getInstance();
-        Map<String, ArmorPiece> collection = CollectionManager.getInstance().getCollection();
-        cache.checkAndInvalidate(collection.size());
+        // Check if cache needs invalidation (collection changed since it was built)
+        ChecklistCache.getInstance().checkAndInvalidate(CollectionManager.getInstance().getFingerprint());
 
         // Restore pinned page/mode before calculating matches
         if (rememberPage) {
@@ -98,13 +98,6 @@ public class ArmorChecklistScreen extends ModScreen {
         calculateOptimalMatches();
     }
 
-    /**
-     * Call this method when custom colors are added or removed to reload the Custom category
-     */
-    public static void markCustomColorsForReload() {
-        customColorsNeedReload = true;
-    }
-
     private void loadChecklistData() {
         try {
             InputStream inputStream = SeymourAnalyzer.class.getResourceAsStream("/data/seymouranalyzer/checklistdata.json");
@@ -252,6 +245,7 @@ public class ArmorChecklistScreen extends ModScreen {
     private void loadCustomColors() {
         try {
             ClothConfig config = ClothConfig.getInstance();
+            loadedCustomsEpoch = config.getEpochs().customs();
             Map<String, String> customColors = config.getCustomColors();
 
             // Remove existing Custom category if it exists (for reload support)
@@ -306,7 +300,7 @@ public class ArmorChecklistScreen extends ModScreen {
      * Reload custom colors if they were modified
      */
     private void reloadCustomColorsIfNeeded() {
-        if (customColorsNeedReload) {
+        if (ClothConfig.getInstance().getEpochs().customs() != loadedCustomsEpoch) {
             loadCustomColors();
 
             // Update page order
@@ -320,7 +314,6 @@ public class ArmorChecklistScreen extends ModScreen {
                 }
             }
 
-            customColorsNeedReload = false;
             SeymourAnalyzer.LOGGER.info("Reloaded custom colors in checklist GUI");
         }
     }
@@ -407,11 +400,7 @@ public class ArmorChecklistScreen extends ModScreen {
                 return; // Cache hit, no need to recalculate
             } else {
                 // Cache invalid, clear it for this category
-                if (fadeDyeMode) {
-                    cache.getFadeDyeOptimalCache().remove(currentCategory);
-                } else {
-                    cache.getNormalColorCache().remove(currentCategory);
-                }
+                cache.removeCategory(currentCategory, fadeDyeMode);
                 SeymourAnalyzer.LOGGER.info("Cache cleared for category {} due to hex value changes", currentCategory);
             }
         }
@@ -424,17 +413,24 @@ public class ArmorChecklistScreen extends ModScreen {
         categoryCache.category = currentCategory;
         categoryCache.isCalculating = true;
 
-        // For each piece type, build a list of all candidates across all stages
+        // Snapshot the collection with pieces numbered in uuid order, so exact ties settle the same way every time
+        TreeMap<String, ArmorPiece> pieces = new TreeMap<>(collection);
+        List<String> uuids = new ArrayList<>(pieces.keySet());
+        Map<String, Integer> pieceIndex = new HashMap<>();
+        for (int i = 0; i < uuids.size(); i++) pieceIndex.put(uuids.get(i), i);
 
+        // For each piece type, build a list of all candidates across all stages
         for (String pieceType : PieceTypeUtil.pieceTypes) {
-            List<CandidateMatch> candidates = new ArrayList<>();
+            List<StageAssignment.Candidate> candidates = new ArrayList<>();
+            boolean[] needed = new boolean[entries.size()];
 
             // Build candidate list for ALL entries (not just those that need this piece type)
             for (int stageIdx = 0; stageIdx < entries.size(); stageIdx++) {
                 ChecklistEntry entry = entries.get(stageIdx);
+                needed[stageIdx] = entry.pieces.contains(pieceType);
 
                 // Find all matching pieces for this stage and piece type
-                for (Map.Entry<String, ArmorPiece> collectionEntry : collection.entrySet()) {
+                for (Map.Entry<String, ArmorPiece> collectionEntry : pieces.entrySet()) {
                     String uuid = collectionEntry.getKey();
                     ArmorPiece piece = collectionEntry.getValue();
                     String pieceName = piece.getPieceName().toLowerCase();
@@ -453,37 +449,23 @@ public class ArmorChecklistScreen extends ModScreen {
                     if (typeMatches) {
                         double deltaE = ColorMath.calculateDeltaE(entry.hex, piece.getHexcode());
                         if (deltaE <= 5.0) {
-                            // Mark if this piece is actually needed for this entry
-                            boolean isNeeded = entry.pieces.contains(pieceType);
-                            candidates.add(new CandidateMatch(stageIdx, uuid, piece, deltaE, isNeeded));
+                            candidates.add(new StageAssignment.Candidate(stageIdx, pieceIndex.get(uuid), deltaE));
                         }
                     }
                 }
             }
 
-            // Sort candidates: first by priority (needed pieces first), then by deltaE
-            candidates.sort((a, b) -> {
-                if (a.isNeeded != b.isNeeded) {
-                    return a.isNeeded ? -1 : 1; // Needed pieces first
-                }
-                return Double.compare(a.deltaE, b.deltaE); // Then by quality
-            });
-
-            // Greedy assignment: assign each piece to the best available stage
-            Set<String> usedPieces = new HashSet<>();
-            Set<Integer> assignedStages = new HashSet<>();
-
-            for (CandidateMatch candidate : candidates) {
-                String uuid = candidate.uuid;
-
-                if (!usedPieces.contains(uuid) && !assignedStages.contains(candidate.stageIndex)) {
-                    // Assign this piece to this stage
-                    ChecklistEntry targetEntry = entries.get(candidate.stageIndex);
-                    targetEntry.foundPieces.put(pieceType, candidate.piece);
-                    targetEntry.foundPieceUuids.put(pieceType, uuid);
-                    usedPieces.add(uuid);
-                    assignedStages.add(candidate.stageIndex);
-                }
+            // Most needed stages filled, then most stages filled, then lowest total deltaE
+            candidates.sort(Comparator.comparingInt(StageAssignment.Candidate::stage)
+                .thenComparingInt(StageAssignment.Candidate::piece));
+            int[] assigned = StageAssignment.solve(needed, uuids.size(), candidates, SOLVE_BUDGET_NANOS);
+
+            for (int stageIdx = 0; stageIdx < assigned.length; stageIdx++) {
+                if (assigned[stageIdx] < 0) continue;
+                String uuid = uuids.get(assigned[stageIdx]);
+                ChecklistEntry targetEntry = entries.get(stageIdx);
+                targetEntry.foundPieces.put(pieceType, pieces.get(uuid));
+                targetEntry.foundPieceUuids.put(pieceType, uuid);
             }
         }
 
@@ -556,23 +538,6 @@ public class ArmorChecklistScreen extends ModScreen {
         SeymourAnalyzer.LOGGER.info("Cached optimal matches for category: {}", currentCategory);
     }
 
-    // Helper class for optimal matching
-    private static class CandidateMatch {
-        int stageIndex;
-        String uuid;
-        ArmorPiece piece;
-        double deltaE;
-        boolean isNeeded; // True if this piece type is actually needed for this stage
-
-        CandidateMatch(int stageIndex, String uuid, ArmorPiece piece, double deltaE, boolean isNeeded) {
-            this.stageIndex = stageIndex;
-            this.uuid = uuid;
-            this.piece = piece;
-            this.deltaE = deltaE;
-            this.isNeeded = isNeeded;
-        }
-    }
-
     @Override
     protected void init() {
         super.init();
@@ -33,27 +33,20 @@ public class BestSetsScreen extends ModScreen {
     private int scrollOffset = 0;
     private ContextMenu contextMenu = null;
 
-    // Static cache to persist results across GUI opens/closes
+    // Static cache to persist results across GUI opens/closes, valid while the collection fingerprint matches
     private static List<ArmorSet> cachedBestSets = null;
-    private static int cachedCollectionSize = -1;
-    private static long cacheTimestamp = 0;
+    private static long cachedFingerprint = 0;
 
     private static final int MAX_SETS = 100;
     private static final double MAX_DELTA_E = 5.0;
     private static final int ROW_HEIGHT = 80;
     private static final int START_Y = 90;
-    private static final long CACHE_VALIDITY_MS = 300000; // 5 minutes
 
     public BestSetsScreen(Screen parent) {
         super(Component.literal("Best Matching Sets"), parent);
 
         // Load from cache if valid
-        int currentSize = CollectionManager.getInstance().getCollection().size();
-        long currentTime = System.currentTimeMillis();
-
-        if (cachedBestSets != null &&
-            cachedCollectionSize == currentSize &&
-            (currentTime - cacheTimestamp) < CACHE_VALIDITY_MS) {
+        if (cachedBestSets != null && cachedFingerprint == CollectionManager.getInstance().getFingerprint()) {
             bestSets = new ArrayList<>(cachedBestSets);
             SeymourAnalyzer.LOGGER.info("[Best Sets] Loaded {} sets from cache", bestSets.size());
         }
@@ -158,20 +151,16 @@ public class BestSetsScreen extends ModScreen {
         int boxY = rowY + 15;
         int boxSize = 24;
 
-        ColorMath.RGB helmetRgb = ColorMath.hexToRgb(set.helmet.getHexcode());
-        ColorMath.RGB chestRgb = ColorMath.hexToRgb(set.chestplate.getHexcode());
-        ColorMath.RGB legsRgb = ColorMath.hexToRgb(set.leggings.getHexcode());
-        ColorMath.RGB bootsRgb = ColorMath.hexToRgb(set.boots.getHexcode());
+        int helmetRgb = ColorMath.parseRgb(set.helmet.getHexcode());
+        int chestRgb = ColorMath.parseRgb(set.chestplate.getHexcode());
+        int legsRgb = ColorMath.parseRgb(set.leggings.getHexcode());
+        int bootsRgb = ColorMath.parseRgb(set.boots.getHexcode());
 
         // Draw color boxes
-        guiGraphics.fill(boxX, boxY, boxX + boxSize, boxY + boxSize,
-            0xFF000000 | (helmetRgb.r() << 16) | (helmetRgb.g() << 8) | helmetRgb.b());
-        guiGraphics.fill(boxX + boxSize, boxY, boxX + boxSize * 2, boxY + boxSize,
-            0xFF000000 | (chestRgb.r() << 16) | (chestRgb.g() << 8) | chestRgb.b());
-        guiGraphics.fill(boxX, boxY + boxSize, boxX + boxSize, boxY + boxSize * 2,
-            0xFF000000 | (legsRgb.r() << 16) | (legsRgb.g() << 8) | legsRgb.b());
-        guiGraphics.fill(boxX + boxSize, boxY + boxSize, boxX + boxSize * 2, boxY + boxSize * 2,
-            0xFF000000 | (bootsRgb.r() << 16) | (bootsRgb.g() << 8) | bootsRgb.b());
+        guiGraphics.fill(boxX, boxY, boxX + boxSize, boxY + boxSize, 0xFF000000 | helmetRgb);
+        guiGraphics.fill(boxX + boxSize, boxY, boxX + boxSize * 2, boxY + boxSize, 0xFF000000 | chestRgb);
+        guiGraphics.fill(boxX, boxY + boxSize, boxX + boxSize, boxY + boxSize * 2, 0xFF000000 | legsRgb);
+        guiGraphics.fill(boxX + boxSize, boxY + boxSize, boxX + boxSize * 2, boxY + boxSize * 2, 0xFF000000 | bootsRgb);
 
         // Border around 2x2 grid
         int totalBoxSize = boxSize * 2;
@@ -208,8 +197,8 @@ public class BestSetsScreen extends ModScreen {
         guiGraphics.text(this.font, "§7Worst: §c" + set.worstPieceType, 770, rowY + 36, 0xFFFFFFFF);
 
         // Average hex swatches
-        ColorMath.RGB avgRgb = ColorMath.hexToRgb(set.avgHex);
-        ColorMath.RGB top3Rgb = ColorMath.hexToRgb(set.top3AvgHex);
+        int avgRgb = ColorMath.parseRgb(set.avgHex);
+        int top3Rgb = ColorMath.parseRgb(set.top3AvgHex);
         int swatchSize = 8;
         int swatchX = 770;
         int avgSwatchY = rowY + 50;
@@ -217,12 +206,12 @@ public class BestSetsScreen extends ModScreen {
 
         // All 4 avg hex
         guiGraphics.fill(swatchX, avgSwatchY, swatchX + swatchSize, avgSwatchY + swatchSize,
-            0xFF000000 | (avgRgb.r() << 16) | (avgRgb.g() << 8) | avgRgb.b());
+            0xFF000000 | avgRgb);
         guiGraphics.text(this.font, "§7Avg: §f#" + set.avgHex, swatchX + swatchSize + 3, avgSwatchY, 0xFFFFFFFF);
 
         // Top 3 avg hex
         guiGraphics.fill(swatchX, top3SwatchY, swatchX + swatchSize, top3SwatchY + swatchSize,
-            0xFF000000 | (top3Rgb.r() << 16) | (top3Rgb.g() << 8) | top3Rgb.b());
+            0xFF000000 | top3Rgb);
         guiGraphics.text(this.font, "§7Top3: §f#" + set.top3AvgHex, swatchX + swatchSize + 3, top3SwatchY, 0xFFFFFFFF);
 
         // Separator line
@@ -371,7 +360,10 @@ public class BestSetsScreen extends ModScreen {
         long startTime = System.currentTimeMillis();
 
         // Categorize pieces by type
-        Map<String, ArmorPiece> collection = CollectionManager.getInstance().getCollection();
+        CollectionManager manager = CollectionManager.getInstance();
+        long fingerprint = manager.getFingerprint();
+        long modCount = manager.getModCount();
+        Map<String, ArmorPiece> collection = manager.getCollection();
 
         List<PieceWithLab> helmets = new ArrayList<>();
         List<PieceWithLab> chestplates = new ArrayList<>();
@@ -382,7 +374,8 @@ public class BestSetsScreen extends ModScreen {
 
         // Pre-calculate LAB values for ALL pieces (huge optimization - done once instead of 6x per set)
         for (ArmorPiece piece : collection.values()) {
-            if (piece.getHexcode() == null || piece.getPieceName() == null) continue;
+            // Malformed hexcodes parse to -1 and would otherwise be treated as black
+            if (piece.getRgb() < 0 || piece.getPieceName() == null) continue;
 
             String type = PieceTypeUtil.detectPieceType(piece.getPieceName());
             if (type == null) {
@@ -432,7 +425,7 @@ public class BestSetsScreen extends ModScreen {
         helmets.parallelStream().forEach(helmet -> {
             for (PieceWithLab chest : finalChestplates) {
                 // Quick validation - check if helmet-chest pair is within threshold
-                double hcDelta = ColorMath.calculateDeltaEWithLab(helmet.lab, chest.lab);
+                double hcDelta = helmet.deltaE(chest);
                 if (hcDelta > MAX_DELTA_E) {
                     synchronized (processedCombinations) {
                         processedCombinations[0] += (long) finalLeggings.size() * finalBoots.size();
@@ -442,8 +435,8 @@ public class BestSetsScreen extends ModScreen {
 
                 for (PieceWithLab leg : finalLeggings) {
                     // Check if adding legs keeps us within threshold
-                    double hlDelta = ColorMath.calculateDeltaEWithLab(helmet.lab, leg.lab);
-                    double clDelta = ColorMath.calculateDeltaEWithLab(chest.lab, leg.lab);
+                    double hlDelta = helmet.deltaE(leg);
+                    double clDelta = chest.deltaE(leg);
 
                     if (hlDelta > MAX_DELTA_E || clDelta > MAX_DELTA_E) {
                         synchronized (processedCombinations) {
@@ -478,9 +471,9 @@ public class BestSetsScreen extends ModScreen {
                         }
 
                         // Check boots deltas
-                        double hbDelta = ColorMath.calculateDeltaEWithLab(helmet.lab, boot.lab);
-                        double cbDelta = ColorMath.calculateDeltaEWithLab(chest.lab, boot.lab);
-                        double lbDelta = ColorMath.calculateDeltaEWithLab(leg.lab, boot.lab);
+                        double hbDelta = helmet.deltaE(boot);
+                        double cbDelta = chest.deltaE(boot);
+                        double lbDelta = leg.deltaE(boot);
 
                         // All pairwise deltas must be within threshold
                         if (hbDelta > MAX_DELTA_E || cbDelta > MAX_DELTA_E || lbDelta > MAX_DELTA_E) {
@@ -536,10 +529,11 @@ public class BestSetsScreen extends ModScreen {
 
         bestSets = selectedSets;
 
-        // Save to cache
-        cachedBestSets = new ArrayList<>(selectedSets);
-        cachedCollectionSize = collection.size();
-        cacheTimestamp = System.currentTimeMillis();
+        // Save to cache, unless the collection changed while we were reading it
+        if (manager.getModCount() == modCount) {
+            cachedBestSets = new ArrayList<>(selectedSets);
+            cachedFingerprint = fingerprint;
+        }
 
         long endTime = System.currentTimeMillis();
         long totalTimeMs = endTime - startTime;
@@ -557,7 +551,7 @@ public class BestSetsScreen extends ModScreen {
                 // Check if this piece can match with at least one piece from EACH other type
                 for (List<PieceWithLab> otherType : otherTypesLists) {
                     boolean hasMatch = otherType.stream()
-                        .anyMatch(other -> ColorMath.calculateDeltaEWithLab(piece.lab, other.lab) <= MAX_DELTA_E);
+                        .anyMatch(other -> piece.deltaE(other) <= MAX_DELTA_E);
                     if (!hasMatch) {
                         return false; // Can't form a valid set
                     }
@@ -572,11 +566,22 @@ public class BestSetsScreen extends ModScreen {
      */
     private static class PieceWithLab {
         final ArmorPiece piece;
-        final ColorMath.LAB lab;
+        final double L, a, b;
 
         PieceWithLab(ArmorPiece piece) {
             this.piece = piece;
-            this.lab = ColorMath.hexToLab(piece.getHexcode());
+            double[] lab = new double[3];
+            ColorMath.labInto(piece.getRgb(), lab);
+            this.L = lab[0];
+            this.a = lab[1];
+            this.b = lab[2];
+        }
+
+        double deltaE(PieceWithLab other) {
+            double dL = L - other.L;
+            double da = a - other.a;
+            double db = b - other.b;
+            return Math.sqrt(dL * dL + da * da + db * db);
         }
     }
 
@@ -661,18 +666,18 @@ public class BestSetsScreen extends ModScreen {
             int rSum = 0, gSum = 0, bSum = 0;
             int count = 0;
             for (ArmorPiece p : pieces) {
-                if (p == null || p.getHexcode() == null) continue;
-                ColorMath.RGB rgb = ColorMath.hexToRgb(p.getHexcode());
-                rSum += rgb.r();
-                gSum += rgb.g();
-                bSum += rgb.b();
+                int rgb = p == null ? -1 : p.getRgb();
+                if (rgb < 0) continue;
+                rSum += (rgb >> 16) & 0xFF;
+                gSum += (rgb >> 8) & 0xFF;
+                bSum += rgb & 0xFF;
                 count++;
             }
             if (count == 0) return "000000";
             int r = rSum / count;
             int g = gSum / count;
             int b = bSum / count;
-            return String.format("%02X%02X%02X", r, g, b);
+            return ColorMath.toHex((r << 16) | (g << 8) | b);
         }
     }
 
@@ -18,6 +18,7 @@ import schnerry.seymouranalyzer.config.ClothConfig;
 import schnerry.seymouranalyzer.data.ArmorPiece;
 import schnerry.seymouranalyzer.data.CollectionManager;
 import schnerry.seymouranalyzer.data.ColorDatabase;
+import schnerry.seymouranalyzer.data.NearbyPiece;
 import schnerry.seymouranalyzer.util.ColorMath;
 
 import java.util.*;
@@ -424,14 +425,9 @@ public class DatabaseScreen extends ModScreen {
         }
 
         // Calculate tier counts
-        int t1Normal = 0, t1Fade = 0, t2Normal = 0, t2Fade = 0, dupes = 0;
-        Map<String, Integer> hexCounts = new HashMap<>();
+        int t1Normal = 0, t1Fade = 0, t2Normal = 0, t2Fade = 0;
 
         for (ArmorPiece piece : allPieces) {
-            // Count hex occurrences for dupes
-            String hex = piece.getHexcode();
-            hexCounts.put(hex, hexCounts.getOrDefault(hex, 0) + 1);
-
             if (piece.getBestMatch() != null) {
                 double deltaE = piece.getBestMatch().deltaE;
                 boolean isFade = checkFadeDye(piece.getBestMatch().colorName);
@@ -453,12 +449,8 @@ public class DatabaseScreen extends ModScreen {
             }
         }
 
-        // Count actual dupes
-        for (ArmorPiece piece : allPieces) {
-            if (hexCounts.getOrDefault(piece.getHexcode(), 0) > 1) {
-                dupes++;
-            }
-        }
+        // Pieces sharing their hex with another piece, kept up to date by the collection index
+        int dupes = CollectionManager.getInstance().getDuplicatePieceCount();
 
         // Display tier counts (two rows) - calculate total width first, then center
         // Row 1: T1, T2, Dupes
@@ -862,15 +854,10 @@ public class DatabaseScreen extends ModScreen {
 
         // Use cached results if available, otherwise compute and cache
         List<CachedClosePiece> closest = closestDupeCache.computeIfAbsent(piece.getUuid(), uuid -> {
-            return allPieces.stream()
-                .filter(p -> !p.getUuid().equals(uuid) && !p.getHexcode().equalsIgnoreCase(pieceHex))
-                .map(p -> {
-                    double dE = ColorMath.calculateDeltaE(pieceHex, p.getHexcode());
-                    int abs = ColorMath.calculateAbsoluteDistance(pieceHex, p.getHexcode());
-                    return new CachedClosePiece(p, dE, abs);
-                })
-                .sorted(Comparator.comparingDouble(CachedClosePiece::deltaE))
-                .limit(3)
+            int rgb = piece.getRgb();
+            return CollectionManager.getInstance().findNearest(rgb, 3, uuid, p -> p.getRgb() != rgb).stream()
+                .map(nearby -> new CachedClosePiece(nearby.piece(), nearby.deltaE(),
+                    ColorMath.absDistance(rgb, nearby.piece().getRgb())))
                 .collect(Collectors.toList());
         });
 
@@ -1097,14 +1084,9 @@ public class DatabaseScreen extends ModScreen {
 
         // Apply dupes filter first if enabled
         if (showDupesOnly) {
-            Map<String, Integer> hexCounts = new HashMap<>();
-            for (ArmorPiece piece : result) {
-                String hex = piece.getHexcode();
-                hexCounts.put(hex, hexCounts.getOrDefault(hex, 0) + 1);
-            }
-
+            CollectionManager manager = CollectionManager.getInstance();
             result = result.stream()
-                .filter(piece -> hexCounts.getOrDefault(piece.getHexcode(), 0) > 1)
+                .filter(piece -> manager.countWithRgb(piece.getRgb()) > 1)
                 .collect(Collectors.toList());
         }
 
@@ -1196,20 +1178,22 @@ public class DatabaseScreen extends ModScreen {
 
         if (hasActiveHexSearch) {
             final String searchHex = hexSearchText;
+            int searchRgb = ColorMath.parseRgb(searchHex);
+
+            // Only pieces within ΔE 5 can pass, so ask the collection's LAB index for just those
+            Set<ArmorPiece> nearby = new HashSet<>();
+            for (NearbyPiece match : CollectionManager.getInstance().findWithin(searchRgb, 5.0)) {
+                ArmorPiece piece = match.piece();
+                // Cache deltaE and distance for this search (used for sorting)
+                if (!searchHex.equals(piece.getCachedSearchHex())) {
+                    piece.setCachedSearchHex(searchHex);
+                    piece.setCachedSearchDeltaE(match.deltaE());
+                    piece.setCachedSearchDistance(ColorMath.absDistance(searchRgb, piece.getRgb()));
+                }
+                nearby.add(piece);
+            }
             result = result.stream()
-                .filter(piece -> {
-                    // Calculate and cache deltaE and distance for this search
-                    if (!searchHex.equals(piece.getCachedSearchHex())) {
-                        double deltaE = ColorMath.calculateDeltaE(searchHex, piece.getHexcode());
-                        int distance = ColorMath.calculateAbsoluteDistance(searchHex, piece.getHexcode());
-
-                        piece.setCachedSearchHex(searchHex);
-                        piece.setCachedSearchDeltaE(deltaE);
-                        piece.setCachedSearchDistance(distance);
-                    }
-
-                    return piece.getCachedSearchDeltaE() <= 5.0;
-                })
+                .filter(nearby::contains)
                 .collect(Collectors.toList());
 
             // Automatically sort by distance when hex search is active
@@ -15,10 +15,13 @@ import net.minecraft.network.chat.MutableComponent;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.Style;
 import net.minecraft.network.chat.TextColor;
+import schnerry.seymouranalyzer.analyzer.AnalysisCache;
 import schnerry.seymouranalyzer.analyzer.ColorAnalyzer;
 import schnerry.seymouranalyzer.config.ClothConfig;
 import schnerry.seymouranalyzer.data.ArmorPiece;
+import schnerry.seymouranalyzer.data.CollectionEvent;
 import schnerry.seymouranalyzer.data.CollectionManager;
+import schnerry.seymouranalyzer.data.NearbyPiece;
 import schnerry.seymouranalyzer.util.ColorMath;
 import schnerry.seymouranalyzer.util.ItemStackUtils;
 import schnerry.seymouranalyzer.util.StringUtility;
@@ -27,10 +30,10 @@ import net.minecraft.client.Minecraft;
 import org.lwjgl.glfw.GLFW;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 
 /**
  * Adds hex code display to colored leather armor tooltips
@@ -44,15 +47,18 @@ public class HexTooltipRenderer {
     private boolean enabled = true;
 
     /** Cache: hex string → list of 3 closest DB pieces (DbMatch) */
-    private final Map<String, List<DbMatch>> dbCompareCache = new ConcurrentHashMap<>();
+    private final Map<String, DbCompareEntry> dbCompareCache = new ConcurrentHashMap<>();
 
     private record DbMatch(String pieceName, String hexcode, double deltaE, int absoluteDistance) {}
 
+    private record DbCompareEntry(int rgb, List<DbMatch> matches) {}
+
     private HexTooltipRenderer() {
         // Register tooltip callback
         // ItemTooltipCallback signature: getTooltip(ItemStack stack, TooltipContext context, TooltipFlag type, List<Component> lines)
         ItemTooltipCallback.EVENT.register((stack, tooltipContext, tooltipType, lines) ->
             onTooltip(stack, tooltipType, lines));
+        CollectionManager.getInstance().addListener(this::onCollectionChanged);
     }
 
     public static HexTooltipRenderer getInstance() {
@@ -133,7 +139,7 @@ public class HexTooltipRenderer {
             // Use original hex for analysis (so closest match is based on original color)
 
             // Analyze color to get closest match
-            ColorAnalyzer.AnalysisResult analysis = ColorAnalyzer.getInstance().analyzeArmorColor(hexForAnalysis, itemName);
+            ColorAnalyzer.AnalysisResult analysis = AnalysisCache.getInstance().get(hexForAnalysis, itemName);
 
             // Track next insert position so DB compare follows immediately
             int nextInsert = insertIndex + 1;
@@ -240,23 +246,48 @@ public class HexTooltipRenderer {
     private List<DbMatch> getDbCompareMatches(String hex, String pieceType, String selfUuid, Boolean diffOnly) {
         String cacheKey = hex + ":" + (selfUuid != null ? selfUuid : "");
         return dbCompareCache.computeIfAbsent(cacheKey, k -> {
-            Map<String, ArmorPiece> collection = CollectionManager.getInstance().getCollection();
-            if (collection.isEmpty()) return List.of();
+            int rgb = ColorMath.parseRgb(hex);
+            // Exclude same piece type when diffOnly is true
+            Predicate<ArmorPiece> filter = diffOnly != null && diffOnly
+                ? piece -> !pieceType.equals(piece.getPieceName())
+                : null;
 
+            // Self is excluded by UUID
             List<DbMatch> results = new ArrayList<>();
-            for (ArmorPiece piece : collection.values()) {
-                if (piece.getHexcode() == null || piece.getHexcode().isEmpty()) continue;
-                // Exclude self by UUID
-                if (selfUuid != null && selfUuid.equals(piece.getUuid())) continue;
-                // Exclude same piece type when diffOnly is true
-                if (diffOnly != null && diffOnly && pieceType.equals(piece.getPieceName())) continue;
-                double delta = ColorMath.calculateDeltaE(hex, piece.getHexcode());
-                int absDistance = ColorMath.calculateAbsoluteDistance(hex, piece.getHexcode());
-                results.add(new DbMatch(piece.getPieceName(), piece.getHexcode(), delta, absDistance));
+            for (NearbyPiece nearby : CollectionManager.getInstance().findNearest(rgb, 3, selfUuid, filter)) {
+                ArmorPiece piece = nearby.piece();
+                int absDistance = ColorMath.absDistance(rgb, piece.getRgb());
+                results.add(new DbMatch(piece.getPieceName(), piece.getHexcode(), nearby.deltaE(), absDistance));
+            }
+            return new DbCompareEntry(rgb, results);
+        }).matches();
+    }
+
+    /**
+     * Drop only the cached DB compare results a collection change can affect
+     */
+    private void onCollectionChanged(List<CollectionEvent> events) {
+        for (CollectionEvent event : events) {
+            switch (event) {
+                case CollectionEvent.PieceAdded added -> invalidateDbCacheNear(added.piece());
+                case CollectionEvent.PieceRemoved removed -> invalidateDbCacheNear(removed.piece());
+                case CollectionEvent.Cleared cleared -> dbCompareCache.clear();
+                default -> {
+                    // Moves and re-analysis don't change colors or names
+                }
             }
-            results.sort(Comparator.comparingDouble(DbMatch::deltaE));
-            return results.stream().limit(3).toList();
-        });
+        }
+    }
+
+    /**
+     * An added or removed piece can only change an entry's top 3 if it's no further away than the
+     * entry's furthest match, or if the entry had fewer than 3 matches to begin with
+     */
+    private void invalidateDbCacheNear(ArmorPiece piece) {
+        int rgb = piece.getRgb();
+        if (rgb < 0) return;
+        dbCompareCache.values().removeIf(entry -> entry.matches().size() < 3
+            || ColorMath.deltaE(entry.rgb(), rgb) <= entry.matches().getLast().deltaE());
     }
 
     /**
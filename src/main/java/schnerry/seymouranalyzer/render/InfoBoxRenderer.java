@@ -8,12 +8,16 @@ import net.minecraft.client.gui.screens.Screen;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.network.chat.Component;
 import org.lwjgl.glfw.GLFW;
+import schnerry.seymouranalyzer.analyzer.AnalysisCache;
 import schnerry.seymouranalyzer.analyzer.ColorAnalyzer;
 import schnerry.seymouranalyzer.analyzer.PatternDetector;
+import schnerry.seymouranalyzer.analyzer.VerdictTable;
 import schnerry.seymouranalyzer.config.ClothConfig;
 import schnerry.seymouranalyzer.data.ArmorPiece;
 import schnerry.seymouranalyzer.data.ChecklistCache;
+import schnerry.seymouranalyzer.data.CollectionEvent;
 import schnerry.seymouranalyzer.data.CollectionManager;
+import schnerry.seymouranalyzer.data.NearbyPiece;
 import schnerry.seymouranalyzer.scanner.ChestScanner;
 import schnerry.seymouranalyzer.util.ItemStackUtils;
 import schnerry.seymouranalyzer.util.PieceTypeUtil;
@@ -52,7 +56,7 @@ public class InfoBoxRenderer {
 
     private static Object currentOpenGui = null;
 
-    /** Cache: targetHex → best owned ΔE. Cleared when collection changes. */
+    /** Cache: "targetHex|uuid" → best owned ΔE. Entries a collection change could affect are dropped. */
     private static final Map<String, Double> ownedDeltaCache = new ConcurrentHashMap<>();
     /** UUID of the last item whose HoveredItemData was fully computed. */
     private static String lastComputedUuid = null;
@@ -79,6 +83,9 @@ public class InfoBoxRenderer {
         ScreenEvents.AFTER_INIT.register((client, screen, scaledWidth, scaledHeight) ->
             ScreenEvents.afterExtract(screen).register((scr, context, mouseX, mouseY, delta) ->
                 render(context, delta, scr)));
+
+        // Keep the owned-delta cache in step with the collection
+        CollectionManager.getInstance().addListener(InfoBoxRenderer::onCollectionChanged);
     }
 
     public static InfoBoxRenderer getInstance() {
@@ -140,12 +147,46 @@ public class InfoBoxRenderer {
     }
 
     /**
-     * Invalidate the owned-delta cache when the collection changes (scan, clear, etc.).
-     * Forces recomputation of comparison values on the next hover.
+     * Drop owned-delta entries an added or removed piece could change, and force the hovered item
+     * to be recomputed (its dupe count and comparison values may be stale)
      */
-    public static void invalidateOwnedDeltaCache() {
-        ownedDeltaCache.clear();
-        lastComputedUuid = null; // Force recompute even for the currently hovered item
+    private static void onCollectionChanged(List<CollectionEvent> events) {
+        boolean changed = false;
+        for (CollectionEvent event : events) {
+            switch (event) {
+                case CollectionEvent.PieceAdded added -> {
+                    invalidateOwnedDeltasNear(added.piece());
+                    changed = true;
+                }
+                case CollectionEvent.PieceRemoved removed -> {
+                    invalidateOwnedDeltasNear(removed.piece());
+                    changed = true;
+                }
+                case CollectionEvent.Cleared cleared -> {
+                    ownedDeltaCache.clear();
+                    changed = true;
+                }
+                default -> {
+                    // Moves and re-analysis don't affect the info box
+                }
+            }
+        }
+        if (changed) lastComputedUuid = null; // Force recompute even for the currently hovered item
+    }
+
+    /**
+     * A piece only changes a target's best owned ΔE if it's no further from the target than that best
+     */
+    private static void invalidateOwnedDeltasNear(ArmorPiece piece) {
+        int rgb = piece.getRgb();
+        if (rgb < 0) return;
+        ownedDeltaCache.entrySet().removeIf(entry -> {
+            double best = entry.getValue();
+            if (best < 0) return true; // nothing owned yet
+            String key = entry.getKey();
+            int targetRgb = ColorMath.parseRgb(key.substring(0, key.indexOf('|')));
+            return ColorMath.deltaE(targetRgb, rgb) <= best;
+        });
     }
 
     /**
@@ -242,12 +283,13 @@ public class InfoBoxRenderer {
     }
 
     private static void setHoveredItemData(ItemStack stack, String itemName) {
-        String hex = ItemStackUtils.extractHex(stack);
-        if (hex == null) return;
+        int itemRgb = ItemStackUtils.extractRgb(stack);
+        if (itemRgb < 0) return;
+        String hex = ColorMath.toHex(itemRgb);
 
         String uuid = ItemStackUtils.getOrCreateItemUUID(stack);
 
-        ColorAnalyzer.AnalysisResult analysis = ColorAnalyzer.getInstance().analyzeArmorColor(hex, itemName);
+        ColorAnalyzer.AnalysisResult analysis = AnalysisCache.getInstance().get(itemRgb, itemName);
         if (analysis == null || analysis.bestMatch() == null) return;
 
         ClothConfig config = ClothConfig.getInstance();
@@ -255,15 +297,11 @@ public class InfoBoxRenderer {
         String wordMatch = config.isWordsEnabled() ? PatternDetector.getInstance().detectWordMatch(hex) : null;
         String specialPattern = config.isPatternsEnabled() ? PatternDetector.getInstance().detectPattern(hex) : null;
 
-        int itemRgb = Integer.parseInt(hex, 16);
-        int targetRgb = Integer.parseInt(analysis.bestMatch().targetHex(), 16);
-        int absoluteDist = Math.abs(((itemRgb >> 16) & 0xFF) - ((targetRgb >> 16) & 0xFF)) +
-                          Math.abs(((itemRgb >> 8) & 0xFF) - ((targetRgb >> 8) & 0xFF)) +
-                          Math.abs((itemRgb & 0xFF) - (targetRgb & 0xFF));
+        int absoluteDist = ColorMath.absDistance(itemRgb, ColorMath.parseRgb(analysis.bestMatch().targetHex()));
 
         // Get checklist status from cache for the best match hex
         ChecklistStatus checklistStatus = getChecklistStatusForHex(analysis.bestMatch().targetHex(), itemName);
-        int dupeCount = config.isDupesEnabled() ? checkDupeCount(hex, uuid) : 0;
+        int dupeCount = config.isDupesEnabled() ? checkDupeCount(itemRgb, uuid) : 0;
 
         // Compute owned-best deltas for each of the top matches (for shift comparison)
         // Cache key includes the hovered piece's UUID so each piece gets its own
@@ -319,58 +357,28 @@ public class InfoBoxRenderer {
      * Get checklist status for a target hex by checking the checklist cache.
      */
     private static ChecklistStatus getChecklistStatusForHex(String targetHex, String itemName) {
-        ChecklistCache cache = ChecklistCache.getInstance();
-        String hexUpper = targetHex.toUpperCase();
-
         String pieceType = PieceTypeUtil.detectPieceType(itemName);
         if (pieceType == null) {
             return new ChecklistStatus(false, false, Integer.MAX_VALUE);
         }
 
-        for (ChecklistCache.CategoryCache categoryCache : cache.getNormalColorCache().values()) {
-            if (categoryCache.matchesByIndex != null) {
-                for (ChecklistCache.StageMatches stageMatches : categoryCache.matchesByIndex.values()) {
-                    if (stageMatches.stageHex != null && stageMatches.stageHex.equalsIgnoreCase(hexUpper)) {
-                        ChecklistCache.MatchInfo matchInfo = getMatchForPieceType(stageMatches, pieceType);
-                        if (matchInfo != null) {
-                            return new ChecklistStatus(true, true, getTierFromMatch(matchInfo));
-                        }
-                        return new ChecklistStatus(false, true, Integer.MAX_VALUE);
-                    }
-                }
-            }
+        List<ChecklistCache.StageRef> stages = ChecklistCache.getInstance().getStagesForRgb(ColorMath.parseRgb(targetHex));
+        if (stages.isEmpty()) {
+            return new ChecklistStatus(false, false, Integer.MAX_VALUE);
         }
 
-        for (ChecklistCache.CategoryCache categoryCache : cache.getFadeDyeOptimalCache().values()) {
-            if (categoryCache.matchesByIndex != null) {
-                for (ChecklistCache.StageMatches stageMatches : categoryCache.matchesByIndex.values()) {
-                    if (stageMatches.stageHex != null && stageMatches.stageHex.equalsIgnoreCase(hexUpper)) {
-                        ChecklistCache.MatchInfo matchInfo = getMatchForPieceType(stageMatches, pieceType);
-                        if (matchInfo != null) {
-                            return new ChecklistStatus(true, true, getTierFromMatch(matchInfo));
-                        }
-                        return new ChecklistStatus(false, true, Integer.MAX_VALUE);
-                    }
-                }
-            }
+        ChecklistCache.MatchInfo matchInfo = stages.getFirst().matches().get(pieceType);
+        if (matchInfo != null) {
+            return new ChecklistStatus(true, true, getTierFromMatch(matchInfo));
         }
-
-        return new ChecklistStatus(false, false, Integer.MAX_VALUE);
-    }
-
-    private static ChecklistCache.MatchInfo getMatchForPieceType(ChecklistCache.StageMatches stageMatches, String pieceType) {
-        return switch (pieceType) {
-            case "helmet" -> stageMatches.helmet;
-            case "chestplate" -> stageMatches.chestplate;
-            case "leggings" -> stageMatches.leggings;
-            case "boots" -> stageMatches.boots;
-            default -> null;
-        };
+        return new ChecklistStatus(false, true, Integer.MAX_VALUE);
     }
 
     private static int getTierFromMatch(ChecklistCache.MatchInfo matchInfo) {
         if (matchInfo == null || matchInfo.hex == null) return Integer.MAX_VALUE;
-        ColorAnalyzer.AnalysisResult analysis = ColorAnalyzer.getInstance().analyzeArmorColor(matchInfo.hex, matchInfo.name);
+        int tier = VerdictTable.getInstance().tierOf(ColorMath.parseRgb(matchInfo.hex), PieceTypeUtil.detectPieceType(matchInfo.name));
+        if (tier >= 0) return tier;
+        ColorAnalyzer.AnalysisResult analysis = AnalysisCache.getInstance().get(matchInfo.hex, matchInfo.name);
         if (analysis != null) {
             return analysis.tier();
         }
@@ -382,34 +390,16 @@ public class InfoBoxRenderer {
      * Returns -1 if no owned piece found.
      */
     private static double findBestOwnedDeltaForTarget(String targetHex, String selfUuid) {
-        Map<String, ArmorPiece> collection = CollectionManager.getInstance().getCollection();
-        double best = Double.MAX_VALUE;
-        for (Map.Entry<String, ArmorPiece> entry : collection.entrySet()) {
-            if (selfUuid != null && selfUuid.equals(entry.getKey())) continue;
-            ArmorPiece piece = entry.getValue();
-            if (piece.getHexcode() == null || piece.getHexcode().isEmpty()) continue;
-            double delta = ColorMath.calculateDeltaE(piece.getHexcode(), targetHex);
-            if (delta < best) best = delta;
-        }
-        return best == Double.MAX_VALUE ? -1.0 : best;
+        int targetRgb = ColorMath.parseRgb(targetHex);
+        List<NearbyPiece> nearest = CollectionManager.getInstance().findNearest(targetRgb, 1, selfUuid, null);
+        return nearest.isEmpty() ? -1.0 : nearest.get(0).deltaE();
     }
 
-    private static int checkDupeCount(String hex, String uuid) {
-        Map<String, ArmorPiece> collection = CollectionManager.getInstance().getCollection();
-        String hexUpper = hex.toUpperCase();
-        int dupeCount = 0;
-        boolean isThisItemInCollection = false;
-
-        for (Map.Entry<String, ArmorPiece> entry : collection.entrySet()) {
-            if (entry.getValue().getHexcode().toUpperCase().equals(hexUpper)) {
-                dupeCount++;
-
-                // Check if the hovered item IS this collection piece
-                if (java.util.Objects.equals(uuid, entry.getKey())) {
-                    isThisItemInCollection = true;
-                }
-            }
-        }
+    private static int checkDupeCount(int rgb, String uuid) {
+        Map<String, ArmorPiece> sameColor = CollectionManager.getInstance().getPiecesWithRgb(rgb);
+        int dupeCount = sameColor.size();
+        // Check if the hovered item IS one of these collection pieces
+        boolean isThisItemInCollection = uuid != null && sameColor.containsKey(uuid);
 
         // For items IN collection: show dupe if there are 2+ pieces with this hex
         if (isThisItemInCollection && dupeCount >= 2) {
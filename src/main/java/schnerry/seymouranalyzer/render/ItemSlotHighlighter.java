@@ -4,17 +4,20 @@ import net.minecraft.client.gui.GuiGraphicsExtractor;
 import net.minecraft.client.gui.screens.inventory.AbstractContainerScreen;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.inventory.Slot;
+import schnerry.seymouranalyzer.analyzer.AnalysisCache;
 import schnerry.seymouranalyzer.analyzer.ColorAnalyzer;
 import schnerry.seymouranalyzer.analyzer.PatternDetector;
+import schnerry.seymouranalyzer.analyzer.VerdictTable;
 import schnerry.seymouranalyzer.config.ClothConfig;
+import schnerry.seymouranalyzer.config.ConfigEpochs;
 import schnerry.seymouranalyzer.config.MatchPriority;
-import schnerry.seymouranalyzer.data.ArmorPiece;
 import schnerry.seymouranalyzer.data.CollectionManager;
 import schnerry.seymouranalyzer.scanner.ChestScanner;
+import schnerry.seymouranalyzer.util.ColorMath;
+import schnerry.seymouranalyzer.util.PieceTypeUtil;
 
 import java.lang.reflect.Field;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
 
@@ -38,7 +41,7 @@ public class ItemSlotHighlighter {
     /**
          * Cached data for an item to avoid re-analysis every frame
          */
-        private record CachedItemData(String hex, String uuid, Integer highlightColor) {
+        private record CachedItemData(String hex, String uuid, Integer highlightColor, ConfigEpochs epochs) {
     }
 
     private ItemSlotHighlighter() {
@@ -78,7 +81,7 @@ public class ItemSlotHighlighter {
     }
 
     /**
-     * Clear the item cache (used when priorities or config changes)
+     * Clear the item cache (used when the collection changes; config changes are tracked by epoch)
      */
     public void clearCache() {
         itemCache.clear();
@@ -99,19 +102,21 @@ public class ItemSlotHighlighter {
         String itemName = stack.getHoverName().getString();
         if (!ChestScanner.isSeymourArmor(itemName)) return;
 
-        // Check cache first
+        // Check cache first; highlights depend on every config concern, so any epoch change makes it stale
         CachedItemData cachedData = itemCache.get(stack);
+        ConfigEpochs epochs = config.getEpochs();
 
-        if (cachedData == null) {
+        if (cachedData == null || cachedData.epochs != epochs) {
             // Not in cache - analyze and cache it
-            String hex = scanner.extractHex(stack);
-            if (hex == null) return;
+            int rgb = scanner.extractRgb(stack);
+            if (rgb < 0) return;
+            String hex = ColorMath.toHex(rgb);
 
             String uuid = scanner.getOrCreateItemUUID(stack);
             Integer highlightColor = getHighlightColor(stack, hex, itemName, uuid);
 
             // Cache for next frame
-            cachedData = new CachedItemData(hex, uuid, highlightColor);
+            cachedData = new CachedItemData(hex, uuid, highlightColor, epochs);
             itemCache.put(stack, cachedData);
         }
 
@@ -164,17 +169,19 @@ public class ItemSlotHighlighter {
 
                 // Check cache first - if we've already analyzed this ItemStack, use cached data
                 CachedItemData cachedData = itemCache.get(stack);
+                ConfigEpochs epochs = config.getEpochs();
 
-                if (cachedData == null) {
+                if (cachedData == null || cachedData.epochs != epochs) {
                     // Not in cache - analyze and cache it
-                    String hex = scanner.extractHex(stack);
-                    if (hex == null) continue;
+                    int rgb = scanner.extractRgb(stack);
+                    if (rgb < 0) continue;
+                    String hex = ColorMath.toHex(rgb);
 
                     String uuid = scanner.getOrCreateItemUUID(stack);
                     Integer highlightColor = getHighlightColor(stack, hex, itemName, uuid);
 
                     // Cache for next frame
-                    cachedData = new CachedItemData(hex, uuid, highlightColor);
+                    cachedData = new CachedItemData(hex, uuid, highlightColor, epochs);
                     itemCache.put(stack, cachedData);
                 }
 
@@ -260,17 +267,19 @@ public class ItemSlotHighlighter {
 
                 // Check cache first - if we've already analyzed this ItemStack, use cached data
                 CachedItemData cachedData = itemCache.get(stack);
+                ConfigEpochs epochs = config.getEpochs();
 
-                if (cachedData == null) {
+                if (cachedData == null || cachedData.epochs != epochs) {
                     // Not in cache - analyze and cache it
-                    String hex = scanner.extractHex(stack);
-                    if (hex == null) continue;
+                    int rgb = scanner.extractRgb(stack);
+                    if (rgb < 0) continue;
+                    String hex = ColorMath.toHex(rgb);
 
                     String uuid = scanner.getOrCreateItemUUID(stack);
                     Integer highlightColor = getHighlightColor(stack, hex, itemName, uuid);
 
                     // Cache for next frame
-                    cachedData = new CachedItemData(hex, uuid, highlightColor);
+                    cachedData = new CachedItemData(hex, uuid, highlightColor, epochs);
                     itemCache.put(stack, cachedData);
                 }
 
@@ -387,12 +396,13 @@ public class ItemSlotHighlighter {
     private Integer getHighlightColor(ItemStack stack, String hex, String itemName, String uuid) {
         ClothConfig config = ClothConfig.getInstance();
         String hexUpper = hex.toUpperCase();
+        int rgb = ColorMath.parseRgb(hex);
 
         // Collect all possible matches with their priorities
         java.util.Map<MatchPriority, Integer> possibleMatches = new java.util.HashMap<>();
 
         // Check dupe
-        if (config.isDupesEnabled() && uuid != null && isDuplicateHex(hex, uuid)) {
+        if (config.isDupesEnabled() && uuid != null && isDuplicateHex(rgb, uuid)) {
             possibleMatches.put(MatchPriority.DUPE, config.getHighlightColor(MatchPriority.DUPE));
         }
 
@@ -403,7 +413,7 @@ public class ItemSlotHighlighter {
 
         // Check word match
         if (config.isWordsEnabled()) {
-            String wordMatch = PatternDetector.getInstance().detectWordMatch(hex);
+            String wordMatch = PatternDetector.getInstance().detectWordMatch(rgb);
             if (wordMatch != null) {
                 possibleMatches.put(MatchPriority.WORD, config.getHighlightColor(MatchPriority.WORD));
             }
@@ -411,7 +421,7 @@ public class ItemSlotHighlighter {
 
         // Check pattern match
         if (config.isPatternsEnabled()) {
-            String pattern = PatternDetector.getInstance().detectPattern(hex);
+            String pattern = PatternDetector.getInstance().detectPattern(rgb);
             if (pattern != null) {
                 possibleMatches.put(MatchPriority.PATTERN, config.getHighlightColor(MatchPriority.PATTERN));
             }
@@ -419,32 +429,14 @@ public class ItemSlotHighlighter {
 
         // Check tier-based matches - check ALL top 3 matches, not just the best one
         // A piece can match multiple categories (e.g., T1 fade AND T2 normal)
-        ColorAnalyzer.AnalysisResult analysis = ColorAnalyzer.getInstance().analyzeArmorColor(hex, itemName);
-        if (analysis != null && analysis.top3Matches() != null) {
-            for (ColorAnalyzer.ColorMatch match : analysis.top3Matches()) {
-                int tier = calculateTier(match.deltaE(), match.isCustom(), match.isFade());
-
-                // Skip T3+ matches (too far away)
-                if (tier == 3) continue;
-
-                if (match.isCustom()) {
-                    switch (tier) {
-                        case 0, 1 -> possibleMatches.putIfAbsent(MatchPriority.CUSTOM_T1, config.getHighlightColor(MatchPriority.CUSTOM_T1));
-                        case 2    -> possibleMatches.putIfAbsent(MatchPriority.CUSTOM_T2, config.getHighlightColor(MatchPriority.CUSTOM_T2));
-                    }
-                } else if (match.isFade()) {
-                    switch (tier) {
-                        case 0 -> possibleMatches.putIfAbsent(MatchPriority.FADE_T0, config.getHighlightColor(MatchPriority.FADE_T0));
-                        case 1 -> possibleMatches.putIfAbsent(MatchPriority.FADE_T1, config.getHighlightColor(MatchPriority.FADE_T1));
-                        case 2 -> possibleMatches.putIfAbsent(MatchPriority.FADE_T2, config.getHighlightColor(MatchPriority.FADE_T2));
-                    }
-                } else {
-                    switch (tier) {
-                        case 0 -> possibleMatches.putIfAbsent(MatchPriority.NORMAL_T0, config.getHighlightColor(MatchPriority.NORMAL_T0));
-                        case 1 -> possibleMatches.putIfAbsent(MatchPriority.NORMAL_T1, config.getHighlightColor(MatchPriority.NORMAL_T1));
-                        case 2 -> possibleMatches.putIfAbsent(MatchPriority.NORMAL_T2, config.getHighlightColor(MatchPriority.NORMAL_T2));
-                    }
-                }
+        int tierMask = VerdictTable.getInstance().priorityMask(rgb, PieceTypeUtil.detectPieceType(itemName));
+        if (tierMask < 0) {
+            tierMask = ColorAnalyzer.tierPriorityMask(AnalysisCache.getInstance().get(hex, itemName));
+        }
+        for (int bit = 0; bit < ColorAnalyzer.TIER_PRIORITIES.length; bit++) {
+            if ((tierMask & (1 << bit)) != 0) {
+                MatchPriority priority = ColorAnalyzer.TIER_PRIORITIES[bit];
+                possibleMatches.putIfAbsent(priority, config.getHighlightColor(priority));
             }
         }
 
@@ -465,54 +457,15 @@ public class ItemSlotHighlighter {
         return possibleMatches.values().iterator().next();
     }
 
-    /**
-     * Calculate tier for a match (copied from ColorAnalyzer to avoid recalculation)
-     */
-    private int calculateTier(double deltaE, boolean isCustom, boolean isFade) {
-        if (isCustom) {
-            if (deltaE <= 2) return 1;
-            if (deltaE <= 5) return 2;
-            return 3;
-        }
-
-        if (isFade) {
-            if (deltaE <= 1) return 0;
-            if (deltaE <= 2) return 1;
-            if (deltaE <= 5) return 2;
-            return 3;
-        }
-
-        // Normal colors
-        if (deltaE <= 1) return 0;
-        if (deltaE <= 2) return 1;
-        if (deltaE <= 5) return 2;
-        return 3;
-    }
-
     /**
      * Check if a hex+uuid combination is a duplicate
      * An item is a DUPE only if:
      * - Another item in collection has the SAME hex
      * - But has a DIFFERENT uuid (it's a different item)
      */
-    private boolean isDuplicateHex(String hex, String uuid) {
-        Map<String, ArmorPiece> collection = CollectionManager.getInstance().getCollection();
-        String hexUpper = hex.toUpperCase();
-
-        for (Map.Entry<String, ArmorPiece> entry : collection.entrySet()) {
-            String entryUuid = entry.getKey();
-            ArmorPiece piece = entry.getValue();
-
-            // Check if hex matches
-            if (piece.getHexcode().toUpperCase().equals(hexUpper)) {
-                // Only mark as dupe if UUID is DIFFERENT (different item, same color)
-                if (!entryUuid.equals(uuid)) {
-                    return true;
-                }
-            }
-        }
-
-        return false;
+    private boolean isDuplicateHex(int rgb, String uuid) {
+        // Only a dupe if a DIFFERENT item has the same color
+        return CollectionManager.getInstance().hasOtherPieceWithRgb(rgb, uuid);
     }
 
     /**
@@ -16,11 +16,13 @@ import net.minecraft.core.BlockPos;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import schnerry.seymouranalyzer.SeymourAnalyzer;
+import schnerry.seymouranalyzer.analyzer.AnalysisCache;
 import schnerry.seymouranalyzer.analyzer.ColorAnalyzer;
 import schnerry.seymouranalyzer.analyzer.PatternDetector;
 import schnerry.seymouranalyzer.config.ClothConfig;
 import schnerry.seymouranalyzer.data.ArmorPiece;
 import schnerry.seymouranalyzer.data.CollectionManager;
+import schnerry.seymouranalyzer.util.ColorMath;
 import schnerry.seymouranalyzer.util.ItemStackUtils;
 import schnerry.seymouranalyzer.util.ScoreboardUtils;
 import schnerry.seymouranalyzer.util.StringUtility;
@@ -280,18 +282,15 @@ public class ChestScanner {
                 // Don't add duplicates within the same batch
                 if (pendingBatchUuids.contains(uuid)) continue;
 
-                String itemHex = ItemStackUtils.extractHex(stack);
-                if (itemHex == null) continue;
+                int itemRgb = ItemStackUtils.extractRgb(stack);
+                if (itemRgb < 0) continue;
+                String itemHex = ColorMath.toHex(itemRgb);
 
-                ColorAnalyzer.AnalysisResult analysis = ColorAnalyzer.getInstance().analyzeArmorColor(itemHex, itemName);
+                ColorAnalyzer.AnalysisResult analysis = AnalysisCache.getInstance().get(itemRgb, itemName);
                 if (analysis == null) continue;
 
                 ColorAnalyzer.ColorMatch best = analysis.bestMatch();
-                int itemRgb = Integer.parseInt(itemHex, 16);
-                int targetRgb = Integer.parseInt(best.targetHex(), 16);
-                int absoluteDist = Math.abs(((itemRgb >> 16) & 0xFF) - ((targetRgb >> 16) & 0xFF)) +
-                                  Math.abs(((itemRgb >> 8) & 0xFF) - ((targetRgb >> 8) & 0xFF)) +
-                                  Math.abs((itemRgb & 0xFF) - (targetRgb & 0xFF));
+                int absoluteDist = ColorMath.absDistance(itemRgb, ColorMath.parseRgb(best.targetHex()));
 
                 String wordMatch = PatternDetector.getInstance().detectWordMatch(itemHex);
                 String specialPattern = PatternDetector.getInstance().detectPattern(itemHex);
@@ -300,10 +299,7 @@ public class ChestScanner {
                 List<ArmorPiece.ColorMatch> top3Matches = new ArrayList<>();
                 for (int m = 0; m < 3 && m < analysis.top3Matches().size(); m++) {
                     ColorAnalyzer.ColorMatch match = analysis.top3Matches().get(m);
-                    int matchRgb = Integer.parseInt(match.targetHex(), 16);
-                    int matchAbsoluteDist = Math.abs(((itemRgb >> 16) & 0xFF) - ((matchRgb >> 16) & 0xFF)) +
-                                           Math.abs(((itemRgb >> 8) & 0xFF) - ((matchRgb >> 8) & 0xFF)) +
-                                           Math.abs((itemRgb & 0xFF) - (matchRgb & 0xFF));
+                    int matchAbsoluteDist = ColorMath.absDistance(itemRgb, ColorMath.parseRgb(match.targetHex()));
 
                     top3Matches.add(new ArmorPiece.ColorMatch(
                         match.name(),
@@ -408,19 +404,15 @@ public class ChestScanner {
                 if (CollectionManager.getInstance().hasPiece(uuid) && !exportingEnabled) continue;
                 if (exportingEnabled && exportCollection.containsKey(uuid)) continue;
 
-                String itemHex = ItemStackUtils.extractHex(stack);
+                int itemRgb = ItemStackUtils.extractRgb(stack);
+                if (itemRgb < 0) continue;
+                String itemHex = ColorMath.toHex(itemRgb);
 
-                if (itemHex == null) continue;
-
-                ColorAnalyzer.AnalysisResult analysis = ColorAnalyzer.getInstance().analyzeArmorColor(itemHex, itemName);
+                ColorAnalyzer.AnalysisResult analysis = AnalysisCache.getInstance().get(itemRgb, itemName);
                 if (analysis == null) continue;
 
                 ColorAnalyzer.ColorMatch best = analysis.bestMatch();
-                int itemRgb = Integer.parseInt(itemHex, 16);
-                int targetRgb = Integer.parseInt(best.targetHex(), 16);
-                int absoluteDist = Math.abs(((itemRgb >> 16) & 0xFF) - ((targetRgb >> 16) & 0xFF)) +
-                                  Math.abs(((itemRgb >> 8) & 0xFF) - ((targetRgb >> 8) & 0xFF)) +
-                                  Math.abs((itemRgb & 0xFF) - (targetRgb & 0xFF));
+                int absoluteDist = ColorMath.absDistance(itemRgb, ColorMath.parseRgb(best.targetHex()));
 
                 String wordMatch = PatternDetector.getInstance().detectWordMatch(itemHex);
                 String specialPattern = PatternDetector.getInstance().detectPattern(itemHex);
@@ -429,10 +421,7 @@ public class ChestScanner {
                 List<ArmorPiece.ColorMatch> top3Matches = new ArrayList<>();
                 for (int m = 0; m < 3 && m < analysis.top3Matches().size(); m++) {
                     ColorAnalyzer.ColorMatch match = analysis.top3Matches().get(m);
-                    int matchRgb = Integer.parseInt(match.targetHex(), 16);
-                    int matchAbsoluteDist = Math.abs(((itemRgb >> 16) & 0xFF) - ((matchRgb >> 16) & 0xFF)) +
-                                           Math.abs(((itemRgb >> 8) & 0xFF) - ((matchRgb >> 8) & 0xFF)) +
-                                           Math.abs((itemRgb & 0xFF) - (matchRgb & 0xFF));
+                    int matchAbsoluteDist = ColorMath.absDistance(itemRgb, ColorMath.parseRgb(match.targetHex()));
 
                     top3Matches.add(new ArmorPiece.ColorMatch(
                         match.name(),
@@ -539,6 +528,13 @@ public class ChestScanner {
         return ItemStackUtils.extractHex(stack);
     }
 
+    /**
+     * Extract packed RGB from item - delegates to ItemStackUtils
+     */
+    public int extractRgb(ItemStack stack) {
+        return ItemStackUtils.extractRgb(stack);
+    }
+
     /**
      * Extract UUID from item - delegates to ItemStackUtils
      */
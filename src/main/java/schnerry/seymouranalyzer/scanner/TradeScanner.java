@@ -11,10 +11,12 @@ import net.minecraft.world.inventory.Slot;
 import net.minecraft.world.item.ItemStack;
 import schnerry.seymouranalyzer.SeymourAnalyzer;
 import schnerry.seymouranalyzer.SeymourAnalyzerClient;
+import schnerry.seymouranalyzer.analyzer.AnalysisCache;
 import schnerry.seymouranalyzer.analyzer.ColorAnalyzer;
 import schnerry.seymouranalyzer.analyzer.PatternDetector;
 import schnerry.seymouranalyzer.data.ArmorPiece;
 import schnerry.seymouranalyzer.data.CollectionManager;
+import schnerry.seymouranalyzer.util.ColorMath;
 import schnerry.seymouranalyzer.util.ItemStackUtils;
 import schnerry.seymouranalyzer.util.StringUtility;
 
@@ -219,18 +221,15 @@ public class TradeScanner {
     /** Full analysis pipeline, mirrored from ChestScanner.scanChestContents. */
     private ArmorPiece analyseStack(ItemStack stack, String itemName, String uuid) {
         try {
-            String hex = ItemStackUtils.extractHex(stack);
-            if (hex == null) return null;
+            int itemRgb = ItemStackUtils.extractRgb(stack);
+            if (itemRgb < 0) return null;
+            String hex = ColorMath.toHex(itemRgb);
 
-            ColorAnalyzer.AnalysisResult analysis = ColorAnalyzer.getInstance().analyzeArmorColor(hex, itemName);
+            ColorAnalyzer.AnalysisResult analysis = AnalysisCache.getInstance().get(itemRgb, itemName);
             if (analysis == null) return null;
 
             ColorAnalyzer.ColorMatch best = analysis.bestMatch();
-            int itemRgb   = Integer.parseInt(hex, 16);
-            int targetRgb = Integer.parseInt(best.targetHex(), 16);
-            int absDist   = Math.abs(((itemRgb >> 16) & 0xFF) - ((targetRgb >> 16) & 0xFF))
-                          + Math.abs(((itemRgb >>  8) & 0xFF) - ((targetRgb >>  8) & 0xFF))
-                          + Math.abs(( itemRgb        & 0xFF) - ( targetRgb        & 0xFF));
+            int absDist = ColorMath.absDistance(itemRgb, ColorMath.parseRgb(best.targetHex()));
 
             String wordMatch      = PatternDetector.getInstance().detectWordMatch(hex);
             String specialPattern = PatternDetector.getInstance().detectPattern(hex);
@@ -238,10 +237,7 @@ public class TradeScanner {
             List<ArmorPiece.ColorMatch> top3 = new ArrayList<>();
             for (int m = 0; m < 3 && m < analysis.top3Matches().size(); m++) {
                 ColorAnalyzer.ColorMatch cm = analysis.top3Matches().get(m);
-                int cmRgb = Integer.parseInt(cm.targetHex(), 16);
-                int cmDist = Math.abs(((itemRgb >> 16) & 0xFF) - ((cmRgb >> 16) & 0xFF))
-                           + Math.abs(((itemRgb >>  8) & 0xFF) - ((cmRgb >>  8) & 0xFF))
-                           + Math.abs(( itemRgb        & 0xFF) - ( cmRgb        & 0xFF));
+                int cmDist = ColorMath.absDistance(itemRgb, ColorMath.parseRgb(cm.targetHex()));
                 top3.add(new ArmorPiece.ColorMatch(cm.name(), cm.targetHex(), cm.deltaE(), cmDist, cm.tier()));
             }
 
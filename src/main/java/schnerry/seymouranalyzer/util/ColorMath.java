@@ -1,6 +1,28 @@
 package schnerry.seymouranalyzer.util;
 
 public class ColorMath {
+    private static final double XN = 95.047;
+    private static final double YN = 100.0;
+    private static final double ZN = 108.883;
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * Per-thread scratch for LAB math before the lookup table is ready
+     */
+    private static final ThreadLocal<double[]> SCRATCH = ThreadLocal.withInitial(() -> new double[3]);
+
+    /**
+     * sRGB channel (0-255) to linear light, indexed by channel value
+     */
+    private static final double[] SRGB_TO_LINEAR = new double[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            double c = i / 255.0;
+            SRGB_TO_LINEAR[i] = c > 0.04045 ? Math.pow((c + 0.055) / 1.055, 2.4) : c / 12.92;
+        }
+    }
 
     /**
      * Convert hex string to RGB values
@@ -62,13 +84,9 @@ public class ColorMath {
      * Convert XYZ to LAB color space
      */
     public static LAB xyzToLab(XYZ xyz) {
-        final double xn = 95.047;
-        final double yn = 100.0;
-        final double zn = 108.883;
-
-        double x = xyz.x() / xn;
-        double y = xyz.y() / yn;
-        double z = xyz.z() / zn;
+        double x = xyz.x() / XN;
+        double y = xyz.y() / YN;
+        double z = xyz.z() / ZN;
 
         x = x > 0.008856 ? Math.pow(x, 1.0/3.0) : (7.787 * x + 16.0/116.0);
         y = y > 0.008856 ? Math.pow(y, 1.0/3.0) : (7.787 * y + 16.0/116.0);
@@ -85,23 +103,90 @@ public class ColorMath {
      * Convert hex string directly to LAB
      */
     public static LAB hexToLab(String hex) {
-        RGB rgb = hexToRgb(hex);
-        XYZ xyz = rgbToXyz(rgb);
-        return xyzToLab(xyz);
+        return rgbToLab(parseRgbOrBlack(hex));
+    }
+
+    /**
+     * Convert packed 0xRRGGBB to LAB, served from the lookup table once it's built
+     */
+    public static LAB rgbToLab(int rgb) {
+        LabTable table = LabTable.getInstance();
+        if (table.isReady()) {
+            return new LAB(table.getL(rgb), table.getA(rgb), table.getB(rgb));
+        }
+        double[] lab = new double[3];
+        computeTableLab(rgb, lab);
+        return new LAB(lab[0], lab[1], lab[2]);
+    }
+
+    /**
+     * Parse hex string to packed 0xRRGGBB, or -1 for null or invalid input (0 is real black, so
+     * callers must skip negative values rather than treat them as a color)
+     */
+    public static int parseRgb(String hex) {
+        if (hex == null) return -1;
+        int start = !hex.isEmpty() && hex.charAt(0) == '#' ? 1 : 0;
+        if (hex.length() - start != 6) {
+            return -1;
+        }
+
+        int rgb = 0;
+        for (int i = start; i < start + 6; i++) {
+            int digit = Character.digit(hex.charAt(i), 16);
+            if (digit < 0) {
+                return -1;
+            }
+            rgb = (rgb << 4) | digit;
+        }
+        return rgb;
+    }
+
+    /**
+     * parseRgb for the String convenience APIs (hexToLab, calculateDeltaE, calculateAbsoluteDistance),
+     * which keep hexToRgb's black fallback for invalid input
+     */
+    private static int parseRgbOrBlack(String hex) {
+        int rgb = parseRgb(hex);
+        return rgb < 0 ? 0 : rgb;
+    }
+
+    /**
+     * computeLab rounded to float, exactly what LabTable stores, so results don't depend on whether
+     * the table has finished building
+     */
+    static void computeTableLab(int rgb, double[] out) {
+        computeLab(rgb, out);
+        out[0] = (float) out[0];
+        out[1] = (float) out[1];
+        out[2] = (float) out[2];
+    }
+
+    /**
+     * Compute LAB for packed 0xRRGGBB directly (no table), writing L, a, b into out
+     */
+    static void computeLab(int rgb, double[] out) {
+        double r = SRGB_TO_LINEAR[(rgb >> 16) & 0xFF];
+        double g = SRGB_TO_LINEAR[(rgb >> 8) & 0xFF];
+        double b = SRGB_TO_LINEAR[rgb & 0xFF];
+
+        double x = (r * 0.4124564 + g * 0.3575761 + b * 0.1804375) * 100 / XN;
+        double y = (r * 0.2126729 + g * 0.7151522 + b * 0.0721750) * 100 / YN;
+        double z = (r * 0.0193339 + g * 0.1191920 + b * 0.9503041) * 100 / ZN;
+
+        x = x > 0.008856 ? Math.cbrt(x) : (7.787 * x + 16.0/116.0);
+        y = y > 0.008856 ? Math.cbrt(y) : (7.787 * y + 16.0/116.0);
+        z = z > 0.008856 ? Math.cbrt(z) : (7.787 * z + 16.0/116.0);
+
+        out[0] = 116 * y - 16;
+        out[1] = 500 * (x - y);
+        out[2] = 200 * (y - z);
     }
 
     /**
      * Calculate Delta E (CIE76) between two colors
      */
     public static double calculateDeltaE(String hex1, String hex2) {
-        LAB lab1 = hexToLab(hex1);
-        LAB lab2 = hexToLab(hex2);
-
-        return Math.sqrt(
-            Math.pow(lab1.L() - lab2.L(), 2) +
-            Math.pow(lab1.a() - lab2.a(), 2) +
-            Math.pow(lab1.b() - lab2.b(), 2)
-        );
+        return deltaE(parseRgbOrBlack(hex1), parseRgbOrBlack(hex2));
     }
 
     /**
@@ -119,12 +204,64 @@ public class ColorMath {
      * Calculate absolute RGB distance (Manhattan distance)
      */
     public static int calculateAbsoluteDistance(String hex1, String hex2) {
-        RGB rgb1 = hexToRgb(hex1);
-        RGB rgb2 = hexToRgb(hex2);
+        return absDistance(parseRgbOrBlack(hex1), parseRgbOrBlack(hex2));
+    }
+
+    /**
+     * Delta E (CIE76) between two packed 0xRRGGBB colors. Does not allocate.
+     */
+    public static double deltaE(int rgb1, int rgb2) {
+        LabTable table = LabTable.getInstance();
+        if (table.isReady()) {
+            double dL = (double) table.getL(rgb1) - table.getL(rgb2); // in double, like the pre-ready path
+            double da = (double) table.getA(rgb1) - table.getA(rgb2);
+            double db = (double) table.getB(rgb1) - table.getB(rgb2);
+            return Math.sqrt(dL * dL + da * da + db * db);
+        }
 
-        return Math.abs(rgb1.r() - rgb2.r()) +
-               Math.abs(rgb1.g() - rgb2.g()) +
-               Math.abs(rgb1.b() - rgb2.b());
+        double[] scratch = SCRATCH.get();
+        computeTableLab(rgb1, scratch);
+        double L = scratch[0], a = scratch[1], b = scratch[2];
+        computeTableLab(rgb2, scratch);
+        double dL = L - scratch[0];
+        double da = a - scratch[1];
+        double db = b - scratch[2];
+        return Math.sqrt(dL * dL + da * da + db * db);
+    }
+
+    /**
+     * Absolute RGB (Manhattan) distance between two packed 0xRRGGBB colors
+     */
+    public static int absDistance(int rgb1, int rgb2) {
+        return Math.abs(((rgb1 >> 16) & 0xFF) - ((rgb2 >> 16) & 0xFF)) +
+               Math.abs(((rgb1 >> 8) & 0xFF) - ((rgb2 >> 8) & 0xFF)) +
+               Math.abs((rgb1 & 0xFF) - (rgb2 & 0xFF));
+    }
+
+    /**
+     * Write L, a, b of a packed 0xRRGGBB color into out (length >= 3). Does not allocate.
+     */
+    public static void labInto(int rgb, double[] out) {
+        LabTable table = LabTable.getInstance();
+        if (table.isReady()) {
+            out[0] = table.getL(rgb);
+            out[1] = table.getA(rgb);
+            out[2] = table.getB(rgb);
+        } else {
+            computeTableLab(rgb, out);
+        }
+    }
+
+    /**
+     * Format packed 0xRRGGBB as an upper-case 6 digit hex string (no '#')
+     */
+    public static String toHex(int rgb) {
+        char[] chars = new char[6];
+        for (int i = 5; i >= 0; i--) {
+            chars[i] = HEX_DIGITS[rgb & 0xF];
+            rgb >>= 4;
+        }
+        return new String(chars);
     }
 
     /**
@@ -137,21 +274,47 @@ public class ColorMath {
     }
 
     public static String rgbStringToHex(String rgbString) {
-        try {
-            String[] parts = rgbString.split(":");
-            if (parts.length == 3) {
-                int r = Integer.parseInt(parts[0].trim());
-                int g = Integer.parseInt(parts[1].trim());
-                int b = Integer.parseInt(parts[2].trim());
-                return String.format("%02X%02X%02X",
-                        Math.clamp(r, 0, 255),
-                        Math.clamp(g, 0, 255),
-                        Math.clamp(b, 0, 255)
-                );
+        int rgb = rgbStringToRgb(rgbString);
+        return rgb < 0 ? null : toHex(rgb);
+    }
+
+    /**
+     * Parse an "R:G:B" string to packed 0xRRGGBB, or -1 if it's malformed
+     */
+    public static int rgbStringToRgb(String rgbString) {
+        // Parsed in place rather than split/trimmed, since this runs for every scanned or rendered item
+        int first = rgbString.indexOf(':');
+        int second = first < 0 ? -1 : rgbString.indexOf(':', first + 1);
+        if (second < 0) {
+            return -1;
+        }
+        int end = rgbString.indexOf(':', second + 1);
+        if (end < 0) {
+            end = rgbString.length();
+        } else {
+            // split(":") drops trailing empty parts, so "r:g:b:" has always been accepted
+            for (int i = end; i < rgbString.length(); i++) {
+                if (rgbString.charAt(i) != ':') return -1;
             }
+        }
+
+        try {
+            int r = parseTrimmedInt(rgbString, 0, first);
+            int g = parseTrimmedInt(rgbString, first + 1, second);
+            int b = parseTrimmedInt(rgbString, second + 1, end);
+            return (Math.clamp(r, 0, 255) << 16) | (Math.clamp(g, 0, 255) << 8) | Math.clamp(b, 0, 255);
         } catch (NumberFormatException e) {
             // Invalid format
+            return -1;
         }
-        return null;
+    }
+
+    /**
+     * Integer.parseInt(s.substring(start, end).trim()) without the substring
+     */
+    private static int parseTrimmedInt(String s, int start, int end) {
+        while (start < end && s.charAt(start) <= ' ') start++;
+        while (end > start && s.charAt(end - 1) <= ' ') end--;
+        return Integer.parseInt(s, start, end, 10);
     }
 }
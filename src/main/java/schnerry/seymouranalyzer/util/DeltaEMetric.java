@@ -0,0 +1,200 @@
+package schnerry.seymouranalyzer.util;
+
+import lombok.Getter;
+
+/**
+ * Color difference formulas available for ranking matches.
+ * All three are scaled so that ~1.0 is a just-noticeable difference, so they share the
+ * tier cutoffs below; each metric still owns its cutoffs so tiering stays tied to the metric.
+ * <p>
+ * CIE94 is asymmetric: the target color is the reference (graphic arts weights).
+ * Callers pass C*ab of both colors so per-target chroma can be precomputed.
+ */
+@Getter
+public enum DeltaEMetric {
+    CIE76("CIE76", 1.0, 2.0, 5.0),
+    CIE94("CIE94", 1.0, 2.0, 5.0),
+    CIEDE2000("CIEDE2000", 1.0, 2.0, 5.0);
+
+    private static final double POW25_7 = 6103515625.0; // 25^7
+    private static final double DEG = Math.PI / 180.0;
+    private static final double COS_30 = Math.cos(30 * DEG), SIN_30 = Math.sin(30 * DEG);
+    private static final double COS_6 = Math.cos(6 * DEG), SIN_6 = Math.sin(6 * DEG);
+    private static final double COS_63 = Math.cos(63 * DEG), SIN_63 = Math.sin(63 * DEG);
+    // Smallest weight the RT rotation term can leave on the chroma/hue plane:
+    // |RT| <= 2 * sin(60 deg), so x^2 + y^2 + RT*x*y >= (1 - sin 60) (x^2 + y^2)
+    private static final double DE2000_MIN_ROTATION_WEIGHT = 0.1339;
+
+    private final String displayName;
+    private final double t0Limit;
+    private final double t1Limit;
+    private final double t2Limit;
+
+    DeltaEMetric(String displayName, double t0Limit, double t1Limit, double t2Limit) {
+        this.displayName = displayName;
+        this.t0Limit = t0Limit;
+        this.t1Limit = t1Limit;
+        this.t2Limit = t2Limit;
+    }
+
+    public static DeltaEMetric fromName(String name) {
+        for (DeltaEMetric metric : values()) {
+            if (metric.name().equalsIgnoreCase(name)) {
+                return metric;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Tier for a ΔE under this metric: 0 (T1<), 1 (T1), 2 (T2) or 3 (T3+)
+     */
+    public int tierOf(double deltaE) {
+        if (deltaE <= t0Limit) return 0;
+        if (deltaE <= t1Limit) return 1;
+        if (deltaE <= t2Limit) return 2;
+        return 3;
+    }
+
+    /**
+     * ΔE between a reference (target) color and a sample color
+     *
+     * @param refC C*ab of the reference
+     * @param c    C*ab of the sample
+     */
+    public double deltaE(double refL, double refA, double refB, double refC,
+                         double L, double a, double b, double c) {
+        return switch (this) {
+            case CIE76 -> {
+                double dL = refL - L, da = refA - a, db = refB - b;
+                yield Math.sqrt(dL * dL + da * da + db * db);
+            }
+            case CIE94 -> cie94(refL, refA, refB, refC, L, a, b, c);
+            case CIEDE2000 -> ciede2000(refL, refA, refB, refC, L, a, b, c);
+        };
+    }
+
+    /**
+     * Cheap lower bound on ΔE² from the CIE76 components, used to skip the full formula.
+     *
+     * @param dab2 squared a/b-plane distance (Δa² + Δb²)
+     */
+    public double lowerBoundSq(double refL, double L, double dab2, double refC, double c) {
+        double dL = refL - L;
+        return switch (this) {
+            case CIE76 -> dL * dL + dab2;
+            case CIE94 -> {
+                // SL = 1 and SH <= SC, while ΔC² + ΔH² = Δa² + Δb²
+                double sc = 1 + 0.045 * refC;
+                yield dL * dL + dab2 / (sc * sc);
+            }
+            case CIEDE2000 -> {
+                // a' stretches a by at most 1.5x, so C̄' <= 0.75 (C1 + C2) and SC (>= SH) is bounded;
+                // ΔC'² + ΔH'² >= Δa² + Δb² since a' only ever grows the a-difference
+                double sl = lightnessWeight((refL + L) * 0.5);
+                double scMax = 1 + 0.045 * 0.75 * (refC + c);
+                yield dL * dL / (sl * sl) + DE2000_MIN_ROTATION_WEIGHT * dab2 / (scMax * scMax);
+            }
+        };
+    }
+
+    private static double cie94(double refL, double refA, double refB, double refC,
+                                double L, double a, double b, double c) {
+        double dL = refL - L;
+        double dC = refC - c;
+        double da = refA - a, db = refB - b;
+        double dH2 = Math.max(0, da * da + db * db - dC * dC);
+        double sc = 1 + 0.045 * refC;
+        double sh = 1 + 0.015 * refC;
+        double dCs = dC / sc;
+        return Math.sqrt(dL * dL + dCs * dCs + dH2 / (sh * sh));
+    }
+
+    /**
+     * CIEDE2000 (Sharma et al. 2005) with the hue terms evaluated from a'/b' vectors instead of
+     * angles: ΔH' comes from the dot/cross product and the mean-hue cosines from multiple-angle
+     * identities, leaving one atan2 (for the blue-region rotation) per pair.
+     */
+    private static double ciede2000(double L1, double a1, double b1, double c1,
+                                    double L2, double a2, double b2, double c2) {
+        double cMean = (c1 + c2) * 0.5;
+        double cMean7 = pow7(cMean);
+        double g = 0.5 * (1 - Math.sqrt(cMean7 / (cMean7 + POW25_7)));
+        double ap1 = a1 * (1 + g), ap2 = a2 * (1 + g);
+        double cp1 = Math.sqrt(ap1 * ap1 + b1 * b1);
+        double cp2 = Math.sqrt(ap2 * ap2 + b2 * b2);
+
+        double dL = L2 - L1;
+        double dC = cp2 - cp1;
+        // ΔH'² = 2 (C1'C2' - a1'a2' - b1b2); its sign is the sign of the hue rotation from 1 to 2
+        double cross = ap1 * b2 - b1 * ap2;
+        double dH2 = Math.max(0, 2 * (cp1 * cp2 - ap1 * ap2 - b1 * b2));
+        double dH = cross < 0 ? -Math.sqrt(dH2) : Math.sqrt(dH2);
+
+        double lMean = (L1 + L2) * 0.5;
+        double cpMean = (cp1 + cp2) * 0.5;
+
+        // Mean hue h̄': bisector of the shorter arc between the two hue directions
+        double cosH, sinH;
+        if (cp1 * cp2 == 0) {
+            double x = ap1 + ap2, y = b1 + b2;
+            double len = Math.sqrt(x * x + y * y);
+            cosH = len == 0 ? 1 : x / len;
+            sinH = len == 0 ? 0 : y / len;
+        } else {
+            double x = ap1 / cp1 + ap2 / cp2, y = b1 / cp1 + b2 / cp2;
+            double len = Math.sqrt(x * x + y * y);
+            if (len < 1e-9) {
+                // Exactly opposite hues: the spec averages the raw angles
+                double h1 = Math.atan2(b1, ap1), h2 = Math.atan2(b2, ap2);
+                if (h1 < 0) h1 += 2 * Math.PI;
+                if (h2 < 0) h2 += 2 * Math.PI;
+                double h = (h1 + h2) * 0.5;
+                cosH = Math.cos(h);
+                sinH = Math.sin(h);
+            } else {
+                cosH = x / len;
+                sinH = y / len;
+            }
+        }
+
+        double cos2 = 2 * cosH * cosH - 1, sin2 = 2 * sinH * cosH;
+        double cos3 = cosH * (4 * cosH * cosH - 3), sin3 = sinH * (3 - 4 * sinH * sinH);
+        double cos4 = 2 * cos2 * cos2 - 1, sin4 = 2 * sin2 * cos2;
+        double t = 1
+            - 0.17 * (cosH * COS_30 + sinH * SIN_30)
+            + 0.24 * cos2
+            + 0.32 * (cos3 * COS_6 - sin3 * SIN_6)
+            - 0.20 * (cos4 * COS_63 + sin4 * SIN_63);
+
+        double sl = lightnessWeight(lMean);
+        double sc = 1 + 0.045 * cpMean;
+        double sh = 1 + 0.015 * cpMean * t;
+
+        double rt = 0;
+        double hMeanDeg = Math.atan2(sinH, cosH) / DEG;
+        if (hMeanDeg < 0) hMeanDeg += 360;
+        double z = (hMeanDeg - 275) / 25;
+        if (z * z < 50) {
+            double dTheta = 30 * DEG * Math.exp(-z * z);
+            double cpMean7 = pow7(cpMean);
+            double rc = 2 * Math.sqrt(cpMean7 / (cpMean7 + POW25_7));
+            rt = -Math.sin(2 * dTheta) * rc;
+        }
+
+        double lTerm = dL / sl;
+        double cTerm = dC / sc;
+        double hTerm = dH / sh;
+        return Math.sqrt(lTerm * lTerm + cTerm * cTerm + hTerm * hTerm + rt * cTerm * hTerm);
+    }
+
+    private static double lightnessWeight(double lMean) {
+        double d = (lMean - 50) * (lMean - 50);
+        return 1 + 0.015 * d / Math.sqrt(20 + d);
+    }
+
+    private static double pow7(double x) {
+        double x2 = x * x;
+        return x2 * x2 * x2 * x;
+    }
+}
@@ -10,34 +10,37 @@ import net.minecraft.nbt.CompoundTag;
 public class ItemStackUtils {
 
     public static String getOrCreateItemUUID(ItemStack stack) {
-        CustomData customData = stack.getOrDefault(DataComponents.CUSTOM_DATA, CustomData.EMPTY);
-        CompoundTag nbt = customData.copyTag();
-
-        if (nbt.contains("uuid")) {
-            return nbt.getString("uuid").orElse(null);
-        }
-
-        return null;
+        return customDataTag(stack).getStringOr("uuid", null);
     }
 
     public static String extractHex(ItemStack stack) {
-        CustomData customData = stack.getOrDefault(DataComponents.CUSTOM_DATA, CustomData.EMPTY);
-        CompoundTag nbt = customData.copyTag();
-
-        if (nbt.contains("color")) {
-            String colorStr = nbt.getString("color").orElse("");
-            if (colorStr.contains(":")) {
-                return ColorMath.rgbStringToHex(colorStr);
-            }
+        int rgb = extractRgb(stack);
+        return rgb < 0 ? null : ColorMath.toHex(rgb);
+    }
+
+    /**
+     * Packed 0xRRGGBB color of the stack, or -1 if it has none
+     */
+    public static int extractRgb(ItemStack stack) {
+        String colorStr = customDataTag(stack).getStringOr("color", "");
+        if (colorStr.indexOf(':') >= 0) {
+            return ColorMath.rgbStringToRgb(colorStr);
         }
 
         DyedItemColor dyedColor = stack.getOrDefault(DataComponents.DYED_COLOR, null);
         if (dyedColor == null) {
-            return null;
+            return -1;
         }
 
-        int rgb = dyedColor.rgb();
-        return String.format("%02X%02X%02X", (rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF);
+        return dyedColor.rgb() & 0xFFFFFF;
     }
-}
 
+    /**
+     * The stack's custom data tag without copying it. These are hit for every rendered slot, and
+     * copyTag() deep-copies the whole compound, so the returned tag must only be read.
+     */
+    @SuppressWarnings("deprecation")
+    private static CompoundTag customDataTag(ItemStack stack) {
+        return stack.getOrDefault(DataComponents.CUSTOM_DATA, CustomData.EMPTY).getUnsafe();
+    }
+}
@@ -0,0 +1,49 @@
+package schnerry.seymouranalyzer.util;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streaming JSON file writes: the body is written through a JsonWriter into a temp file next to the
+ * target, which is fsynced and atomically moved into place, so readers never see a half-written file
+ * and nothing is built in memory first.
+ */
+public final class JsonFiles {
+    private JsonFiles() {
+    }
+
+    @FunctionalInterface
+    public interface Body {
+        void write(JsonWriter writer) throws IOException;
+    }
+
+    /**
+     * @param pretty indent the output (larger and slower to write, but readable)
+     */
+    public static void writeAtomically(Path target, boolean pretty, Body body) throws IOException {
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Writer out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), 1 << 16);
+            JsonWriter writer = new JsonWriter(out);
+            if (pretty) writer.setIndent("  ");
+            body.write(writer);
+            writer.flush();
+            channel.force(false);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
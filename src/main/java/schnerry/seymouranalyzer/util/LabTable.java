@@ -0,0 +1,141 @@
+package schnerry.seymouranalyzer.util;
+
+import net.fabricmc.loader.api.FabricLoader;
+import schnerry.seymouranalyzer.SeymourAnalyzer;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * Dense RGB -> LAB lookup table covering all 16,777,216 colors.
+ * Stored as three float columns (L, a, b) in a memory-mapped file in the config dir,
+ * falling back to an off-heap buffer if the file can't be used.
+ * Built lazily in the background on first use; callers compute directly until it's ready.
+ */
+public class LabTable {
+    private static final int SIZE = 1 << 24;
+    private static final int MAGIC = 0x53414C42; // "SALB"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int STATE_OFFSET = 8;
+    private static final int STATE_COMPLETE = 1;
+    private static final long FILE_BYTES = HEADER_BYTES + 3L * Float.BYTES * SIZE;
+
+    private final File tableFile;
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private volatile boolean ready = false;
+    private FloatBuffer lColumn;
+    private FloatBuffer aColumn;
+    private FloatBuffer bColumn;
+
+    private LabTable() {
+        File configDir = new File(FabricLoader.getInstance().getConfigDir().toFile(), "seymouranalyzer");
+        if (!configDir.exists() && !configDir.mkdirs()) {
+            SeymourAnalyzer.LOGGER.error("Failed to create seymouranalyzer config directory");
+        }
+        tableFile = new File(configDir, "labTable.bin");
+    }
+
+    // Holder idiom: first use is often on ForkJoin workers, and two instances would both build labTable.bin
+    private static final class Holder {
+        static final LabTable INSTANCE = new LabTable();
+    }
+
+    public static LabTable getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Whether lookups can be served from the table. The first call starts loading/building it.
+     */
+    public boolean isReady() {
+        if (ready) return true;
+        if (started.compareAndSet(false, true)) {
+            Thread thread = new Thread(this::loadOrBuild, "LabTableBuilder");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return false;
+    }
+
+    public float getL(int rgb) {
+        return lColumn.get(rgb & 0xFFFFFF);
+    }
+
+    public float getA(int rgb) {
+        return aColumn.get(rgb & 0xFFFFFF);
+    }
+
+    public float getB(int rgb) {
+        return bColumn.get(rgb & 0xFFFFFF);
+    }
+
+    private void loadOrBuild() {
+        long start = System.currentTimeMillis();
+        ByteBuffer buffer;
+        boolean complete = false;
+
+        try (FileChannel channel = FileChannel.open(tableFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            boolean reuse = channel.size() == FILE_BYTES;
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_BYTES);
+            if (reuse && mapped.getInt(0) == MAGIC && mapped.getInt(4) == VERSION
+                    && mapped.getInt(STATE_OFFSET) == STATE_COMPLETE) {
+                complete = true;
+            } else {
+                mapped.putInt(0, MAGIC);
+                mapped.putInt(4, VERSION);
+                mapped.putInt(STATE_OFFSET, 0);
+            }
+            buffer = mapped;
+        } catch (Exception e) {
+            SeymourAnalyzer.LOGGER.warn("Could not map LAB table file, building it in memory instead", e);
+            buffer = ByteBuffer.allocateDirect((int) FILE_BYTES);
+        }
+
+        int columnBytes = Float.BYTES * SIZE;
+        FloatBuffer l = buffer.slice(HEADER_BYTES, columnBytes).asFloatBuffer();
+        FloatBuffer a = buffer.slice(HEADER_BYTES + columnBytes, columnBytes).asFloatBuffer();
+        FloatBuffer b = buffer.slice(HEADER_BYTES + 2 * columnBytes, columnBytes).asFloatBuffer();
+
+        try {
+            if (!complete) {
+                // One task per red value; each writes a disjoint 65536-entry range of every column
+                IntStream.range(0, 256).parallel().forEach(r -> {
+                    double[] lab = new double[3];
+                    int base = r << 16;
+                    for (int gb = 0; gb < 65536; gb++) {
+                        int rgb = base | gb;
+                        ColorMath.computeTableLab(rgb, lab);
+                        l.put(rgb, (float) lab[0]);
+                        a.put(rgb, (float) lab[1]);
+                        b.put(rgb, (float) lab[2]);
+                    }
+                });
+
+                if (buffer instanceof MappedByteBuffer mapped) {
+                    mapped.force();
+                    mapped.putInt(STATE_OFFSET, STATE_COMPLETE);
+                    mapped.force();
+                }
+            }
+        } catch (Exception e) {
+            SeymourAnalyzer.LOGGER.error("Failed to build LAB table", e);
+            return;
+        }
+
+        lColumn = l;
+        aColumn = a;
+        bColumn = b;
+        ready = true;
+
+        SeymourAnalyzer.LOGGER.info("LAB table {} in {}ms",
+            complete ? "loaded" : "built", System.currentTimeMillis() - start);
+    }
+}